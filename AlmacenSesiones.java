@@ -0,0 +1,297 @@
+package servidor;
+
+import eightoff.EightOffGame;
+import eightoff.EightOffGameMedido;
+import eightoff.ModoPilas;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+/**
+ * AlmacenSesiones (Partidas hibernadas fuera del heap)
+ * Guarda juegos inactivos como bytes, en memoria directa (fuera del heap), y
+ * los vuelve a armar cuando se necesitan. Un juego se guarda como su numero
+ * de reparto, su regla de pilas y sus jugadas (las hechas y las de Redo):
+ * volver a jugarlas da exactamente el mismo juego, con su Undo/Redo.
+ *
+ * Formato de un registro:
+ * - numero de reparto (long), modo (byte: 1 = RELAJADO),
+ *   jugadas hechas (short), jugadas de Redo (short)
+ * - cada jugada en 3 bytes (las jugadas usan 22 bits, ver 'Jugada').
+ *
+ * Memoria:
+ * - Zonas directas de 'BYTES_ZONA' bytes, cortadas en bloques de 'BYTES_BLOQUE';
+ *   se agregan zonas cuando hacen falta.
+ * - Un registro ocupa una cadena de bloques: los primeros 4 bytes de cada bloque
+ *   dicen cual es el siguiente (FIN en el ultimo).
+ * - Los bloques libres van a una pila de int; reservar y liberar son O(1) por bloque.
+ * - Solo reservar y liberar toman el candado; leer y escribir un registro no, porque
+ *   cada cadena es de una sola sesion (y la sesion tiene su turno).
+ * - Los juegos que se despiertan salen de un pool de juegos ya creados ('iniciarJuego'
+ *   reusa sus estructuras), asi hibernar y despertar casi no crean objetos.
+ */
+public final class AlmacenSesiones {
+
+    // Valor de "no hay registro" (y fin de cadena).
+    public static final int NINGUNO = -1;
+    private static final int FIN = NINGUNO;
+
+    private static final int BYTES_BLOQUE = 64;
+    private static final int BYTES_ENLACE = 4;
+    private static final int UTILES_BLOQUE = BYTES_BLOQUE - BYTES_ENLACE;
+    private static final int BITS_ZONA = 20; // 1 MB por zona
+    private static final int BYTES_ZONA = 1 << BITS_ZONA;
+    private static final int BLOQUES_ZONA = BYTES_ZONA / BYTES_BLOQUE;
+
+    private static final int BYTES_CABECERA = 13;
+    private static final int BYTES_JUGADA = 3;
+    private static final int MAX_JUGADAS = 0xFFFF; // Los contadores son de 2 bytes
+
+    // Juegos guardados en el pool como maximo (los demas se dejan al GC).
+    private static final int MAX_POOL = 64;
+
+    private ByteBuffer[] zonas = new ByteBuffer[0];
+    private int[] libres = new int[BLOQUES_ZONA]; // Pila de bloques libres
+    private int cantLibres;
+    private int bloquesUsados;
+
+    private final LongFunction<EightOffGame> fabrica;
+    private final ConcurrentLinkedQueue<EightOffGame> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger enPool = new AtomicInteger();
+    private final AtomicInteger registros = new AtomicInteger();
+
+    public AlmacenSesiones() {
+        this(EightOffGame::new);
+    }
+
+    /**
+     * Constructor.
+     * @param fabrica Crea los juegos al despertar cuando el pool esta vacio
+     *                (recibe el numero de partida).
+     */
+    public AlmacenSesiones(LongFunction<EightOffGame> fabrica) {
+        this.fabrica = fabrica;
+    }
+
+    /**
+     * True si el juego se puede guardar: viene de un reparto numerado y su
+     * historial (hechas y de Redo) cabe en los contadores del registro.
+     */
+    public boolean puedeGuardar(EightOffGame juego) {
+        return juego.getNumeroPartida() != EightOffGame.SIN_NUMERO
+                && juego.getNumJugadasHechas() <= MAX_JUGADAS
+                && juego.getNumJugadasDeshechas() <= MAX_JUGADAS;
+    }
+
+    /**
+     * Guarda el juego como bytes.
+     * @return El registro (primer bloque), para 'cargar' o 'liberar'.
+     * @throws IllegalArgumentException Si el juego no se puede guardar (ver 'puedeGuardar').
+     */
+    public int guardar(EightOffGame juego) {
+        if (juego.getNumeroPartida() == EightOffGame.SIN_NUMERO) {
+            throw new IllegalArgumentException("Solo se pueden hibernar partidas con numero de reparto");
+        }
+        int hechas = juego.getNumJugadasHechas();
+        int deshechas = juego.getNumJugadasDeshechas();
+        if (hechas > MAX_JUGADAS || deshechas > MAX_JUGADAS) {
+            throw new IllegalArgumentException("Historial demasiado largo para hibernar: " + hechas + "/" + deshechas);
+        }
+        int bytes = BYTES_CABECERA + (hechas + deshechas) * BYTES_JUGADA;
+        int primero = reservar((bytes + UTILES_BLOQUE - 1) / UTILES_BLOQUE);
+
+        Cursor c = new Cursor(primero);
+        c.escribirLong(juego.getNumeroPartida());
+        c.escribir(juego.getModo() == ModoPilas.RELAJADO ? 1 : 0);
+        c.escribirShort(hechas);
+        c.escribirShort(deshechas);
+        for (int i = 0; i < hechas; i++) c.escribirJugada(juego.getJugadaHecha(i));
+        for (int i = 0; i < deshechas; i++) c.escribirJugada(juego.getJugadaDeshecha(i));
+        registros.incrementAndGet();
+        return primero;
+    }
+
+    /**
+     * Arma el juego de un registro y libera el registro.
+     * @return El juego, igual al que se guardo (posicion, Undo y Redo).
+     */
+    public EightOffGame cargar(int registro) {
+        Cursor c = new Cursor(registro);
+        long numero = c.leerLong();
+        ModoPilas modo = c.leer() == 1 ? ModoPilas.RELAJADO : ModoPilas.ESTRICTO;
+        int hechas = c.leerShort();
+        int deshechas = c.leerShort();
+
+        EightOffGame juego = pool.poll();
+        if (juego != null) {
+            enPool.decrementAndGet();
+            juego.iniciarJuego(numero);
+        } else {
+            juego = fabrica.apply(numero);
+        }
+        // Volver a jugar no cuenta en las metricas (no son jugadas nuevas)
+        EightOffGameMedido medido = juego instanceof EightOffGameMedido ? (EightOffGameMedido) juego : null;
+        if (medido != null) medido.setPausado(true);
+
+        // Se vuelve a jugar con la regla mas permisiva (el modo pudo cambiar a media
+        // partida) y al final se pone el modo que tenia
+        juego.setModo(ModoPilas.RELAJADO);
+        for (int i = 0; i < hechas; i++) aplicar(juego, c.leerJugada());
+
+        // Redo: se vuelven a hacer sus jugadas (de la ultima deshecha a la primera)
+        // y se deshacen, asi quedan en la pila de Redo en el mismo orden
+        if (deshechas > 0) {
+            int[] redo = new int[deshechas];
+            for (int i = 0; i < deshechas; i++) redo[i] = c.leerJugada();
+            for (int i = deshechas - 1; i >= 0; i--) aplicar(juego, redo[i]);
+            while (juego.getNumJugadasHechas() > hechas) juego.deshacerMovimiento();
+        }
+        juego.setModo(modo);
+        if (medido != null) medido.setPausado(false);
+        liberar(registro);
+        return juego;
+    }
+
+    private static void aplicar(EightOffGame juego, int jugada) {
+        if (!juego.aplicarJugada(jugada)) {
+            throw new IllegalStateException("Registro corrupto: jugada ilegal " + jugada);
+        }
+    }
+
+    /**
+     * Devuelve al almacen los bloques de un registro.
+     */
+    public synchronized void liberar(int registro) {
+        for (int b = registro; b != FIN; ) {
+            int siguiente = zona(b).getInt(desplazamiento(b));
+            if (cantLibres == libres.length) libres = Arrays.copyOf(libres, libres.length * 2);
+            libres[cantLibres++] = b;
+            bloquesUsados--;
+            b = siguiente;
+        }
+        registros.decrementAndGet();
+    }
+
+    /**
+     * Guarda un juego que ya no se usa para reusarlo al despertar otro.
+     */
+    public void reciclar(EightOffGame juego) {
+        if (enPool.incrementAndGet() <= MAX_POOL) {
+            juego.setObservador(null);
+            pool.add(juego);
+        } else {
+            enPool.decrementAndGet();
+        }
+    }
+
+    /** Registros guardados. */
+    public int getRegistros() { return registros.get(); }
+
+    /** Bytes de memoria directa en uso (bloques ocupados). */
+    public synchronized long getBytesUsados() { return (long) bloquesUsados * BYTES_BLOQUE; }
+
+    /** Bytes de memoria directa reservados (todas las zonas). */
+    public synchronized long getBytesReservados() { return (long) zonas.length * BYTES_ZONA; }
+
+    /**
+     * Reserva una cadena de 'n' bloques (ya enlazados).
+     * @return El primer bloque.
+     */
+    private synchronized int reservar(int n) {
+        while (cantLibres < n) agregarZona();
+        int primero = libres[--cantLibres];
+        int b = primero;
+        for (int i = 1; i < n; i++) {
+            int siguiente = libres[--cantLibres];
+            zona(b).putInt(desplazamiento(b), siguiente);
+            b = siguiente;
+        }
+        zona(b).putInt(desplazamiento(b), FIN);
+        bloquesUsados += n;
+        return primero;
+    }
+
+    private void agregarZona() {
+        int z = zonas.length;
+        zonas = Arrays.copyOf(zonas, z + 1);
+        zonas[z] = ByteBuffer.allocateDirect(BYTES_ZONA);
+        if (libres.length < cantLibres + BLOQUES_ZONA) libres = Arrays.copyOf(libres, cantLibres + BLOQUES_ZONA);
+        // Al reves, para que se reserven en orden de direccion
+        for (int i = BLOQUES_ZONA - 1; i >= 0; i--) libres[cantLibres++] = z * BLOQUES_ZONA + i;
+    }
+
+    private ByteBuffer zona(int bloque) {
+        return zonas[bloque / BLOQUES_ZONA];
+    }
+
+    private static int desplazamiento(int bloque) {
+        return (bloque % BLOQUES_ZONA) * BYTES_BLOQUE;
+    }
+
+    /**
+     * Recorre los bytes utiles de una cadena de bloques.
+     * Toma las zonas al crearse (con el candado), asi ve las que agrego 'reservar'.
+     */
+    private final class Cursor {
+        private final ByteBuffer[] vistas;
+        private int bloque;
+        private int pos; // Byte util dentro del bloque
+
+        Cursor(int primero) {
+            synchronized (AlmacenSesiones.this) {
+                vistas = zonas;
+            }
+            bloque = primero;
+        }
+
+        /** Pasa al siguiente bloque de la cadena si el actual se lleno. */
+        private void avanzar() {
+            if (pos == UTILES_BLOQUE) {
+                bloque = vistas[bloque / BLOQUES_ZONA].getInt(desplazamiento(bloque));
+                pos = 0;
+            }
+        }
+
+        void escribir(int b) {
+            avanzar();
+            vistas[bloque / BLOQUES_ZONA].put(desplazamiento(bloque) + BYTES_ENLACE + pos++, (byte) b);
+        }
+
+        int leer() {
+            avanzar();
+            return vistas[bloque / BLOQUES_ZONA].get(desplazamiento(bloque) + BYTES_ENLACE + pos++) & 0xFF;
+        }
+
+        void escribirShort(int v) {
+            escribir(v >>> 8);
+            escribir(v);
+        }
+
+        int leerShort() {
+            return leer() << 8 | leer();
+        }
+
+        void escribirJugada(int jugada) {
+            escribir(jugada >>> 16);
+            escribir(jugada >>> 8);
+            escribir(jugada);
+        }
+
+        int leerJugada() {
+            return leer() << 16 | leer() << 8 | leer();
+        }
+
+        void escribirLong(long v) {
+            for (int s = 56; s >= 0; s -= 8) escribir((int) (v >>> s));
+        }
+
+        long leerLong() {
+            long v = 0;
+            for (int i = 0; i < 8; i++) v = v << 8 | leer();
+            return v;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,257 @@
+package eightoff;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * ArchivoPartidas (Formato binario de partidas)
+ * Guarda muchas partidas en un archivo, cada una como su numero de reparto y
+ * su lista de jugadas (ver 'Jugada'). Con eso se puede reproducir la partida.
+ *
+ * Formato (todo en big-endian):
+ * - Cabecera del archivo (8 bytes): MAGIA (int), VERSION_FORMATO (short), version de reglas (short).
+ * - Por partida: numero de reparto (long), numero de jugadas (int), estado (int;
+ *   bits 0..7 = resultado, bit 8 = 'ModoPilas' (1 = RELAJADO), el resto reservado) y luego
+ *   una jugada por int.
+ *
+ * 'Escritor' agrega partidas; 'Lector' mapea el archivo en memoria y lo recorre
+ * partida por partida sin crear objetos (el lector mismo es el cursor).
+ */
+public final class ArchivoPartidas {
+
+    // "8OFF" en ASCII.
+    public static final int MAGIA = 0x384F_4646;
+    public static final int VERSION_FORMATO = 1;
+
+    // Resultados de una partida guardada.
+    public static final int EN_CURSO = 0;  // Se guardo sin terminar
+    public static final int GANADA = 1;    // 52 cartas en las fundaciones
+    public static final int BLOQUEADA = 2; // Sin movimientos segun 'verificarFinJuego'
+
+    private static final int BYTES_CABECERA = 8;
+    private static final int BYTES_REGISTRO = 16;
+
+    private ArchivoPartidas() { }
+
+    /**
+     * Resultado de la partida en su estado actual, segun 'verificarFinJuego'
+     * (asi lo que se guarda y lo que revisa 'VerificadorPartidas' es lo mismo).
+     */
+    public static int resultadoDe(EightOffGame juego) {
+        if (juego.getCartasEnFundaciones() == CardCode.TOTAL) return GANADA;
+        return juego.verificarFinJuego() != null ? BLOQUEADA : EN_CURSO;
+    }
+
+    /**
+     * Escribe partidas al final de un archivo (con buffer; hay que cerrarlo).
+     */
+    public static final class Escritor implements Closeable {
+        private final DataOutputStream salida;
+        private long partidas;
+
+        /**
+         * Abre el archivo para escribir.
+         * @param agregar Si es true y el archivo ya tiene partidas, se agregan al final
+         *                (su cabecera debe coincidir); si es false, se reemplaza.
+         */
+        public Escritor(Path archivo, boolean agregar) throws IOException {
+            boolean continuar = agregar && Files.exists(archivo) && Files.size(archivo) > 0;
+            if (continuar) {
+                try (InputStream in = Files.newInputStream(archivo)) {
+                    DataInputStream d = new DataInputStream(in);
+                    validarCabecera(d.readInt(), d.readUnsignedShort(), d.readUnsignedShort(), archivo);
+                }
+            }
+            salida = new DataOutputStream(new BufferedOutputStream(continuar
+                    ? Files.newOutputStream(archivo, StandardOpenOption.APPEND)
+                    : Files.newOutputStream(archivo), 1 << 16));
+            if (!continuar) {
+                salida.writeInt(MAGIA);
+                salida.writeShort(VERSION_FORMATO);
+                salida.writeShort(EightOffGame.VERSION_REGLAS);
+            }
+        }
+
+        /**
+         * Guarda una partida numerada con todas sus jugadas hasta ahora.
+         * @throws IllegalArgumentException Si el juego no viene de un reparto numerado.
+         */
+        public void escribir(EightOffGame juego) throws IOException {
+            if (juego.getNumeroPartida() == EightOffGame.SIN_NUMERO) {
+                throw new IllegalArgumentException("Solo se pueden guardar partidas con numero de reparto");
+            }
+            int[] jugadas = juego.getJugadasHechas();
+            escribir(juego.getNumeroPartida(), jugadas, jugadas.length, resultadoDe(juego), juego.getModo());
+        }
+
+        /**
+         * Guarda una partida jugada con ModoPilas.ESTRICTO a partir de sus datos.
+         * @param n Cuantas jugadas de 'jugadas' se guardan.
+         */
+        public void escribir(long numeroPartida, int[] jugadas, int n, int resultado) throws IOException {
+            escribir(numeroPartida, jugadas, n, resultado, ModoPilas.ESTRICTO);
+        }
+
+        /**
+         * Guarda una partida a partir de sus datos.
+         * @param n Cuantas jugadas de 'jugadas' se guardan.
+         * @param modo La regla de pilas con que se jugo.
+         */
+        public void escribir(long numeroPartida, int[] jugadas, int n, int resultado, ModoPilas modo) throws IOException {
+            salida.writeLong(numeroPartida);
+            salida.writeInt(n);
+            salida.writeInt((resultado & 0xFF) | (modo == ModoPilas.RELAJADO ? 0x100 : 0));
+            for (int i = 0; i < n; i++) salida.writeInt(jugadas[i]);
+            partidas++;
+        }
+
+        /** Partidas escritas por este escritor. */
+        public long getPartidas() { return partidas; }
+
+        @Override
+        public void close() throws IOException {
+            salida.close();
+        }
+    }
+
+    /**
+     * Recorre un archivo de partidas mapeado en memoria. Los getters se refieren a la
+     * partida actual (la ultima que devolvio 'siguiente').
+     *
+     * Archivos de mas de 'VENTANA' bytes se mapean por partes.
+     * No es seguro entre hilos: cada hilo debe abrir su propio lector.
+     */
+    public static final class Lector implements Closeable {
+        // Bytes mapeados a la vez (un MappedByteBuffer no puede pasar de 2 GB).
+        private static final long VENTANA = 1L << 30;
+
+        private final FileChannel canal;
+        private final long tamanoArchivo;
+        private final int versionReglas;
+        private MappedByteBuffer ventana;
+        private long inicioVentana;
+        private int pos; // Siguiente registro, relativo a la ventana
+
+        // Partida actual
+        private long numero;
+        private int numJugadas;
+        private int estado;
+        private int posJugadas;
+        private long indice = -1;
+
+        public Lector(Path archivo) throws IOException {
+            this(archivo, 0, Long.MAX_VALUE);
+        }
+
+        /**
+         * Abre solo una parte del archivo: de 'desde' (que debe ser el inicio de una
+         * partida, ver 'getPosicion') hasta 'hasta' bytes.
+         */
+        public Lector(Path archivo, long desde, long hasta) throws IOException {
+            canal = FileChannel.open(archivo, StandardOpenOption.READ);
+            try {
+                tamanoArchivo = Math.min(canal.size(), hasta);
+                mapear(0);
+                if (tamanoArchivo < BYTES_CABECERA) throw new IOException("Archivo de partidas vacio: " + archivo);
+                versionReglas = ventana.getShort(6) & 0xFFFF;
+                validarCabecera(ventana.getInt(0), ventana.getShort(4) & 0xFFFF, versionReglas, archivo);
+                mapear(Math.max(desde, BYTES_CABECERA));
+            } catch (IOException | RuntimeException e) {
+                canal.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Avanza a la siguiente partida.
+         * @return false si ya no hay mas.
+         * @throws IOException Si el archivo esta cortado a media partida.
+         */
+        public boolean siguiente() throws IOException {
+            long absoluto = inicioVentana + pos;
+            if (absoluto >= tamanoArchivo) return false;
+            if (ventana.limit() - pos < BYTES_REGISTRO) mapear(absoluto);
+            if (ventana.limit() - pos < BYTES_REGISTRO) throw new IOException("Partida incompleta en el byte " + absoluto);
+
+            int n = ventana.getInt(pos + 8);
+            long bytes = BYTES_REGISTRO + 4L * n;
+            if (n < 0 || bytes > VENTANA) throw new IOException("Partida danada en el byte " + absoluto);
+            if (ventana.limit() - pos < bytes) {
+                mapear(absoluto);
+                if (ventana.limit() < bytes) throw new IOException("Partida incompleta en el byte " + absoluto);
+            }
+
+            numero = ventana.getLong(pos);
+            numJugadas = n;
+            estado = ventana.getInt(pos + 12);
+            posJugadas = pos + BYTES_REGISTRO;
+            pos += (int) bytes;
+            indice++;
+            return true;
+        }
+
+        /** Mapea una ventana que empieza en la posicion absoluta 'inicio'. */
+        private void mapear(long inicio) throws IOException {
+            inicioVentana = inicio;
+            pos = 0;
+            ventana = canal.map(FileChannel.MapMode.READ_ONLY, inicio, Math.max(0, Math.min(VENTANA, tamanoArchivo - inicio)));
+        }
+
+        public long getNumeroPartida() { return numero; }
+        public int getNumJugadas() { return numJugadas; }
+        public int getResultado() { return estado & 0xFF; }
+        public ModoPilas getModo() { return (estado & 0x100) != 0 ? ModoPilas.RELAJADO : ModoPilas.ESTRICTO; }
+        public int getVersionReglas() { return versionReglas; }
+
+        /** Indice de la partida actual en este lector (0 = la primera que leyo). */
+        public long getIndice() { return indice; }
+
+        /** Posicion en el archivo donde empieza la siguiente partida. */
+        public long getPosicion() { return inicioVentana + pos; }
+
+        /** Jugada 'i' de la partida actual (ver 'Jugada'). */
+        public int getJugada(int i) {
+            if (i < 0 || i >= numJugadas) throw new IndexOutOfBoundsException(i);
+            return ventana.getInt(posJugadas + 4 * i);
+        }
+
+        /**
+         * Reparte la partida actual en 'juego' (con su regla de pilas) y le aplica
+         * todas sus jugadas.
+         * @return Cuantas jugadas se aplicaron; si es menor que 'getNumJugadas()',
+         *         la jugada en ese indice no fue legal.
+         */
+        public int reproducir(EightOffGame juego) {
+            juego.setModo(getModo());
+            juego.iniciarJuego(numero);
+            for (int i = 0; i < numJugadas; i++) {
+                if (!juego.aplicarJugada(ventana.getInt(posJugadas + 4 * i))) return i;
+            }
+            return numJugadas;
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+
+    private static void validarCabecera(int magia, int versionFormato, int versionReglas, Path archivo) throws IOException {
+        if (magia != MAGIA) throw new IOException("No es un archivo de partidas: " + archivo);
+        if (versionFormato != VERSION_FORMATO) {
+            throw new IOException("Version de formato no soportada (" + versionFormato + "): " + archivo);
+        }
+        if (versionReglas != EightOffGame.VERSION_REGLAS) {
+            throw new IOException("Version de reglas distinta (" + versionReglas + "): " + archivo);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,286 @@
+package eightoff;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * BaseDificultad (Base de datos de repartos)
+ * Archivo con el resultado del resolvedor para un rango de numeros de partida:
+ * si el reparto tiene solucion, una dificultad (1..255) y el largo de la solucion
+ * encontrada. Sirve para repartir solo partidas ganables de cierta dificultad.
+ *
+ * Formato (big-endian), todo en posiciones fijas, asi se consulta en O(1):
+ * - Cabecera (32 bytes): MAGIA, VERSION_FORMATO (short), version de reglas (short),
+ *   primer numero (long), cantidad (int), limite de nodos (int), 8 bytes reservados.
+ * - Bits "procesada" y bits "resoluble" (un long por cada 64 repartos).
+ * - Un byte de dificultad por reparto (0 = sin solucion o sin procesar).
+ * - Un short con el largo de la solucion por reparto (0 si no hay).
+ *
+ * 'construir' llena el archivo en paralelo y se puede interrumpir y continuar:
+ * solo resuelve los bloques de 64 repartos que aun no estan marcados como procesados.
+ */
+public final class BaseDificultad implements Closeable {
+
+    // "8ODB" en ASCII.
+    public static final int MAGIA = 0x384F_4442;
+    public static final int VERSION_FORMATO = 1;
+
+    private static final int BYTES_CABECERA = 32;
+    private static final int BLOQUE = 64; // Repartos por palabra de bits (y por tarea)
+
+    private final FileChannel canal;
+    private final ByteBuffer datos;
+    private final long primero;
+    private final int cantidad;
+    private final int limiteNodos;
+
+    // Indice para elegir en O(1): repartos resolubles ordenados por dificultad.
+    // inicio[d] es donde empiezan los de dificultad d en 'porDificultad'.
+    private final int[] porDificultad;
+    private final int[] inicio = new int[257];
+
+    /**
+     * Abre una base para consultar (solo lectura) y arma el indice por dificultad.
+     */
+    public static BaseDificultad abrir(Path archivo) throws IOException {
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ);
+        try {
+            return new BaseDificultad(canal, canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()), archivo);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    private BaseDificultad(FileChannel canal, ByteBuffer datos, Path archivo) throws IOException {
+        this.canal = canal;
+        this.datos = datos;
+        if (datos.limit() < BYTES_CABECERA || datos.getInt(0) != MAGIA) {
+            throw new IOException("No es una base de dificultad: " + archivo);
+        }
+        if ((datos.getShort(4) & 0xFFFF) != VERSION_FORMATO || (datos.getShort(6) & 0xFFFF) != EightOffGame.VERSION_REGLAS) {
+            throw new IOException("Version de base o de reglas distinta: " + archivo);
+        }
+        primero = datos.getLong(8);
+        cantidad = datos.getInt(16);
+        limiteNodos = datos.getInt(20);
+        if (datos.limit() < tamanoArchivo(cantidad)) throw new IOException("Base de dificultad incompleta: " + archivo);
+
+        // Ordena por dificultad (conteo): una pasada para contar y otra para llenar
+        for (int i = 0; i < cantidad; i++) inicio[dificultadEn(i) + 1]++;
+        inicio[1] = 0; // Los de dificultad 0 (sin solucion) no entran
+        for (int d = 1; d < 256; d++) inicio[d + 1] += inicio[d];
+        porDificultad = new int[inicio[256]];
+        int[] siguiente = inicio.clone();
+        for (int i = 0; i < cantidad; i++) {
+            int d = dificultadEn(i);
+            if (d > 0) porDificultad[siguiente[d]++] = i;
+        }
+    }
+
+    // --- Consultas ---
+
+    public long getPrimero() { return primero; }
+    public int getCantidad() { return cantidad; }
+    public int getLimiteNodos() { return limiteNodos; }
+
+    /** Cuantos repartos de la base tienen solucion. */
+    public int getResolubles() { return porDificultad.length; }
+
+    /** True si el numero esta dentro del rango de la base. */
+    public boolean contiene(long numero) {
+        return numero - primero >= 0 && numero - primero < cantidad;
+    }
+
+    /** True si el reparto ya se resolvio (con o sin exito). */
+    public boolean isProcesada(long numero) {
+        return contiene(numero) && bit(posProcesadas(), (int) (numero - primero));
+    }
+
+    /** True si se encontro una solucion para el reparto. */
+    public boolean esResoluble(long numero) {
+        return contiene(numero) && bit(posResolubles(), (int) (numero - primero));
+    }
+
+    /** Dificultad 1..255 del reparto, o 0 si no tiene solucion (o no esta en la base). */
+    public int getDificultad(long numero) {
+        return contiene(numero) ? dificultadEn((int) (numero - primero)) : 0;
+    }
+
+    /** Jugadas de la solucion encontrada, o 0 si no hay. */
+    public int getLargo(long numero) {
+        return contiene(numero) ? datos.getShort(posLargos() + 2 * (int) (numero - primero)) & 0xFFFF : 0;
+    }
+
+    /**
+     * Elige al azar, en O(1), un reparto resoluble con dificultad en [min, max].
+     * @return El numero de partida, o EightOffGame.SIN_NUMERO si no hay ninguno.
+     */
+    public long elegir(int min, int max) {
+        min = Math.max(1, min);
+        max = Math.min(255, max);
+        if (min > max) return EightOffGame.SIN_NUMERO;
+        return elegirEntre(inicio[min], inicio[max + 1]);
+    }
+
+    /**
+     * Elige al azar, en O(1), un reparto resoluble entre dos percentiles de dificultad
+     * (0.0 = los mas faciles, 1.0 = los mas dificiles). Ej: (0.9, 1.0) = el 10% mas dificil.
+     */
+    public long elegirPorPercentil(double desde, double hasta) {
+        int n = porDificultad.length;
+        return elegirEntre((int) (Math.max(0, desde) * n), (int) Math.ceil(Math.min(1, hasta) * n));
+    }
+
+    /**
+     * Fuente de repartos para 'EightOffGame.setFuenteDeRepartos' (o el constructor
+     * 'EightOffGame(LongSupplier)') con dificultad en [min, max].
+     */
+    public LongSupplier fuente(int min, int max) {
+        if (elegir(min, max) == EightOffGame.SIN_NUMERO) {
+            throw new IllegalArgumentException("No hay repartos con dificultad entre " + min + " y " + max);
+        }
+        return () -> elegir(min, max);
+    }
+
+    private long elegirEntre(int desde, int hasta) {
+        if (desde >= hasta) return EightOffGame.SIN_NUMERO;
+        return primero + porDificultad[ThreadLocalRandom.current().nextInt(desde, hasta)];
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    // --- Construccion ---
+
+    /**
+     * Resuelve los repartos [primero, primero + cantidad) y los guarda en el archivo.
+     * Si el archivo ya existe con los mismos parametros, continua donde se quedo.
+     * @return Cuantos repartos se resolvieron en esta llamada.
+     * @throws IOException Si el archivo existe pero es de otra base.
+     */
+    public static long construir(Path archivo, long primero, int cantidad, int hilos, int limiteNodos) throws IOException {
+        long tamano = tamanoArchivo(cantidad);
+        if (tamano > Integer.MAX_VALUE) throw new IllegalArgumentException("Demasiados repartos: " + cantidad);
+
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+            boolean nuevo = canal.size() == 0;
+            MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_WRITE, 0, tamano);
+            if (nuevo) {
+                datos.putInt(0, MAGIA);
+                datos.putShort(4, (short) VERSION_FORMATO);
+                datos.putShort(6, (short) EightOffGame.VERSION_REGLAS);
+                datos.putLong(8, primero);
+                datos.putInt(16, cantidad);
+                datos.putInt(20, limiteNodos);
+            } else if (datos.getInt(0) != MAGIA || (datos.getShort(4) & 0xFFFF) != VERSION_FORMATO
+                    || datos.getLong(8) != primero || datos.getInt(16) != cantidad
+                    || datos.getInt(20) != limiteNodos || (datos.getShort(6) & 0xFFFF) != EightOffGame.VERSION_REGLAS) {
+                throw new IOException("El archivo ya tiene otra base (otro formato, rango, limite o reglas): " + archivo);
+            }
+
+            LongAdder resueltos = new LongAdder();
+            int bloques = (cantidad + BLOQUE - 1) / BLOQUE;
+            ThreadLocal<BatchSolver.Trabajador> trabajadores = ThreadLocal.withInitial(() -> new BatchSolver.Trabajador(limiteNodos));
+            ForkJoinPool pool = new ForkJoinPool(hilos);
+            try {
+                // Cada bloque escribe sus propias palabras y bytes: no hay escrituras compartidas
+                pool.submit(() -> IntStream.range(0, bloques).parallel().forEach(b -> {
+                    int desde = b * BLOQUE;
+                    int hasta = Math.min(cantidad, desde + BLOQUE);
+                    long completo = (hasta - desde == BLOQUE) ? -1L : (1L << (hasta - desde)) - 1;
+                    if (datos.getLong(BYTES_CABECERA + 8 * b) == completo) return; // Ya estaba hecho
+
+                    BatchSolver.Trabajador t = trabajadores.get();
+                    long resolubles = 0;
+                    for (int i = desde; i < hasta; i++) {
+                        BatchSolver.ResultadoPartida r = t.resolver(primero + i);
+                        if (r.isResuelto()) resolubles |= 1L << (i - desde);
+                        datos.put(posDificultades(bloques) + i, (byte) (r.isResuelto() ? dificultad(r.getNodos()) : 0));
+                        datos.putShort(posLargos(bloques, cantidad) + 2 * i, (short) Math.min(r.getLargo(), 0xFFFF));
+                    }
+                    datos.putLong(BYTES_CABECERA + 8 * (bloques + b), resolubles);
+                    datos.putLong(BYTES_CABECERA + 8 * b, completo); // Al final: el bloque queda como procesado
+                    resueltos.add(hasta - desde);
+                })).join();
+            } finally {
+                pool.shutdown();
+                datos.force();
+            }
+            return resueltos.sum();
+        }
+    }
+
+    /**
+     * Dificultad a partir de los nodos que necesito el resolvedor (escala logaritmica):
+     * 8 puntos por cada vez que se duplican los nodos, entre 1 y 255.
+     */
+    static int dificultad(int nodos) {
+        double log2 = Math.log(Math.max(1, nodos)) / Math.log(2);
+        return 1 + Math.min(254, (int) (log2 * 8));
+    }
+
+    // --- Posiciones dentro del archivo ---
+
+    private static long tamanoArchivo(int cantidad) {
+        long palabras = (cantidad + BLOQUE - 1) / BLOQUE;
+        return BYTES_CABECERA + 16 * palabras + 3L * cantidad;
+    }
+
+    private int bloques() { return (cantidad + BLOQUE - 1) / BLOQUE; }
+    private int posProcesadas() { return BYTES_CABECERA; }
+    private int posResolubles() { return BYTES_CABECERA + 8 * bloques(); }
+    private int posLargos() { return posLargos(bloques(), cantidad); }
+
+    private static int posDificultades(int bloques) { return BYTES_CABECERA + 16 * bloques; }
+    private static int posLargos(int bloques, int cantidad) { return posDificultades(bloques) + cantidad; }
+
+    private int dificultadEn(int i) {
+        return datos.get(posDificultades(bloques()) + i) & 0xFF;
+    }
+
+    private boolean bit(int posPalabras, int i) {
+        return (datos.getLong(posPalabras + 8 * (i / BLOQUE)) & (1L << (i % BLOQUE))) != 0;
+    }
+
+    /**
+     * Uso:
+     *   BaseDificultad construir archivo primero cantidad [hilos] [limiteNodos]
+     *   BaseDificultad info archivo
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 4 && args[0].equals("construir")) {
+            int hilos = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+            int limite = args.length > 5 ? Integer.parseInt(args[5]) : EightOffSolver.LIMITE_NODOS_POR_DEFECTO;
+            long t0 = System.nanoTime();
+            long n = construir(Paths.get(args[1]), Long.parseLong(args[2]), Integer.parseInt(args[3]), hilos, limite);
+            System.err.printf("%d repartos resueltos en %.2f s%n", n, (System.nanoTime() - t0) / 1e9);
+        } else if (args.length >= 2 && args[0].equals("info")) {
+            try (BaseDificultad base = abrir(Paths.get(args[1]))) {
+                System.out.println("repartos " + base.getPrimero() + ".." + (base.getPrimero() + base.getCantidad() - 1)
+                        + ", resolubles " + base.getResolubles() + ", limite de nodos " + base.getLimiteNodos());
+                for (int d = 1; d < 256; d++) {
+                    int n = base.inicio[d + 1] - base.inicio[d];
+                    if (n > 0) System.out.println("dificultad " + d + ": " + n);
+                }
+            }
+        } else {
+            System.err.println("Uso: BaseDificultad construir archivo primero cantidad [hilos] [limiteNodos]");
+            System.err.println("     BaseDificultad info archivo");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,191 @@
+package eightoff;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * BatchSolver (Resolvedor por Lotes)
+ * Resuelve un rango de repartos (por numero de partida) en paralelo, usando un
+ * ForkJoinPool con robo de trabajo.
+ *
+ * - El rango se divide en mitades hasta llegar a lotes de 'LOTE' repartos.
+ * - Cada hilo trabajador tiene su propio 'EightOffSolver' (con su arena y su
+ *   tabla de transposicion) y su tablero, asi que no hay estado mutable compartido al resolver.
+ * - Los repartos se generan por el camino rapido ('PackedBoard.cargarReparto'), sin crear cartas.
+ * - Los resultados se entregan al receptor por lote, en cuanto se terminan
+ *   (no en orden de numero). El receptor debe ser seguro entre hilos.
+ */
+public final class BatchSolver {
+
+    // Repartos por tarea hoja: suficientes para amortizar la tarea, pocos para repartir bien.
+    private static final int LOTE = 16;
+
+    private final int hilos;
+    private final int limiteNodos;
+
+    /**
+     * Constructor con un hilo por nucleo y el limite de nodos por defecto.
+     */
+    public BatchSolver() {
+        this(Runtime.getRuntime().availableProcessors(), EightOffSolver.LIMITE_NODOS_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor.
+     * @param hilos Cuantos hilos trabajadores usar.
+     * @param limiteNodos Limite de nodos de cada busqueda.
+     * @throws IllegalArgumentException Si 'hilos' o 'limiteNodos' no son positivos.
+     */
+    public BatchSolver(int hilos, int limiteNodos) {
+        if (hilos <= 0) throw new IllegalArgumentException("Cantidad de hilos invalida: " + hilos);
+        if (limiteNodos <= 0) throw new IllegalArgumentException("Limite de nodos invalido: " + limiteNodos);
+        this.hilos = hilos;
+        this.limiteNodos = limiteNodos;
+    }
+
+    /**
+     * Resuelve las partidas con numero en [desde, hasta) y espera a que terminen.
+     * Un rango vacio (desde == hasta) no hace nada.
+     * @param receptor Recibe cada resultado (se llama desde varios hilos).
+     * @throws IllegalArgumentException Si hasta < desde, o si el rango no cabe en un long.
+     */
+    public void resolver(long desde, long hasta, Consumer<ResultadoPartida> receptor) {
+        // La segunda condicion atrapa el desborde de 'hasta - desde' (rangos de mas de 2^63 partidas)
+        if (hasta < desde || hasta - desde < 0) {
+            throw new IllegalArgumentException("Rango de partidas invalido: [" + desde + ", " + hasta + ")");
+        }
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        try {
+            ThreadLocal<Trabajador> trabajadores = ThreadLocal.withInitial(() -> new Trabajador(limiteNodos));
+            pool.invoke(new Tarea(desde, hasta, trabajadores, receptor));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Tarea recursiva: divide el rango o, si es pequeno, lo resuelve.
+     */
+    private static final class Tarea extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long desde, hasta;
+        private final ThreadLocal<Trabajador> trabajadores;
+        private final Consumer<ResultadoPartida> receptor;
+
+        Tarea(long desde, long hasta, ThreadLocal<Trabajador> trabajadores, Consumer<ResultadoPartida> receptor) {
+            this.desde = desde;
+            this.hasta = hasta;
+            this.trabajadores = trabajadores;
+            this.receptor = receptor;
+        }
+
+        @Override
+        protected void compute() {
+            if (hasta - desde > LOTE) {
+                long medio = desde + (hasta - desde) / 2;
+                invokeAll(new Tarea(desde, medio, trabajadores, receptor), new Tarea(medio, hasta, trabajadores, receptor));
+                return;
+            }
+
+            // Lote pequeno: se resuelve todo con las estructuras de este hilo y luego se entrega
+            Trabajador t = trabajadores.get();
+            ResultadoPartida[] lote = new ResultadoPartida[(int) (hasta - desde)];
+            for (long numero = desde; numero < hasta; numero++) {
+                lote[(int) (numero - desde)] = t.resolver(numero);
+            }
+            for (ResultadoPartida r : lote) receptor.accept(r);
+        }
+    }
+
+    /**
+     * Estructuras de busqueda de un hilo trabajador (nunca se comparten).
+     */
+    static final class Trabajador {
+        private final EightOffSolver solver;
+        private final PackedBoard tablero = new PackedBoard();
+        private final int[] mazo = new int[CardCode.TOTAL];
+
+        Trabajador(int limiteNodos) {
+            solver = new EightOffSolver(limiteNodos);
+        }
+
+        /**
+         * Reparte y resuelve una sola partida.
+         */
+        ResultadoPartida resolver(long numero) {
+            tablero.cargarReparto(numero, mazo);
+            EightOffSolver.Resultado r = solver.resolver(tablero);
+            int largo = r.isResuelto() ? r.getJugadas().length : 0;
+            return new ResultadoPartida(numero, r.isResuelto(), r.isAgotado(), largo, r.getNodos(), r.getNanos());
+        }
+    }
+
+    /**
+     * Resultado de una partida del lote.
+     */
+    public static final class ResultadoPartida {
+        private final long numero;
+        private final boolean resuelto;   // Tiene solucion
+        private final boolean agotado;    // Se llego al limite de nodos sin decidir
+        private final int largo;          // Jugadas de la solucion encontrada (0 si no hay)
+        private final int nodos;          // Nodos generados
+        private final long nanos;         // Tiempo de busqueda
+
+        ResultadoPartida(long numero, boolean resuelto, boolean agotado, int largo, int nodos, long nanos) {
+            this.numero = numero;
+            this.resuelto = resuelto;
+            this.agotado = agotado;
+            this.largo = largo;
+            this.nodos = nodos;
+            this.nanos = nanos;
+        }
+
+        public long getNumero() { return numero; }
+        public boolean isResuelto() { return resuelto; }
+        public boolean isAgotado() { return agotado; }
+        public int getLargo() { return largo; }
+        public int getNodos() { return nodos; }
+        public long getNanos() { return nanos; }
+
+        /** Linea CSV: numero,resuelto,agotado,largo,nodos,microsegundos */
+        public String aCsv() {
+            return numero + "," + resuelto + "," + agotado + "," + largo + "," + nodos + "," + (nanos / 1000);
+        }
+    }
+
+    /**
+     * Uso: BatchSolver desde hasta [hilos] [limiteNodos]
+     * Imprime un CSV por partida en la salida estandar y un resumen en la de error.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Uso: BatchSolver desde hasta [hilos] [limiteNodos]");
+            return;
+        }
+        long desde = Long.parseLong(args[0]);
+        long hasta = Long.parseLong(args[1]);
+        int hilos = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int limite = args.length > 3 ? Integer.parseInt(args[3]) : EightOffSolver.LIMITE_NODOS_POR_DEFECTO;
+
+        LongAdder resueltas = new LongAdder();
+        LongAdder total = new LongAdder();
+        long t0 = System.nanoTime();
+
+        System.out.println("numero,resuelto,agotado,largo,nodos,micros");
+        new BatchSolver(hilos, limite).resolver(desde, hasta, r -> {
+            total.increment();
+            if (r.isResuelto()) resueltas.increment();
+            String linea = r.aCsv();
+            synchronized (System.out) {
+                System.out.println(linea);
+            }
+        });
+
+        double segundos = (System.nanoTime() - t0) / 1e9;
+        System.err.printf("%d partidas, %d resueltas, %.2f s, %.0f partidas/s%n",
+                total.sum(), resueltas.sum(), segundos, total.sum() / segundos);
+    }
+}
\ No newline at end of file
@@ -1,22 +1,50 @@
 package ui;
 
 import DeckOfCards.CartaInglesa;
+import javafx.animation.SequentialTransition;
+import javafx.animation.TranslateTransition;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
+import javafx.geometry.Bounds;
 import javafx.scene.Node;
 import javafx.scene.control.Alert;
+import javafx.scene.control.CheckBox;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.*;
+import javafx.util.Duration;
+import eightoff.CardCode; // Codigos de carta (0..51)
 import eightoff.EightOffGame; // Importa la logica principal del juego
-import eightoff.TableauDeck; // Importa la logica de una columna del tablero
+import eightoff.EightOffSolver; // Resolvedor para las pistas
+import eightoff.Jugada; // Tipos de pila (columna, celda, fundacion)
+import eightoff.ModoPilas; // Regla de pilas (para el resolvedor)
+import eightoff.ObservadorJuego; // Avisos de cambio del modelo
+import eightoff.PackedBoard; // Copia de la posicion para buscar pistas
+import eightoff.Ubicacion; // Ubicacion empaquetada de una carta
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * BoardController (Controlador del Tablero)
  * Es el "cerebro" de la interfaz de usuario (UI).
  * Conecta el archivo FXML (la vista) con la logica del juego (el modelo).
  * Sigue el patron Modelo-Vista-Controlador (MVC).
+ *
+ * El tablero se arma una sola vez: hay un nodo por carta (52) y cada uno tiene
+ * sus manejadores de arrastre desde el principio. Despues de cada movimiento
+ * el modelo avisa (ver 'ObservadorJuego') que cartas cambiaron de lugar y solo
+ * esos nodos se mueven de panel.
+ *
+ * Con "Auto" marcado (es opcional y empieza apagado), despues de cada jugada el
+ * modelo sube solas a la fundacion las cartas que se pueda ('autoJugar'). Ese
+ * lote llega junto: se coloca de una sola vez y despues las cartas vuelan a su
+ * lugar una tras otra.
+ *
+ * Las pistas las busca el resolvedor en un hilo aparte, sobre una copia de la
+ * posicion, para no trabar la interfaz; el texto vuelve con 'Platform.runLater'.
  */
-public class BoardController {
+public class BoardController implements ObservadorJuego {
 
     //  Variables para el FXML
     @FXML
@@ -28,6 +56,9 @@ public class BoardController {
     @FXML
     private VBox foundationsBox; // Panel izquierdo para las 4 fundaciones
 
+    @FXML
+    private CheckBox autoJugarCheck; // Subir solas a la fundacion las cartas que se pueda
+
     //  Variables de Logica
     private EightOffGame juego; // Instancia de la logica del juego
 
@@ -35,9 +66,41 @@ public class BoardController {
     private final java.util.List<Pane> columnPanes = new java.util.ArrayList<>();
     private final java.util.List<Pane> freeCellPanes = new java.util.ArrayList<>();
 
+    // Un nodo visual por carta, indexado por codigo de carta (ver 'CardCode')
+    private final Node[] nodosCarta = new Node[CardCode.TOTAL];
+
+    // Estado del arrastre en curso (solo hay uno a la vez)
+    private final List<Node> nodosArrastrados = new ArrayList<>();
+    private final List<CartaInglesa> pilaArrastrada = new ArrayList<>();
+    private int columnaOrigen = -1; // Columna de donde sale la pila (-1 si sale de una celda)
+    private double inicioX, inicioY; // Posicion inicial del mouse
+
+    // Lote en curso (ver 'loteIniciado'): cartas movidas, en orden, que se colocan al final
+    private boolean enLote;
+    private final int[] pendientes = new int[CardCode.TOTAL];
+    private final boolean[] enEspera = new boolean[CardCode.TOTAL];
+    private int numPendientes;
+
+    // Animacion del ultimo lote y las cartas que mueve
+    private SequentialTransition animacion;
+    private final int[] animadas = new int[CardCode.TOTAL];
+    private int numAnimadas;
+
+    // Hilo de las pistas y su resolvedor (solo lo usa ese hilo; se crea al primer uso)
+    private final ExecutorService hiloPistas = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "pistas");
+        t.setDaemon(true); // No impide cerrar la aplicacion
+        return t;
+    });
+    private EightOffSolver resolvedor;
+    private boolean buscandoPista; // Hay una pista en camino (solo lo usa el hilo de JavaFX)
+
     // Espacio vertical entre cartas apiladas en una columna
     private static final double CARD_VERTICAL_OFFSET = 25;
 
+    // Tiempo de vuelo de cada carta de un lote
+    private static final Duration DURACION_VUELO = Duration.millis(90);
+
     /**
      * Metodo de inicializacion.
      * Se llama automaticamente cuando se carga el FXML.
@@ -45,24 +108,64 @@ public class BoardController {
     @FXML
     public void initialize() {
         juego = new EightOffGame(); // Crea una nueva partida
-        refrescarTablero(); // Dibuja el tablero por primera vez
+        construirTablero(); // Crea los paneles y los nodos de las cartas (una sola vez)
+        juego.setObservador(this); // Desde aqui, el modelo avisa cada cambio
+        refrescarTablero(); // Coloca las cartas por primera vez
+        if (autoJugarCheck.isSelected()) juego.autoJugar(false);
     }
 
     @FXML
     private void onNuevoJuego() {
-        juego = new EightOffGame(); // Resetea la logica del juego
-        refrescarTablero(); // Vuelve a dibujar todo
+        juego.iniciarJuego(); // Nuevo reparto: el modelo avisa con 'tableroReiniciado'
+        if (autoJugarCheck.isSelected()) juego.autoJugar(false);
+    }
+
+    @FXML
+    private void onAutoJugar() {
+        // Al activarlo, sube de una vez lo que ya se podia subir (es su propio paso de Undo)
+        if (autoJugarCheck.isSelected()) juego.autoJugar(false);
     }
 
     @FXML
     private void onUndo() {
-        juego.deshacerMovimiento(); // Pide a la logica que deshaga
-        refrescarTablero(); // Refresca la UI para mostrar el estado anterior
+        juego.deshacerMovimiento(); // El modelo avisa que cartas regresaron
+    }
+
+    @FXML
+    private void onRedo() {
+        juego.rehacerMovimiento(); // Pide a la logica que rehaga lo ultimo deshecho
     }
 
     @FXML
     private void onPista() {
-        String pista = juego.darPista();
+        if (buscandoPista) return; // Ya se esta buscando una
+        // Primero intenta con el resolvedor (mira la partida completa), en el hilo
+        // de pistas y sobre una copia de la posicion; si no encuentra solucion,
+        // usa la pista simple.
+        PackedBoard tablero = PackedBoard.desde(juego);
+        ModoPilas modo = juego.getModo();
+        String simple = juego.darPista();
+        long posicion = juego.getHash();
+        buscandoPista = true;
+        hiloPistas.execute(() -> {
+            String pista = null;
+            try {
+                if (resolvedor == null) resolvedor = new EightOffSolver(EightOffSolver.LIMITE_NODOS_PISTA);
+                pista = resolvedor.pista(tablero, modo);
+            } finally {
+                String texto = pista != null ? pista : simple;
+                Platform.runLater(() -> mostrarPista(texto, posicion));
+            }
+        });
+    }
+
+    /**
+     * Muestra la pista que llego del hilo de pistas, si la posicion sigue siendo
+     * la misma (si el jugador movio mientras tanto, ya no sirve).
+     */
+    private void mostrarPista(String pista, long posicion) {
+        buscandoPista = false;
+        if (juego.getHash() != posicion) return;
         if (pista == null)
             mostrarMensaje("No hay movimientos posibles.");
         else
@@ -80,205 +183,277 @@ public class BoardController {
         alert.showAndWait();
     }
 
+    // --- Avisos del modelo ---
+
+    @Override
+    public void cartaMovida(int codigo, int ubicacion) {
+        if (enLote) {
+            esperar(codigo); // Se coloca al terminar el lote
+            return;
+        }
+        colocar(codigo, ubicacion); // Solo se mueve el nodo de esa carta
+    }
+
+    @Override
+    public void tableroReiniciado() {
+        terminarAnimacion();
+        refrescarTablero();
+    }
+
+    @Override
+    public void loteIniciado() {
+        terminarAnimacion();
+        enLote = true;
+    }
+
     /**
-     * Dibuja (o redibuja) todo el estado del juego.
-     * Lee el estado actual de 'juego' y crea los nodos visuales.
+     * Coloca todas las cartas del lote de una vez y anima su vuelo: cada carta
+     * arranca donde estaba (con 'translate') y llega a su lugar, una tras otra.
      */
-    private void refrescarTablero() {
-        // Limpia el tablero anterior para no duplicar
-        boardGrid.getChildren().clear();
-        columnPanes.clear();
-        freeCellPanes.clear();
-
-        // --- 1. Dibuja las FUNDACIONES (izquierda) ---
-        List<Node> panesFundacion = foundationsBox.getChildren();
-        for (int i = 0; i < panesFundacion.size(); i++) {
-            Pane slot = (Pane) panesFundacion.get(i);
-            slot.getChildren().clear(); // Limpia el slot
-            if (i < juego.getFundaciones().size()) {
-                var fund = juego.getFundaciones().get(i);
-                if (!fund.getCartas().isEmpty()) {
-                    // Dibuja solo la carta de arriba
-                    CartaInglesa top = fund.getCartas().get(fund.getCartas().size() - 1);
-                    Node nodo = CardView.frontCard(top);
-                    slot.getChildren().add(nodo);
-                }
-            }
+    @Override
+    public void loteTerminado() {
+        enLote = false;
+        animacion = new SequentialTransition();
+        for (int i = 0; i < numPendientes; i++) {
+            int codigo = pendientes[i];
+            enEspera[codigo] = false;
+            Node nodo = nodosCarta[codigo];
+            Bounds antes = nodo.localToScene(nodo.getBoundsInLocal());
+            colocar(codigo, juego.getUbicacion(codigo));
+            Bounds despues = nodo.localToScene(nodo.getBoundsInLocal());
+            nodo.setTranslateX(antes.getMinX() - despues.getMinX());
+            nodo.setTranslateY(antes.getMinY() - despues.getMinY());
+
+            TranslateTransition vuelo = new TranslateTransition(DURACION_VUELO, nodo);
+            vuelo.setToX(0);
+            vuelo.setToY(0);
+            animacion.getChildren().add(vuelo);
+            animadas[numAnimadas++] = codigo;
         }
+        numPendientes = 0;
+        // Mientras vuelan, las fundaciones muestran todas sus cartas (la de arriba aun no llega)
+        mostrarFundaciones(true);
+        animacion.setOnFinished(e -> terminarAnimacion());
+        animacion.play();
+    }
+
+    /**
+     * Anota una carta del lote en curso. Si ya estaba, pasa al final
+     * (asi el orden de dibujo es el de su ultimo movimiento).
+     */
+    private void esperar(int codigo) {
+        if (enEspera[codigo]) {
+            int i = 0;
+            while (pendientes[i] != codigo) i++;
+            System.arraycopy(pendientes, i + 1, pendientes, i, numPendientes - i - 1);
+            numPendientes--;
+        }
+        enEspera[codigo] = true;
+        pendientes[numPendientes++] = codigo;
+    }
+
+    /**
+     * Corta la animacion del ultimo lote (si sigue) y deja cada carta en su lugar.
+     */
+    private void terminarAnimacion() {
+        if (animacion == null) return;
+        animacion.stop();
+        animacion = null;
+        for (int i = 0; i < numAnimadas; i++) {
+            nodosCarta[animadas[i]].setTranslateX(0);
+            nodosCarta[animadas[i]].setTranslateY(0);
+        }
+        numAnimadas = 0;
+        mostrarFundaciones(false);
+    }
 
-        // 2. Dibuja las CELDAS LIBRES
+    /**
+     * Muestra todas las cartas de las fundaciones, o solo la de arriba de cada una.
+     */
+    private void mostrarFundaciones(boolean todas) {
+        for (Node slot : foundationsBox.getChildren()) {
+            List<Node> cartas = ((Pane) slot).getChildren();
+            for (int k = 0; k < cartas.size(); k++) cartas.get(k).setVisible(todas || k == cartas.size() - 1);
+        }
+    }
+
+    /**
+     * Crea la estructura fija del tablero: las 8 celdas, las 8 columnas y los
+     * 52 nodos de carta con sus manejadores de arrastre.
+     */
+    private void construirTablero() {
+        // 1. Las CELDAS LIBRES
         HBox celdasBox = new HBox(12);
         for (int i = 0; i < 8; i++) {
             StackPane slot = crearSlotVisual(90, 130);
-            CartaInglesa carta = (i < juego.getCeldasLibres().size()) ? juego.getCeldasLibres().get(i) : null;
-            if (carta != null) {
-                Node nodo = CardView.frontCard(carta);
-                slot.getChildren().add(nodo);
-                // Las cartas en celdas libres solo mueven de una en una
-                hacerArrastrable(nodo, carta);
-            }
             celdasBox.getChildren().add(slot);
             freeCellPanes.add(slot); // Guarda el slot como destino de drop
         }
         boardGrid.add(celdasBox, 0, 0, 8, 1); // Anade la fila de celdas a la rejilla
 
-        // 3. Dibuja las COLUMNAS
+        // 2. Las COLUMNAS (el slot vacio queda siempre al fondo, tapado por las cartas)
         HBox cols = new HBox(15);
-        for (int idx = 0; idx < juego.getColumnas().size(); idx++) {
-            TableauDeck col = juego.getColumnas().get(idx);
+        for (int i = 0; i < 8; i++) {
             Pane columnaPane = new Pane(); // Panel para apilar cartas verticalmente
             columnaPane.setPrefSize(100, 600);
-            double y = 0; // Coordenada Y para la siguiente carta
-
-            // Busca el indice de la carta mas alta que forma una pila valida
-            int stackStartIndex = col.getCartas().size() - 1; // Por defecto, solo la ultima
-            if (stackStartIndex >= 0) {
-                for (int i = col.getCartas().size() - 2; i >= 0; i--) {
-                    CartaInglesa top = col.getCartas().get(i + 1);
-                    CartaInglesa bottom = col.getCartas().get(i);
-                    // Regla: mismo palo, descendente
-                    if (bottom.getPalo() == top.getPalo() && bottom.getValor() == top.getValor() + 1) {
-                        stackStartIndex = i; // La pila valida empieza mas arriba
-                    } else {
-                        break; // Se rompio la secuencia
-                    }
-                }
-            }
-
-            // Dibuja las cartas en la columna
-            for (int i = 0; i < col.getCartas().size(); i++) {
-                CartaInglesa carta = col.getCartas().get(i);
-                Node nodo = CardView.frontCard(carta);
-                nodo.setLayoutY(y); // Posiciona la carta
-                columnaPane.getChildren().add(nodo); // Anade el nodo al panel
-
-                // Si la carta es parte de una pila valida, la hace arrastrable
-                if (i >= stackStartIndex) {
-                    // Crea una COPIA de la pila que se va a arrastrar
-                    List<CartaInglesa> stackParaArrastrar = new ArrayList<>(col.getCartas().subList(i, col.getCartas().size()));
-                    // Llama al metodo de arrastre para PILAS
-                    hacerArrastrable(nodo, stackParaArrastrar, col);
-                }
-
-                y += CARD_VERTICAL_OFFSET; // Incrementa Y para la siguiente carta
-            }
-
-            if (col.getCartas().isEmpty()) columnaPane.getChildren().add(crearSlotVisual(90, 130));
+            columnaPane.getChildren().add(crearSlotVisual(90, 130));
             columnPanes.add(columnaPane); // Guarda el panel como destino de drop
             cols.getChildren().add(columnaPane);
         }
         boardGrid.add(cols, 0, 1, 8, 1); // Anade la fila de columnas a la rejilla
+
+        // 3. Un nodo por carta
+        for (int codigo = 0; codigo < CardCode.TOTAL; codigo++) {
+            Node nodo = CardView.nodoCarta(codigo); // Nodo del pool (uno por carta)
+            hacerArrastrable(nodo, codigo);
+            nodosCarta[codigo] = nodo;
+        }
     }
 
     /**
-     * Metodo de arrastre para UNA SOLA CARTA.
-     * Usado por las Celdas Libres.
+     * Vuelve a colocar TODAS las cartas segun el estado de 'juego'
+     * (al empezar y despues de un nuevo reparto). No crea nodos.
      */
-    private void hacerArrastrable(Node nodo, CartaInglesa carta) {
-        final double[] start = new double[2]; // Guarda pos inicial del mouse
-
-        nodo.setOnMousePressed(e -> {
-            start[0] = e.getSceneX();
-            start[1] = e.getSceneY();
-            nodo.toFront(); // Trae la carta al frente
-        });
+    private void refrescarTablero() {
+        // Saca todas las cartas de sus paneles
+        for (Node nodo : nodosCarta) {
+            if (nodo.getParent() instanceof Pane) ((Pane) nodo.getParent()).getChildren().remove(nodo);
+        }
 
-        nodo.setOnMouseDragged(e -> {
-            // Mueve la carta siguiendo el mouse
-            nodo.setTranslateX(e.getSceneX() - start[0]);
-            nodo.setTranslateY(e.getSceneY() - start[1]);
-        });
+        // Las coloca de abajo hacia arriba, asi el orden de dibujo queda bien
+        for (int i = 0; i < juego.getFundaciones().size(); i++) {
+            for (CartaInglesa c : juego.getFundaciones().get(i).getCartas()) colocar(c);
+        }
+        for (CartaInglesa c : juego.getCeldasLibres()) {
+            if (c != null) colocar(c);
+        }
+        for (var col : juego.getColumnas()) {
+            for (CartaInglesa c : col.getCartas()) colocar(c);
+        }
+    }
 
-        nodo.setOnMouseReleased(e -> {
-            boolean moved = false; // Bandera para saber si el movimiento fue exitoso
+    private void colocar(CartaInglesa c) {
+        colocar(c.getCodigo(), juego.getUbicacion(c.getCodigo()));
+    }
 
-            // 1. Intenta mover a fundacion
-            for (Node fnode : foundationsBox.getChildren()) {
-                if (interseca(nodo, fnode)) {
-                    moved = juego.moverAFundacion(carta);
-                    if (moved) break;
-                }
+    /**
+     * Mueve el nodo de una carta al panel de su ubicacion.
+     * La carta siempre queda arriba de su panel (es la que acaba de llegar).
+     */
+    private void colocar(int codigo, int ubicacion) {
+        Node nodo = nodosCarta[codigo];
+        if (nodo.getParent() instanceof Pane) {
+            Pane anterior = (Pane) nodo.getParent();
+            anterior.getChildren().remove(nodo);
+            // Si salio de una fundacion, la carta de abajo vuelve a verse
+            if (foundationsBox.getChildren().contains(anterior) && !anterior.getChildren().isEmpty()) {
+                anterior.getChildren().get(anterior.getChildren().size() - 1).setVisible(true);
             }
-
-            // 2. Intenta mover a celda libre
-            if (!moved) {
-                for (int i = 0; i < freeCellPanes.size(); i++) {
-                    if (interseca(nodo, freeCellPanes.get(i))) {
-                        moved = juego.moverACelda(carta, i);
-                        if (moved) break;
-                    }
-                }
+        }
+        nodo.setTranslateX(0);
+        nodo.setTranslateY(0);
+        nodo.setVisible(true);
+
+        int indice = Ubicacion.indice(ubicacion);
+        switch (Ubicacion.tipo(ubicacion)) {
+            case Jugada.CELDA -> freeCellPanes.get(indice).getChildren().add(nodo);
+            case Jugada.FUNDACION -> {
+                // Solo se ve la carta de arriba: la de abajo se oculta (no se dibuja)
+                Pane slot = (Pane) foundationsBox.getChildren().get(indice);
+                if (!slot.getChildren().isEmpty()) slot.getChildren().get(slot.getChildren().size() - 1).setVisible(false);
+                nodo.setLayoutY(0);
+                slot.getChildren().add(nodo);
             }
-
-            // 3. Intenta mover a columna
-            if (!moved) {
-                for (int i = 0; i < columnPanes.size(); i++) {
-                    if (interseca(nodo, columnPanes.get(i))) {
-                        moved = juego.moverAColumna(carta, i);
-                        if (moved) break;
-                    }
-                }
+            default -> {
+                nodo.setLayoutY(Ubicacion.profundidad(ubicacion) * CARD_VERTICAL_OFFSET); // Posiciona la carta
+                columnPanes.get(indice).getChildren().add(nodo);
             }
-
-            terminarDrag(nodo, moved); // Finaliza el arrastre
-        });
+        }
     }
 
     /**
-     * Metodo de arrastre para una PILA DE CARTAS (sobrescribe al anterior).
-     * Usado por las Columnas.
+     * Registra (una sola vez) los manejadores de arrastre del nodo de una carta.
+     * Lo que se arrastra se decide al presionar, segun donde este la carta en ese momento:
+     * - En una celda libre: la carta sola.
+     * - En una columna: la carta y las de encima, si forman una pila valida.
+     * - En una fundacion: nada.
      */
-    private void hacerArrastrable(Node nodo, List<CartaInglesa> stack, TableauDeck origenColumna) {
-        final double[] start = new double[2];
-        CartaInglesa cartaPrincipal = stack.get(0); // Carta en la que se hizo clic
-
-        // Encuentra todos los nodos graficos de la pila
-        Pane parentPane = (Pane) nodo.getParent();
-        List<Node> nodosDeLaPila = new ArrayList<>();
-        int startIndexEnPane = parentPane.getChildren().indexOf(nodo);
-
-        if (startIndexEnPane != -1) {
-            int numNodosEnPila = stack.size();
-            for (int i = 0; i < numNodosEnPila; i++) {
-                if (startIndexEnPane + i < parentPane.getChildren().size()) {
-                    nodosDeLaPila.add(parentPane.getChildren().get(startIndexEnPane + i));
-                }
-            }
-        }
-
-        nodo.setOnMousePressed(e -> {
-            start[0] = e.getSceneX();
-            start[1] = e.getSceneY();
-            for (Node n : nodosDeLaPila) {
-                n.toFront(); // Trae toda la pila al frente
-            }
-        });
+    private void hacerArrastrable(Node nodo, int codigo) {
+        nodo.setOnMousePressed(e -> iniciarArrastre(codigo, e));
 
         nodo.setOnMouseDragged(e -> {
-            double deltaX = e.getSceneX() - start[0];
-            double deltaY = e.getSceneY() - start[1];
+            double deltaX = e.getSceneX() - inicioX;
+            double deltaY = e.getSceneY() - inicioY;
             // Mueve todos los nodos de la pila juntos
-            for (Node n : nodosDeLaPila) {
+            for (Node n : nodosArrastrados) {
                 n.setTranslateX(deltaX);
                 n.setTranslateY(deltaY);
             }
         });
 
-        nodo.setOnMouseReleased(e -> {
-            boolean moved = false;
+        nodo.setOnMouseReleased(e -> terminarArrastre(nodo));
+    }
 
-            // 1. Intenta mover a fundacion (solo si la pila es de 1)
-            if (stack.size() == 1) {
-                for (Node fnode : foundationsBox.getChildren()) {
-                    if (interseca(nodo, fnode)) {
-                        moved = juego.moverAFundacion(cartaPrincipal);
-                        if (moved) break;
-                    }
+    /**
+     * Decide que se arrastra desde la carta presionada y lo trae al frente.
+     */
+    private void iniciarArrastre(int codigo, MouseEvent e) {
+        terminarAnimacion(); // Si el ultimo lote sigue volando, las cartas llegan ya
+        nodosArrastrados.clear();
+        pilaArrastrada.clear();
+        columnaOrigen = -1;
+        inicioX = e.getSceneX();
+        inicioY = e.getSceneY();
+
+        int ubicacion = juego.getUbicacion(codigo);
+        int indice = Ubicacion.indice(ubicacion);
+        switch (Ubicacion.tipo(ubicacion)) {
+            case Jugada.CELDA -> {
+                // Las cartas en celdas libres solo mueven de una en una
+                pilaArrastrada.add(juego.getCeldasLibres().get(indice));
+                nodosArrastrados.add(nodosCarta[codigo]);
+            }
+            case Jugada.COLUMNA -> {
+                List<CartaInglesa> cartas = juego.getColumnas().get(indice).getCartas();
+                int prof = Ubicacion.profundidad(ubicacion);
+                // Regla: de la carta hacia arriba, mismo palo y descendente
+                for (int k = prof; k < cartas.size() - 1; k++) {
+                    if (!CardCode.puedeIrEnColumna(cartas.get(k + 1).getCodigo(), cartas.get(k).getCodigo())) return;
+                }
+                for (int k = prof; k < cartas.size(); k++) {
+                    pilaArrastrada.add(cartas.get(k));
+                    nodosArrastrados.add(nodosCarta[cartas.get(k).getCodigo()]);
+                }
+                columnaOrigen = indice;
+            }
+            default -> { return; } // Las fundaciones no se arrastran
+        }
+
+        for (Node n : nodosArrastrados) {
+            n.toFront(); // Trae toda la pila al frente
+        }
+    }
+
+    /**
+     * Intenta el movimiento donde se solto la carta. Si el modelo lo acepta,
+     * sus avisos ya movieron los nodos; si no, la pila vuelve a su lugar.
+     */
+    private void terminarArrastre(Node nodo) {
+        if (pilaArrastrada.isEmpty()) return; // No habia nada que arrastrar
+        boolean moved = false; // Bandera para saber si el movimiento fue exitoso
+        CartaInglesa cartaPrincipal = pilaArrastrada.get(0); // Carta en la que se hizo clic
+
+        if (pilaArrastrada.size() == 1) {
+            // 1. Intenta mover a fundacion
+            for (Node fnode : foundationsBox.getChildren()) {
+                if (interseca(nodo, fnode)) {
+                    moved = juego.moverAFundacion(cartaPrincipal);
+                    if (moved) break;
                 }
             }
 
-            // 2. Intenta mover a celda libre (solo si la pila es de 1)
-            if (!moved && stack.size() == 1) {
+            // 2. Intenta mover a celda libre
+            if (!moved) {
                 for (int i = 0; i < freeCellPanes.size(); i++) {
                     if (interseca(nodo, freeCellPanes.get(i))) {
                         moved = juego.moverACelda(cartaPrincipal, i);
@@ -286,35 +461,39 @@ public class BoardController {
                     }
                 }
             }
+        }
 
-            // 3. Intenta mover a columna (logica de pila)
-            if (!moved) {
-                for (int i = 0; i < columnPanes.size(); i++) {
-                    if (i == juego.getColumnas().indexOf(origenColumna)) continue; // No mover a la misma columna
+        // 3. Intenta mover a columna (una carta o una pila)
+        if (!moved) {
+            for (int i = 0; i < columnPanes.size(); i++) {
+                if (i == columnaOrigen) continue; // No mover a la misma columna
 
-                    if (interseca(nodo, columnPanes.get(i))) {
-                        // Llama al metodo de mover PILA en la logica
-                        moved = juego.moverPilaAColumna(stack, origenColumna, i);
-                        if (moved) break;
-                    }
+                if (interseca(nodo, columnPanes.get(i))) {
+                    moved = (pilaArrastrada.size() == 1)
+                            ? juego.moverAColumna(cartaPrincipal, i)
+                            : juego.moverPilaAColumna(pilaArrastrada, juego.getColumnas().get(columnaOrigen), i);
+                    if (moved) break;
                 }
             }
+        }
 
-            // Resetea la posicion de todos los nodos de la pila
-            for (Node n : nodosDeLaPila) {
-                n.setTranslateX(0);
-                n.setTranslateY(0);
-            }
+        // Resetea la posicion de los nodos (si hubo movimiento, 'colocar' ya lo hizo)
+        for (Node n : nodosArrastrados) {
+            n.setTranslateX(0);
+            n.setTranslateY(0);
+        }
+        nodosArrastrados.clear();
+        pilaArrastrada.clear();
 
-            // Si el movimiento fue exitoso, refresca el tablero y comprueba si gano/perdio
-            if (moved){
-                refrescarTablero();
-                String msg = juego.verificarFinJuego();
-                if (msg != null) {
-                    mostrarMensaje(msg);
-                }
+        // Si el movimiento fue exitoso, comprueba si gano/perdio
+        if (moved) {
+            // Lo que suba solo a la fundacion se deshace junto con esta jugada
+            if (autoJugarCheck.isSelected()) juego.autoJugar(true);
+            String msg = juego.verificarFinJuego();
+            if (msg != null) {
+                mostrarMensaje(msg);
             }
-        });
+        }
     }
 
     /**
@@ -327,24 +506,6 @@ public class BoardController {
         return ab.intersects(bb);
     }
 
-    /**
-     * Finaliza el arrastre de UNA SOLA CARTA.
-     * Resetea su posicion y refresca el tablero si el movimiento fue exitoso.
-     */
-    private void terminarDrag(Node nodo, boolean exito) {
-        nodo.setTranslateX(0); // Resetea la posicion X
-        nodo.setTranslateY(0); // Resetea la posicion Y
-        if (exito) {
-            refrescarTablero();
-
-            // Comprueba si el juego termino
-            String msg = juego.verificarFinJuego();
-            if (msg != null) {
-                mostrarMensaje(msg);
-            }
-        }
-    }
-
     /**
      * Crea un panel 'slot' vacio con estilo.
      * Usado para celdas vacias y columnas vacias.
@@ -2,25 +2,219 @@ package ui;
 
 import DeckOfCards.CartaInglesa;
 import DeckOfCards.Palo;
+import eightoff.CardCode;
+import javafx.application.Platform;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * CardAssets (Recursos de Cartas)
  * Clase utilitaria que maneja la carga de imagenes de cartas.
  * Utiliza un 'CACHE' para no cargar la misma imagen mas de una vez.
+ *
+ * - 'precargar()' arma, en un hilo de fondo, un ATLAS: una sola imagen con las
+ *   52 cartas y la trasera, en una rejilla. Cada carta es un rectangulo
+ *   (viewport) dentro del atlas, asi todas las cartas usan la misma textura.
+ * - Las rutas que no existen se recuerdan (cache negativo): no se vuelven a
+ *   buscar ni a reportar.
+ * - Las imagenes que se leen para el atlas no se quedan en 'CACHE': ahi solo
+ *   quedan las que se cargan sueltas ('imagenSuelta', 'imageFor', 'backImage').
+ * - Los caches son seguros entre hilos (se llenan desde el hilo de fondo).
+ * - Si el atlas no se puede armar, se reporta la causa (una vez) y cada carta
+ *   usa su propia imagen ('imagenSuelta').
  */
 public class CardAssets {
 
     // Un Mapa que actua como cache. Guarda las imagenes que ya se cargaron.
     // La clave (String) es la ruta del archivo (ej. "/cartas/ace_of_spades.png")
     // El valor (Image) es el objeto de imagen ya cargado en memoria.
-    private static final Map<String, Image> CACHE = new HashMap<>();
+    private static final Map<String, Image> CACHE = new ConcurrentHashMap<>();
+
+    // Cache negativo: rutas que ya se buscaron y no existen.
+    private static final Set<String> FALTANTES = ConcurrentHashMap.newKeySet();
+
+    // Cartas (por codigo) cuya imagen no se encontro; se reportan una sola vez.
+    private static final Set<Integer> REPORTADAS = ConcurrentHashMap.newKeySet();
 
     // Carpeta base dentro de los recursos del proyecto donde se guardan las imagenes.
     private static final String FOLDER = "/cartas/";
 
+    // Posicion de la trasera en el atlas (las cartas van de 0 a 51, por codigo).
+    public static final int REVERSO = CardCode.TOTAL;
+
+    // Columnas de la rejilla del atlas (14 x 4 = 56 lugares para 53 imagenes).
+    private static final int COLUMNAS_ATLAS = 14;
+
+    // Carga del atlas (se crea una sola vez, en 'precargar')
+    private static volatile CompletableFuture<Atlas> carga;
+
+    // Si ya se reporto que el atlas fallo (se reporta una sola vez).
+    private static final AtomicBoolean FALLO_REPORTADO = new AtomicBoolean();
+
+    /**
+     * Atlas ya armado: la imagen unica y el rectangulo de cada carta.
+     */
+    public static final class Atlas {
+        private final Image imagen;
+        private final Rectangle2D[] viewports;
+        private final long milisCarga;
+        private final int faltantes;
+
+        private Atlas(Image imagen, Rectangle2D[] viewports, long milisCarga, int faltantes) {
+            this.imagen = imagen;
+            this.viewports = viewports;
+            this.milisCarga = milisCarga;
+            this.faltantes = faltantes;
+        }
+
+        /** La textura con todas las cartas. */
+        public Image getImagen() { return imagen; }
+
+        /**
+         * Rectangulo de una carta dentro del atlas.
+         * @param indice Codigo de la carta (0..51) o REVERSO. Si la imagen de la carta
+         *               no existe, devuelve el de la trasera.
+         */
+        public Rectangle2D viewport(int indice) { return viewports[indice]; }
+
+        /** Milisegundos que tardo en leerse y armarse el atlas. */
+        public long getMilisCarga() { return milisCarga; }
+
+        /** Cuantas cartas no tenian imagen (se muestran con la trasera). */
+        public int getFaltantes() { return faltantes; }
+    }
+
+    /**
+     * Empieza a armar el atlas en un hilo de fondo (solo la primera vez).
+     * Conviene llamarlo al arrancar, antes de crear la ventana.
+     * @return La carga en curso (o ya terminada).
+     */
+    public static CompletableFuture<Atlas> precargar() {
+        CompletableFuture<Atlas> c = carga;
+        if (c == null) {
+            synchronized (CardAssets.class) {
+                c = carga;
+                if (c == null) {
+                    c = new CompletableFuture<>();
+                    carga = c;
+                    CompletableFuture<Atlas> destino = c;
+                    Thread hilo = new Thread(() -> {
+                        try {
+                            destino.complete(armarAtlas());
+                        } catch (Throwable t) {
+                            destino.completeExceptionally(t);
+                        }
+                    }, "CardAssets-atlas");
+                    hilo.setDaemon(true);
+                    hilo.start();
+                }
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Ejecuta 'accion' con el atlas en el hilo de JavaFX: enseguida si ya esta
+     * listo, o cuando termine de cargarse. Si el atlas no se pudo armar, ejecuta
+     * 'sinAtlas' (ej: poner la imagen suelta de la carta, ver 'imagenSuelta').
+     */
+    public static void cuandoEsteListo(Consumer<Atlas> accion, Runnable sinAtlas) {
+        CompletableFuture<Atlas> c = precargar();
+        if (c.isDone()) {
+            c.whenComplete((atlas, error) -> entregar(atlas, error, accion, sinAtlas)); // En este hilo
+        } else {
+            c.whenComplete((atlas, error) -> Platform.runLater(() -> entregar(atlas, error, accion, sinAtlas)));
+        }
+    }
+
+    /**
+     * Metodo ayudante de 'cuandoEsteListo' (en el hilo de JavaFX).
+     */
+    private static void entregar(Atlas atlas, Throwable error, Consumer<Atlas> accion, Runnable sinAtlas) {
+        if (error == null) {
+            accion.accept(atlas);
+            return;
+        }
+        if (FALLO_REPORTADO.compareAndSet(false, true)) {
+            System.err.println("CardAssets no se pudo armar el atlas (se usan imagenes sueltas): " + error);
+        }
+        sinAtlas.run();
+    }
+
+    /**
+     * Imagen de una carta fuera del atlas (para cuando el atlas no se pudo armar).
+     * @param indice Codigo de la carta (0..51) o REVERSO.
+     * @return La imagen; la trasera si la carta no tiene; null si tampoco hay trasera.
+     */
+    public static Image imagenSuelta(int indice) {
+        Image img = indice == REVERSO ? null : buscarImagen(CardCode.aCarta(indice));
+        return img != null ? img : tryLoad(FOLDER + "back.png");
+    }
+
+    /**
+     * Lee las 53 imagenes y las copia en una sola imagen (rejilla de celdas del
+     * tamano de la imagen mas grande). Corre en el hilo de fondo.
+     */
+    private static Atlas armarAtlas() {
+        long t0 = System.nanoTime();
+
+        // 1. Lee las imagenes (las que falten quedan en null)
+        Image[] imagenes = new Image[REVERSO + 1];
+        for (int codigo = 0; codigo < CardCode.TOTAL; codigo++) {
+            imagenes[codigo] = buscarImagen(CardCode.aCarta(codigo));
+        }
+        imagenes[REVERSO] = load(FOLDER + "back.png");
+
+        // 2. Tamano de celda
+        int ancho = 0, alto = 0;
+        for (Image img : imagenes) {
+            if (img == null) continue;
+            ancho = Math.max(ancho, (int) img.getWidth());
+            alto = Math.max(alto, (int) img.getHeight());
+        }
+
+        // 3. Copia cada imagen a su celda y guarda su rectangulo
+        int filas = (imagenes.length + COLUMNAS_ATLAS - 1) / COLUMNAS_ATLAS;
+        WritableImage atlas = new WritableImage(ancho * COLUMNAS_ATLAS, alto * filas);
+        PixelWriter pw = atlas.getPixelWriter();
+        Rectangle2D[] viewports = new Rectangle2D[imagenes.length];
+        for (int i = 0; i < imagenes.length; i++) {
+            Image img = imagenes[i];
+            if (img == null) continue;
+            int x = (i % COLUMNAS_ATLAS) * ancho;
+            int y = (i / COLUMNAS_ATLAS) * alto;
+            int w = (int) img.getWidth(), h = (int) img.getHeight();
+            pw.setPixels(x, y, w, h, img.getPixelReader(), 0, 0);
+            viewports[i] = new Rectangle2D(x, y, w, h);
+        }
+
+        // 4. Las imagenes sueltas ya estan copiadas en el atlas: se sacan del cache
+        //    (si no, cada carta ocuparia memoria dos veces)
+        CACHE.values().removeAll(Arrays.asList(imagenes));
+
+        // 5. Las cartas sin imagen usan la trasera
+        int faltantes = 0;
+        for (int i = 0; i < REVERSO; i++) {
+            if (viewports[i] == null) {
+                viewports[i] = viewports[REVERSO];
+                faltantes++;
+            }
+        }
+
+        long milis = (System.nanoTime() - t0) / 1_000_000;
+        System.out.println("CardAssets atlas listo: " + (imagenes.length - faltantes) + " imagenes, "
+                + atlas.getWidth() + "x" + atlas.getHeight() + " px, " + milis + " ms");
+        return new Atlas(atlas, viewports, milis, faltantes);
+    }
+
     /**
      * Devuelve la imagen de la parte trasera de la carta.
      */
@@ -34,6 +228,15 @@ public class CardAssets {
      * @return La imagen (Image) correspondiente. Si no la encuentra, devuelve la trasera.
      */
     public static Image imageFor(CartaInglesa c) {
+        Image img = buscarImagen(c);
+        return img != null ? img : backImage(); // Devuelve la trasera como ultimo recurso
+    }
+
+    /**
+     * Busca la imagen de una carta entre sus nombres posibles.
+     * Si no hay ninguna, lo reporta (una sola vez por carta) y devuelve null.
+     */
+    private static Image buscarImagen(CartaInglesa c) {
         // Intenta buscar varios nombres de archivo (ej. .png, .jpg, 2.png)
         for (String path : candidatePaths(c)) {
             Image img = tryLoad(path); // Intenta cargar la imagen
@@ -41,10 +244,12 @@ public class CardAssets {
         }
 
         // Si el bucle termina, no se encontro ninguna imagen.
-        System.out.println("CardAssets PNG no encontrado para: valor=" + c.getValor()
-                + " palo=" + safeEnumName(c.getPalo())
-                + "  intentos=" + Arrays.toString(candidatePaths(c)));
-        return backImage(); // Devuelve la trasera como ultimo recurso
+        if (REPORTADAS.add(c.getCodigo())) {
+            System.out.println("CardAssets PNG no encontrado para: valor=" + c.getValor()
+                    + " palo=" + safeEnumName(c.getPalo())
+                    + "  intentos=" + Arrays.toString(candidatePaths(c)));
+        }
+        return null;
     }
 
     /**
@@ -97,20 +302,29 @@ public class CardAssets {
     }
 
     /**
-     * Intenta cargar una imagen. Primero revisa el cache.
+     * Intenta cargar una imagen. Primero revisa el cache (y el cache negativo).
      * Si no esta en cache, la carga desde los recursos.
-     * Si no existe, devuelve null (sin error).
+     * Si no existe, lo recuerda y devuelve null (sin error).
      */
     private static Image tryLoad(String path) {
         Image cached = CACHE.get(path); // 1. Revisar cache
         if (cached != null) return cached;
+        if (FALTANTES.contains(path)) return null; // Ya se sabe que no existe
 
         try (InputStream is = CardAssets.class.getResourceAsStream(path)) { // 2. Cargar recurso
-            if (is == null) return null; // No existe
+            if (is == null) { // No existe
+                FALTANTES.add(path);
+                return null;
+            }
             Image img = new Image(is);
+            if (img.isError()) { // Existe pero no se pudo leer
+                FALTANTES.add(path);
+                return null;
+            }
             CACHE.put(path, img); // 3. Guardar en cache
             return img;
         } catch (Exception e) {
+            FALTANTES.add(path);
             return null; // Error al cargar
         }
     }
@@ -0,0 +1,102 @@
+package eightoff;
+
+import DeckOfCards.CartaInglesa;
+import DeckOfCards.Palo;
+
+/**
+ * CardCode (Codigo de Carta)
+ * Clase utilitaria con las reglas del juego expresadas sobre codigos
+ * compactos de carta (0..51 = palo * 13 + valor - 1) en lugar de objetos.
+ * Es la base de la representacion empaquetada ('PackedBoard').
+ */
+public final class CardCode {
+
+    // Codigo reservado para "sin carta" (celda o columna vacia). Cabe en 6 bits.
+    public static final int VACIO = 0x3F;
+
+    // Numero total de cartas en la baraja.
+    public static final int TOTAL = 52;
+
+    // Copia de los palos para no clonar 'Palo.values()' en cada conversion.
+    private static final Palo[] PALOS = Palo.values();
+
+    private CardCode() { }
+
+    /** Devuelve el indice del palo (ordinal de 'Palo') de un codigo. */
+    public static int palo(int codigo) { return codigo / 13; }
+
+    /** Devuelve el valor (1..13) de un codigo. */
+    public static int valor(int codigo) { return codigo % 13 + 1; }
+
+    /** Comprueba si el codigo es un Rey. */
+    public static boolean esRey(int codigo) { return codigo % 13 == 12; }
+
+    /** Comprueba si el codigo es un As. */
+    public static boolean esAs(int codigo) { return codigo % 13 == 0; }
+
+    /**
+     * Regla de columna sobre codigos (misma regla que 'TableauDeck.puedeRecibir').
+     * Como el mismo palo ocupa codigos consecutivos, "mismo palo y un valor menos"
+     * equivale a 'cima == codigo + 1' (excepto para el Rey, que cruzaria de palo).
+     * @param codigo La carta que se quiere colocar.
+     * @param cima La carta de arriba de la columna, o VACIO.
+     */
+    public static boolean puedeIrEnColumna(int codigo, int cima) {
+        if (cima == VACIO) return esRey(codigo);
+        return !esRey(codigo) && cima == codigo + 1;
+    }
+
+    /**
+     * Cuantas cartas de arriba de una escalera (mismo palo, descendente) hay que
+     * mover para ponerlas sobre 'destino': la de abajo de esas tiene que ir sobre
+     * 'destino'. Como la escalera es de un solo palo, a lo sumo un largo sirve.
+     * @param cima La carta de arriba de la escalera.
+     * @param largo Largo de la escalera.
+     * @param destino La carta de arriba del destino, o VACIO (solo sirve una pila que empiece en Rey).
+     * @return Cuantas cartas (1..largo), o 0 si ninguna parte de la escalera cabe.
+     */
+    public static int cartasHacia(int cima, int largo, int destino) {
+        int k;
+        if (destino == VACIO) {
+            k = 14 - valor(cima); // Hasta el Rey
+        } else {
+            if (palo(destino) != palo(cima)) return 0;
+            k = destino - cima;
+        }
+        return (k >= 1 && k <= largo) ? k : 0;
+    }
+
+    /**
+     * Regla de fundacion sobre codigos (misma regla que 'FoundationDeck.puedeRecibir').
+     * @param codigo La carta que se quiere colocar.
+     * @param paloFundacion El palo de la fundacion.
+     * @param altura Cuantas cartas tiene ya la fundacion (0..13).
+     */
+    public static boolean puedeIrEnFundacion(int codigo, int paloFundacion, int altura) {
+        if (altura == 0) return esAs(codigo);
+        return altura < 13 && codigo == paloFundacion * 13 + altura;
+    }
+
+    /**
+     * Convierte una carta (objeto) a su codigo; null se convierte en VACIO.
+     */
+    public static int de(CartaInglesa c) {
+        return c == null ? VACIO : c.getCodigo();
+    }
+
+    /**
+     * Devuelve la carta (objeto compartido, ver 'CartaInglesa.de') de un codigo.
+     * @return La carta, o null si el codigo es VACIO.
+     */
+    public static CartaInglesa aCarta(int codigo) {
+        return codigo == VACIO ? null : CartaInglesa.de(codigo);
+    }
+
+    /**
+     * Texto legible de un codigo (ej. "12 de CORAZON"), con el formato de 'darPista'.
+     */
+    public static String texto(int codigo) {
+        if (codigo == VACIO) return "-";
+        return valor(codigo) + " de " + PALOS[palo(codigo)];
+    }
+}
\ No newline at end of file
@@ -1,9 +1,10 @@
 package ui;
 
 import DeckOfCards.CartaInglesa;
+import eightoff.CardCode;
+import javafx.scene.CacheHint;
 import javafx.scene.Node;
 import javafx.scene.effect.DropShadow;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
@@ -13,28 +14,85 @@ import javafx.scene.shape.Rectangle;
  * CardView (Vista de Carta)
  * Clase utilitaria que convierte un objeto CartaInglesa (datos)
  * en un objeto grafico 'Node' (visual) de JavaFX.
+ *
+ * - 'nodoCarta' usa un pool con UN nodo por carta (por codigo): se crea la primera
+ *   vez y despues siempre se devuelve el mismo. Cuenta aciertos y fallos del pool.
+ * - Todas las cartas comparten la misma sombra, y cada nodo se guarda en cache
+ *   como imagen (con sombra incluida), asi arrastrarlo o moverlo no vuelve a
+ *   calcular el efecto.
+ * - Se usa solo desde el hilo de JavaFX.
  */
 public class CardView {
     // Define el tamaño estandar de las cartas
     private static final double W = 90, H = 130;
 
+    // Sombra compartida por todas las cartas (un efecto se puede usar en varios nodos)
+    private static final DropShadow SOMBRA = new DropShadow(10, Color.color(0, 0, 0, 0.35));
+
+    // Pool: un nodo por codigo de carta (ver 'CardCode')
+    private static final Node[] POOL = new Node[CardCode.TOTAL];
+    private static long aciertos; // Pedidos que encontraron el nodo ya creado
+    private static long fallos;   // Pedidos que tuvieron que crearlo
+
     /**
-     * Devuelve el nodo visual para la cara de una carta.
+     * Devuelve EL nodo de una carta (siempre el mismo para el mismo codigo).
+     * Como un nodo solo puede estar en un panel a la vez, hay una sola vista por carta.
+     * @param codigo El codigo de la carta (0..51).
+     */
+    public static Node nodoCarta(int codigo) {
+        Node nodo = POOL[codigo];
+        if (nodo != null) {
+            aciertos++;
+            return nodo;
+        }
+        fallos++;
+        nodo = frontCard(CardCode.aCarta(codigo));
+        POOL[codigo] = nodo;
+        return nodo;
+    }
+
+    /** Pedidos a 'nodoCarta' que reutilizaron un nodo. */
+    public static long getAciertos() { return aciertos; }
+
+    /** Pedidos a 'nodoCarta' que crearon un nodo nuevo. */
+    public static long getFallos() { return fallos; }
+
+    /** Cuantos nodos hay creados en el pool (maximo 52). */
+    public static int getTamanoPool() {
+        int n = 0;
+        for (Node nodo : POOL) {
+            if (nodo != null) n++;
+        }
+        return n;
+    }
+
+    /**
+     * Crea un nodo visual NUEVO para la cara de una carta (fuera del pool).
      * @param c La carta logica (datos).
      * @return El 'Node' grafico (visual).
      */
     public static Node frontCard(CartaInglesa c) {
-        // Obtiene la imagen de CardAssets y construye el grafico
-        return cardFromImage(CardAssets.imageFor(c));
+        // Toma la carta del atlas de CardAssets y construye el grafico
+        return cardFromAtlas(c.getCodigo());
+    }
+
+    /**
+     * Crea un nodo visual NUEVO para la parte trasera de una carta.
+     */
+    public static Node backCard() {
+        return cardFromAtlas(CardAssets.REVERSO);
     }
 
     /**
      * Metodo privado que construye el grafico.
      * Combina un fondo, la imagen y una sombra.
-     * @param img La imagen a usar.
+     * La imagen es un recorte del atlas; si el atlas aun se esta cargando,
+     * se pone cuando termine (mientras tanto solo se ve el fondo). Si el atlas
+     * no se pudo armar, se usa la imagen suelta de la carta.
+     * @param indice Codigo de la carta (0..51) o CardAssets.REVERSO.
      * @return Un StackPane con el grafico final.
      */
-    private static Node cardFromImage(Image img) {
+    private static Node cardFromAtlas(int indice) {
         // 1. Fondo blanco con bordes redondos
         Rectangle bg = new Rectangle(W, H);
         bg.setFill(Color.WHITE);
@@ -43,7 +101,11 @@ public class CardView {
         bg.setArcHeight(12);
 
         // 2. Imagen de la carta
-        ImageView iv = new ImageView(img);
+        ImageView iv = new ImageView();
+        CardAssets.cuandoEsteListo(atlas -> {
+            iv.setViewport(atlas.viewport(indice));
+            iv.setImage(atlas.getImagen());
+        }, () -> iv.setImage(CardAssets.imagenSuelta(indice)));
         iv.setFitWidth(W);
         iv.setFitHeight(H);
         iv.setPreserveRatio(true);
@@ -58,8 +120,12 @@ public class CardView {
         // 4. Apila el fondo (bg) y la imagen (iv)
         StackPane root = new StackPane(bg, iv);
 
-        // 5. Añade una sombra para darle profundidad
-        root.setEffect(new DropShadow(10, Color.color(0, 0, 0, 0.35)));
+        // 5. Añade una sombra para darle profundidad (la misma para todas)
+        root.setEffect(SOMBRA);
+
+        // 6. Guarda el resultado como imagen: moverlo solo copia la imagen
+        root.setCache(true);
+        root.setCacheHint(CacheHint.SPEED);
 
         return root;
     }
@@ -5,22 +5,56 @@ package DeckOfCards;
  * Esta clase es el 'Modelo de Datos' mas fundamental.
  * Representa una unica carta, con su valor y palo.
  * Es 'Comparable' para permitir ordenar mazos.
+ *
+ * Las cartas son inmutables y solo existen 52 (una por codigo, ver 'de'):
+ * todos los mazos y partidas comparten las mismas, asi que repartir no crea
+ * cartas y dos cartas iguales son el mismo objeto. Si una carta esta boca
+ * arriba o no lo decide la pila donde esta, no la carta.
  */
-public class CartaInglesa implements Comparable<CartaInglesa> {
+public final class CartaInglesa implements Comparable<CartaInglesa> {
 
-    private int valor;        // 1..13 (As=1, J=11, Q=12, K=13)
-    private Palo palo;        // El enum Palo (TREBOL, PICA, etc.)
-    private boolean faceUp = false; // Estado: boca arriba (true) o boca abajo (false)
+    // Las 52 cartas, por codigo.
+    private static final CartaInglesa[] TABLA = new CartaInglesa[52];
+
+    static {
+        for (Palo p : Palo.values()) {
+            for (int valor = 1; valor <= 13; valor++) {
+                TABLA[codigo(valor, p)] = new CartaInglesa(valor, p);
+            }
+        }
+    }
+
+    private final int valor;   // 1..13 (As=1, J=11, Q=12, K=13)
+    private final Palo palo;   // El enum Palo (TREBOL, PICA, etc.)
+    private final int codigo;  // palo * 13 + (valor - 1)
 
     /**
-     * Constructor para crear una nueva carta.
+     * Constructor (solo para llenar la tabla; las cartas se piden con 'de').
      * @param valor El valor numerico (1-13).
      * @param palo El palo (enum).
      */
-    public CartaInglesa(int valor, Palo palo) {
+    private CartaInglesa(int valor, Palo palo) {
         this.valor = valor;
         this.palo = palo;
-        this.faceUp = false; // Todas las cartas se crean boca abajo por defecto
+        this.codigo = codigo(valor, palo);
+    }
+
+    /**
+     * Devuelve la carta de un codigo (0..51), sin crear objetos.
+     * @throws IndexOutOfBoundsException Si el codigo no es de una carta.
+     */
+    public static CartaInglesa de(int codigo) {
+        return TABLA[codigo];
+    }
+
+    /**
+     * Devuelve la carta con ese valor y palo, sin crear objetos.
+     * @param valor El valor numerico (1-13).
+     * @param palo El palo (enum).
+     */
+    public static CartaInglesa de(int valor, Palo palo) {
+        if (valor < 1 || valor > 13) throw new IllegalArgumentException("Valor de carta invalido: " + valor);
+        return TABLA[codigo(valor, palo)];
     }
 
     // --- Getters ---
@@ -28,6 +62,22 @@ public class CartaInglesa implements Comparable<CartaInglesa> {
     public int getValor() { return valor; }
     public Palo getPalo() { return palo; }
 
+    /**
+     * Codigo compacto de la carta (0..51): palo * 13 + (valor - 1).
+     * Cabe en 6 bits, asi que sirve para empaquetar tableros y como indice de arreglos.
+     */
+    public int getCodigo() { return codigo; }
+
+    /**
+     * Calcula el codigo compacto de una carta sin necesidad de crearla.
+     * @param valor El valor numerico (1-13).
+     * @param palo El palo (enum).
+     * @return El codigo (0..51).
+     */
+    public static int codigo(int valor, Palo palo) {
+        return palo.ordinal() * 13 + (valor - 1);
+    }
+
     /**
      * Metodo de comparacion (de la interfaz Comparable).
      * Permite ordenar listas de cartas.
@@ -58,11 +108,16 @@ public class CartaInglesa implements Comparable<CartaInglesa> {
         return this.palo == topFund.palo && this.valor == topFund.valor + 1;
     }
 
-    /**
-     * Coloca la carta boca arriba.
-     */
-    public void makeFaceUp() {
-        faceUp = true;
+    /** Dos cartas son iguales si tienen el mismo codigo (y entonces son el mismo objeto). */
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CartaInglesa && ((CartaInglesa) o).codigo == codigo;
     }
 
+    @Override
+    public int hashCode() { return codigo; }
+
+    /** Texto legible (ej. "12 de CORAZON"), con el formato de 'darPista'. */
+    @Override
+    public String toString() { return valor + " de " + palo; }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package servidor;
+
+/**
+ * ClienteLocal (Cliente del servidor en el mismo proceso)
+ * Manda las ordenes de texto de 'ProtocoloJuego' directo, sin socket, y lee
+ * las respuestas. Sirve para probar y medir el servidor (el mismo camino que
+ * una conexion real, menos la red).
+ *
+ * Los metodos con tipo lanzan IllegalStateException si la respuesta es un ERROR,
+ * salvo 'mover', que devuelve false si la jugada es ilegal.
+ */
+public final class ClienteLocal {
+
+    private final ProtocoloJuego protocolo;
+
+    public ClienteLocal(ProtocoloJuego protocolo) {
+        this.protocolo = protocolo;
+    }
+
+    /** Manda una orden y devuelve la respuesta tal cual. */
+    public String enviar(String orden) {
+        return protocolo.atender(orden);
+    }
+
+    /**
+     * Abre una sesion con ese reparto.
+     * @return El id de la sesion.
+     */
+    public long nueva(long numeroPartida) {
+        return Long.parseLong(campos(enviar("NUEVA " + numeroPartida))[1]);
+    }
+
+    /**
+     * Hace una jugada (ver 'Jugada').
+     * @return true si se hizo; false si era ilegal.
+     */
+    public boolean mover(long sesion, int jugada) {
+        String r = enviar("MOVER " + sesion + " " + jugada);
+        if (r.equals("ERROR jugada ilegal")) return false;
+        campos(r);
+        return true;
+    }
+
+    /** Deshace la ultima jugada. @return false si no habia nada que deshacer. */
+    public boolean deshacer(long sesion) {
+        return enviar("DESHACER " + sesion).startsWith("OK");
+    }
+
+    /** Las jugadas legales de la sesion. */
+    public int[] jugadas(long sesion) {
+        String[] c = campos(enviar("JUGADAS " + sesion));
+        int[] jugadas = new int[Integer.parseInt(c[1])];
+        for (int i = 0; i < jugadas.length; i++) jugadas[i] = Integer.parseInt(c[i + 2]);
+        return jugadas;
+    }
+
+    /** El texto de la pista. */
+    public String pista(long sesion) {
+        String r = enviar("PISTA " + sesion);
+        campos(r);
+        return r.substring(3); // Sin el "OK "
+    }
+
+    /** Cierra la sesion. */
+    public void cerrar(long sesion) {
+        campos(enviar("CERRAR " + sesion));
+    }
+
+    private static String[] campos(String respuesta) {
+        if (!respuesta.startsWith("OK")) throw new IllegalStateException(respuesta);
+        return respuesta.split(" ");
+    }
+}
\ No newline at end of file
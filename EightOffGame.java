@@ -5,6 +5,8 @@ import DeckOfCards.Mazo;
 import DeckOfCards.Palo;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
 
 /**
  * EightOffGame (Logica del Juego)
@@ -18,9 +20,59 @@ public class EightOffGame {
     private List<TableauDeck> columnas;       // Las 8 columnas de juego
     private List<CartaInglesa> celdasLibres;  // Las 8 celdas libres
     private List<FoundationDeck> fundaciones; // Las 4 pilas de fundacion
-    private Mazo mazo;                        // El mazo para repartir
-    private Stack<Movimiento> historial;      // Pila para el 'Undo' (deshacer)
+    private List<TableauDeck> vistaColumnas;         // Vistas de solo lectura para los getters
+    private List<CartaInglesa> vistaCeldas;
+    private List<FoundationDeck> vistaFundaciones;
+    private final int[] reparto = new int[CardCode.TOTAL]; // Orden del mazo al repartir (codigos)
+    private final Historial historial = new Historial(); // Jugadas hechas, para el 'Undo' (deshacer)
+    private final Historial rehacer = new Historial();   // Jugadas deshechas, para el 'Redo' (rehacer)
     private boolean juegoTerminado;
+    private long hash;                        // Hash de Zobrist de la posicion (ver 'ZobristHash')
+    private long numeroPartida = SIN_NUMERO;  // Numero del reparto (ver 'Mazo.barajarCodigos')
+
+    // Indice carta -> ubicacion (ver 'Ubicacion'), por codigo de carta.
+    // Se mantiene en cada movimiento y en el Undo, asi ubicar una carta es O(1).
+    private final int[] ubicaciones = new int[CardCode.TOTAL];
+
+    // Quien recibe los avisos de cambio (null si nadie escucha)
+    private ObservadorJuego observador;
+
+    // Cuantas cartas se pueden mover juntas (ver 'ModoPilas')
+    private ModoPilas modo = ModoPilas.ESTRICTO;
+    private int celdasVacias; // Se mantiene en cada movimiento (capacidad en O(1))
+
+    // Estado para 'verificarFinJuego' en O(1), al dia en cada movimiento.
+    // Los conjuntos de cartas son bits por codigo ('CardCode').
+    private int enFundaciones;                             // Cartas en las fundaciones
+    private int columnasVacias;
+    private final int[] cimasColumnas = new int[8];        // Carta de arriba de cada columna (o VACIO)
+    private final long[] buscadaPorFundacion = new long[4]; // Carta que acepta cada fundacion
+    private long buscadasPorColumnas;                      // Cartas que aceptan las columnas con cartas
+    private long movibles;                                 // Cartas en celdas y arriba de columnas
+
+    // Todos los Ases y todos los Reyes (los que aceptan fundaciones y columnas vacias)
+    private static final long ASES = 0x80_0400_2001L;
+    private static final long REYES = ASES << 12;
+
+    // Valor de 'numeroPartida' para juegos que no vienen de un reparto numerado.
+    public static final long SIN_NUMERO = Long.MIN_VALUE;
+
+    // Version de las reglas (reparto y movimientos). Se guarda en los archivos de
+    // partidas: si cambia algo que haga que una jugada guardada signifique otra cosa,
+    // hay que subirla.
+    // 2: las pilas se mueven segun 'ModoPilas' (antes, cualquier escalera).
+    public static final int VERSION_REGLAS = 2;
+
+    // De donde saca 'iniciarJuego()' el numero de partida (null = al azar).
+    // Ej: 'BaseDificultad.fuente(min, max)' para repartir solo partidas ganables.
+    private LongSupplier fuenteDeRepartos;
+
+    // La posicion como la lee 'GeneradorJugadas' (sobre los indices de arriba)
+    private final GeneradorJugadas.Tablero posicion = new Posicion();
+    private int[] jugadasPista; // Buffer de 'darPista' (se crea al usarlo)
+
+    // Buffer de 'trasladar' para las cartas que van de una pila a otra
+    private final CartaInglesa[] enTransito = new CartaInglesa[CardCode.TOTAL];
 
     /**
      * Constructor. Llama a iniciarJuego() para preparar el tablero.
@@ -29,55 +81,140 @@ public class EightOffGame {
         iniciarJuego();
     }
 
+    /**
+     * Constructor con fuente de repartos: este juego y sus 'iniciarJuego()'
+     * le piden el numero de partida a 'fuente' (ver 'setFuenteDeRepartos').
+     */
+    public EightOffGame(LongSupplier fuente) {
+        fuenteDeRepartos = fuente;
+        iniciarJuego();
+    }
+
     /**
      * Prepara un nuevo juego.
-     * Crea las listas, el mazo, y reparte las cartas.
+     * Elige un numero de partida al azar (en el rango clasico de FreeCell),
+     * asi cualquier partida se puede repetir con 'iniciarJuego(numero)'.
+     * Si el juego tiene fuente de repartos (ver 'setFuenteDeRepartos'), le pide el numero a ella.
      */
     public void iniciarJuego() {
-        mazo = new Mazo(); // Mazo se baraja solo al crearse
-        columnas = new ArrayList<>(8);
-        celdasLibres = new ArrayList<>(8); // 8 celdas
-        for (int i = 0; i < 8; i++) {
-            celdasLibres.add(null); // Llena con 8 espacios vacios
-        }
-        fundaciones = new ArrayList<>(4);
-        historial = new Stack<>();
-        juegoTerminado = false;
+        long numero = fuenteDeRepartos != null ? fuenteDeRepartos.getAsLong() : SIN_NUMERO;
+        if (numero == SIN_NUMERO) numero = ThreadLocalRandom.current().nextLong(1, Integer.MAX_VALUE + 1L);
+        iniciarJuego(numero);
+    }
 
-        // Crea 4 fundaciones (una por palo)
-        for (Palo p : Palo.values()) {
-            fundaciones.add(new FoundationDeck(p));
-        }
+    /**
+     * Cambia de donde saca este juego el numero de partida en los siguientes
+     * 'iniciarJuego()' (null = al azar). Si la fuente devuelve SIN_NUMERO, se reparte al azar.
+     * Solo afecta a este juego; cada juego tiene su propia fuente.
+     */
+    public void setFuenteDeRepartos(LongSupplier fuente) {
+        fuenteDeRepartos = fuente;
+    }
 
-        // Crea 8 columnas vacias
-        for (int i = 0; i < 8; i++) {
-            columnas.add(new TableauDeck());
-        }
+    /**
+     * Constructor con numero de partida: el mismo numero siempre produce el mismo reparto.
+     */
+    public EightOffGame(long numeroPartida) {
+        iniciarJuego(numeroPartida);
+    }
+
+    /**
+     * Prepara un nuevo juego con un reparto reproducible.
+     * Crea las listas y reparte las cartas (las 52 compartidas, no se crean cartas).
+     * @param numeroPartida El numero de partida (ver 'Mazo.barajarCodigos').
+     */
+    public void iniciarJuego(long numeroPartida) {
+        Mazo.barajarCodigos(numeroPartida, reparto); // El mismo orden que 'new Mazo(numeroPartida)'
+        repartir();
+        this.numeroPartida = numeroPartida;
+    }
+
+    /**
+     * Devuelve el numero de la partida, o SIN_NUMERO si el juego se armo
+     * desde una posicion ('PackedBoard').
+     */
+    public long getNumeroPartida() { return numeroPartida; }
+
+    /**
+     * Crea las listas y reparte las cartas en el orden de 'reparto'.
+     * En Eight Off todas quedan boca arriba (ver 'TableauDeck.estaBocaArriba').
+     */
+    private void repartir() {
+        prepararEstructuras();
 
         // Reparto de Cartas (Reglas Eight Off)
+        int siguiente = 0;
 
         // 48 cartas -> 8 columnas, 6 por columna
         for (int ronda = 0; ronda < 6; ronda++) {
             for (int col = 0; col < 8; col++) {
-                CartaInglesa c = mazo.sacarCarta();
-                if (c != null) makeUp(c); // Pone la carta boca arriba
-                columnas.get(col).agregarCartaForzada(c);
+                columnas.get(col).agregarCartaForzada(CartaInglesa.de(reparto[siguiente++]));
             }
         }
 
         // 4 cartas restantes -> primeras 4 celdas libres
         for (int i = 0; i < 4; i++) {
-            CartaInglesa c = mazo.sacarCarta();
-            if (c != null) makeUp(c);
-            celdasLibres.set(i, c);
+            celdasLibres.set(i, CartaInglesa.de(reparto[siguiente++]));
         }
+        recalcularIndices();
     }
 
     /**
-     * Metodo ayudante para poner una carta boca arriba (si existe el metodo).
+     * Constructor que reconstruye un juego a partir de una posicion empaquetada.
+     * El historial empieza vacio (la posicion empaquetada no lo guarda).
+     * @param tablero La posicion a cargar.
      */
-    private static void makeUp(CartaInglesa c) {
-        try { c.makeFaceUp(); } catch (Throwable ignored) { /* Ignora si no existe */ }
+    public EightOffGame(PackedBoard tablero) {
+        prepararEstructuras();
+
+        for (int i = 0; i < PackedBoard.NUM_CELDAS; i++) {
+            celdasLibres.set(i, CardCode.aCarta(tablero.celda(i)));
+        }
+
+        for (int i = 0; i < PackedBoard.NUM_FUNDACIONES; i++) {
+            int palo = tablero.paloFundacion(i);
+            FoundationDeck f = new FoundationDeck(Palo.values()[palo]);
+            for (int v = 0; v < tablero.alturaFundacion(i); v++) {
+                f.agregarCarta(CardCode.aCarta(palo * 13 + v));
+            }
+            fundaciones.set(i, f);
+        }
+
+        for (int col = 0; col < PackedBoard.NUM_COLUMNAS; col++) {
+            for (int k = 0; k < tablero.altura(col); k++) {
+                columnas.get(col).agregarCartaForzada(CardCode.aCarta(tablero.carta(col, k)));
+            }
+        }
+        recalcularIndices();
+    }
+
+    /**
+     * Crea las listas vacias del tablero (columnas, celdas, fundaciones e historial).
+     */
+    private void prepararEstructuras() {
+        columnas = new ArrayList<>(8);
+        celdasLibres = new ArrayList<>(8); // 8 celdas
+        for (int i = 0; i < 8; i++) {
+            celdasLibres.add(null); // Llena con 8 espacios vacios
+        }
+        fundaciones = new ArrayList<>(4);
+        historial.limpiar();
+        rehacer.limpiar();
+        juegoTerminado = false;
+
+        // Crea 4 fundaciones (una por palo)
+        for (Palo p : Palo.values()) {
+            fundaciones.add(new FoundationDeck(p));
+        }
+
+        // Crea 8 columnas vacias
+        for (int i = 0; i < 8; i++) {
+            columnas.add(new TableauDeck());
+        }
+
+        vistaColumnas = Collections.unmodifiableList(columnas);
+        vistaCeldas = Collections.unmodifiableList(celdasLibres);
+        vistaFundaciones = Collections.unmodifiableList(fundaciones);
     }
 
     /**
@@ -85,17 +222,17 @@ public class EightOffGame {
      * @return true si el movimiento fue exitoso.
      */
     public boolean moverAFundacion(CartaInglesa carta) {
-        TableauDeck origen = buscarColumnaDe(carta); // Busca en columnas
+        int origen = buscarColumnaDe(carta); // Busca en columnas (solo la carta de arriba)
 
-        if (origen == null) {
+        if (origen < 0) {
             // Origen es una CELDA LIBRE
-            int idx = celdasLibres.indexOf(carta);
+            int idx = buscarCeldaDe(carta);
             if (idx >= 0) { // Si la encontro
-                for (FoundationDeck f : fundaciones) {
-                    if (f.puedeRecibir(carta)) { // Comprueba regla de fundacion
-                        f.agregarCarta(carta);
-                        celdasLibres.set(idx, null); // Vacia la celda origen
-                        historial.push(new Movimiento(carta, idx, "fundacion", f.getPalo().ordinal())); // Guarda undo
+                for (int f = 0; f < fundaciones.size(); f++) {
+                    if (fundaciones.get(f).puedeRecibir(carta)) { // Comprueba regla de fundacion
+                        quitarDeCelda(idx); // Vacia la celda origen
+                        ponerEnFundacion(f, carta);
+                        registrar(Jugada.crear(Jugada.CELDA, idx, Jugada.FUNDACION, f, 1, carta.getCodigo())); // Guarda undo
                         return true;
                     }
                 }
@@ -105,11 +242,11 @@ public class EightOffGame {
         }
 
         // Origen es una COLUMNA
-        for (FoundationDeck f : fundaciones) {
-            if (f.puedeRecibir(carta)) { // Comprueba regla
-                f.agregarCarta(carta);
-                origen.eliminarUltimaCarta(); // Quita de columna origen
-                historial.push(new Movimiento(carta, origen, "fundacion", f.getPalo().ordinal())); // Guarda undo
+        for (int f = 0; f < fundaciones.size(); f++) {
+            if (fundaciones.get(f).puedeRecibir(carta)) { // Comprueba regla
+                quitarDeColumna(origen); // Quita de columna origen
+                ponerEnFundacion(f, carta);
+                registrar(Jugada.crear(Jugada.COLUMNA, origen, Jugada.FUNDACION, f, 1, carta.getCodigo())); // Guarda undo
                 return true;
             }
         }
@@ -131,24 +268,24 @@ public class EightOffGame {
         }
         if (celdaIndex >= celdasLibres.size()) return false; // Indice fuera de rango
 
-        TableauDeck origen = buscarColumnaDe(carta);
+        int origen = buscarColumnaDe(carta);
 
-        if (origen != null) {
+        if (origen >= 0) {
             // Origen es COLUMNA
             if (celdasLibres.get(celdaIndex) != null) return false; // Celda destino no esta vacia
-            celdasLibres.set(celdaIndex, carta);
-            origen.eliminarUltimaCarta();
-            historial.push(new Movimiento(carta, origen, "celda", celdaIndex));
+            quitarDeColumna(origen);
+            ponerEnCelda(celdaIndex, carta);
+            registrar(Jugada.crear(Jugada.COLUMNA, origen, Jugada.CELDA, celdaIndex, 1, carta.getCodigo()));
             return true;
         }
 
         // Origen es CELDA (moviendo de celda a celda)
-        int idx = celdasLibres.indexOf(carta);
+        int idx = buscarCeldaDe(carta);
         if (idx >= 0){
             if (celdasLibres.get(celdaIndex) == null){ // Destino debe estar vacio
-                celdasLibres.set(celdaIndex, carta);
-                celdasLibres.set(idx, null); // Vacia celda origen
-                historial.push(new Movimiento(carta, idx, "celda", celdaIndex));
+                quitarDeCelda(idx); // Vacia celda origen
+                ponerEnCelda(celdaIndex, carta);
+                registrar(Jugada.crear(Jugada.CELDA, idx, Jugada.CELDA, celdaIndex, 1, carta.getCodigo()));
                 return true;
             }
             return false;
@@ -165,252 +302,336 @@ public class EightOffGame {
         TableauDeck destino = columnas.get(destIndex);
         if (!destino.puedeRecibir(carta)) return false; // Comprueba regla de columna
 
-        TableauDeck origen = buscarColumnaDe(carta);
-        if (origen != null) {
+        int origen = buscarColumnaDe(carta);
+        if (origen >= 0) {
             // Origen es COLUMNA
-            destino.agregarCartaForzada(carta);
-            origen.eliminarUltimaCarta();
-            historial.push(new Movimiento(carta, origen, "columna", destIndex));
+            quitarDeColumna(origen);
+            ponerEnColumna(destIndex, carta);
+            registrar(Jugada.crear(Jugada.COLUMNA, origen, Jugada.COLUMNA, destIndex, 1, carta.getCodigo()));
             return true;
         }
-        int idx = celdasLibres.indexOf(carta);
+        int idx = buscarCeldaDe(carta);
         if (idx >= 0) {
             // Origen es CELDA
-            destino.agregarCartaForzada(carta);
-            celdasLibres.set(idx, null);
-            historial.push(new Movimiento(carta, idx, "columna", destIndex));
+            quitarDeCelda(idx);
+            ponerEnColumna(destIndex, carta);
+            registrar(Jugada.crear(Jugada.CELDA, idx, Jugada.COLUMNA, destIndex, 1, carta.getCodigo()));
             return true;
         }
         return false;
     }
 
     /**
-     * Logica de pista simple. Devuelve la *primera* carta que encuentre
-     * que se pueda mover a *algun* lado.
+     * Logica de pista simple. Elige entre las jugadas de 'generarJugadas', en este orden:
+     * 1. Celda -> fundacion, luego columna -> fundacion.
+     * 2. Celda -> columna.
+     * 3. Columna -> columna (de la primera columna que pueda, la pila mas larga).
+     * 4. Columna -> celda libre, solo si destapa una carta que tiene a donde ir.
+     * @return La pista (ver 'Jugada.texto'), o null si no hay nada de eso.
      */
     public String darPista() {
-        //  Revisar celdas libres -> fundacion
-        for (int i = 0; i < celdasLibres.size(); i++) {
-            CartaInglesa c = celdasLibres.get(i);
-            if (c == null) continue;
-            for (FoundationDeck f : fundaciones) {
-                if (f.puedeRecibir(c)) {
-                    return "Mueve el " + c.getValor() + " de " + c.getPalo() + " (Celda) a la fundacion.";
-                }
-            }
+        if (jugadasPista == null) jugadasPista = new int[Jugada.MAX_JUGADAS]; // Se crea al usarlo
+        int[] jugadas = jugadasPista;
+        int n = generarJugadas(jugadas);
+
+        //  1. A la fundacion (el generador pone las celdas antes que las columnas)
+        for (int i = 0; i < n; i++) {
+            if (Jugada.tipoDestino(jugadas[i]) == Jugada.FUNDACION) return Jugada.texto(jugadas[i]);
         }
 
-        //  Revisar columnas -> fundacion
-        for (int i = 0; i < columnas.size(); i++) {
-            CartaInglesa c = columnas.get(i).getUltimaCarta();
-            if (c == null) continue;
-            for (FoundationDeck f : fundaciones) {
-                if (f.puedeRecibir(c)) {
-                    return "Mueve el " + c.getValor() + " de " + c.getPalo() + " (Columna " + (i + 1) + ") a la fundacion.";
-                }
+        //  2. Celda -> columna
+        for (int i = 0; i < n; i++) {
+            if (Jugada.tipoOrigen(jugadas[i]) == Jugada.CELDA && Jugada.tipoDestino(jugadas[i]) == Jugada.COLUMNA) {
+                return Jugada.texto(jugadas[i]);
             }
         }
 
-        //  Revisar celdas libres -> columna
-        for (int i = 0; i < celdasLibres.size(); i++) {
-            CartaInglesa c = celdasLibres.get(i);
-            if (c == null) continue;
-            for (int j = 0; j < columnas.size(); j++) {
-                if (columnas.get(j).puedeRecibir(c)) {
-                    return "Mueve el " + c.getValor() + " de " + c.getPalo() + " (Celda) a la Columna " + (j + 1) + ".";
-                }
-            }
+        //  3. Columna -> columna: vienen por columna origen; de la primera, la pila mas larga
+        int mejor = Jugada.NINGUNA;
+        for (int i = 0; i < n; i++) {
+            int j = jugadas[i];
+            if (Jugada.tipoOrigen(j) != Jugada.COLUMNA || Jugada.tipoDestino(j) != Jugada.COLUMNA) continue;
+            if (mejor != Jugada.NINGUNA && Jugada.origen(j) != Jugada.origen(mejor)) break;
+            if (mejor == Jugada.NINGUNA || Jugada.numCartas(j) > Jugada.numCartas(mejor)) mejor = j;
         }
+        if (mejor != Jugada.NINGUNA) return Jugada.texto(mejor);
 
-        //  Revisar columnas -> columna (movimiento de pila)
-        for (int i = 0; i < columnas.size(); i++) {
-            TableauDeck colOrigen = columnas.get(i);
-            if (colOrigen.getCartas().isEmpty()) continue;
-
-            // --- Logica de deteccion de pila (copiada del BoardController) ---
-            int stackStartIndex = colOrigen.getCartas().size() - 1;
-            if (stackStartIndex >= 0) {
-                for (int k = colOrigen.getCartas().size() - 2; k >= 0; k--) {
-                    CartaInglesa top = colOrigen.getCartas().get(k + 1);
-                    CartaInglesa bottom = colOrigen.getCartas().get(k);
-                    if (bottom.getPalo() == top.getPalo() && bottom.getValor() == top.getValor() + 1) {
-                        stackStartIndex = k;
-                    } else {
-                        break;
-                    }
-                }
+        //  4. Columna -> celda libre, si la carta de abajo tiene jugada (fundacion u otra columna)
+        for (int i = 0; i < n; i++) {
+            int j = jugadas[i];
+            if (Jugada.tipoDestino(j) != Jugada.CELDA) continue;
+            int col = Jugada.origen(j);
+            List<CartaInglesa> cartas = columnas.get(col).getCartas();
+            if (cartas.size() < 2) continue;
+            int abajo = cartas.get(cartas.size() - 2).getCodigo();
+            if (tieneJugada(abajo, col)) {
+                String texto = Jugada.texto(j);
+                return texto.substring(0, texto.length() - 1) + " (para desbloquear el " + CardCode.valor(abajo) + ").";
             }
+        }
 
-            for (int k = stackStartIndex; k < colOrigen.getCartas().size(); k++) {
-                List<CartaInglesa> pila = new ArrayList<>(colOrigen.getCartas().subList(k, colOrigen.getCartas().size()));
-                CartaInglesa cartaDeAbajo = pila.get(0);
-                // Buscar un destino
-                for (int j = 0; j < columnas.size(); j++) {
-                    if (i == j) continue; // Misma columna
-                    TableauDeck colDestino = columnas.get(j);
-                    if (colDestino.puedeRecibir(cartaDeAbajo)) {
-                        String pilaStr = (pila.size() > 1) ? " la pila (" + cartaDeAbajo.getValor() + "...)" : " el " + cartaDeAbajo.getValor() + " de " + cartaDeAbajo.getPalo();
-                        return "Mueve" + pilaStr + " (Columna " + (i + 1) + ") a la Columna " + (j + 1) + ".";
-                    }
-                }
-            }
+        return null; // No hay movimientos
+    }
+
+    /**
+     * Metodo ayudante de 'darPista': true si la carta puede ir a una fundacion
+     * o a una columna distinta de 'col'.
+     */
+    private boolean tieneJugada(int codigo, int col) {
+        if (posicion.fundacionPara(codigo) >= 0) return true;
+        for (int j = 0; j < 8; j++) {
+            if (j != col && CardCode.puedeIrEnColumna(codigo, cimasColumnas[j])) return true;
         }
+        return false;
+    }
 
-        if (getCeldasLibresVacias() > 0) {
-            for (int i = 0; i < columnas.size(); i++) {
-                TableauDeck col = columnas.get(i);
+    /**
+     * Generador de movimientos: escribe TODAS las jugadas legales de la posicion
+     * en 'buffer', empaquetadas como int (ver 'Jugada'), sin crear objetos.
+     * Mueve pilas de hasta 'getCapacidadPilas()' cartas. El orden es el de
+     * 'GeneradorJugadas' (el mismo que 'PackedBoard.generarJugadas').
+     *
+     * @param buffer Arreglo de al menos 'Jugada.MAX_JUGADAS' elementos.
+     * @return Cuantas jugadas se escribieron.
+     */
+    public int generarJugadas(int[] buffer) {
+        return GeneradorJugadas.generar(posicion, getCapacidadPilas(), buffer);
+    }
 
-                if (col.getCartas().size() < 2) continue;
+    /**
+     * Cuantas cartas de arriba de la columna forman una escalera
+     * (mismo palo, descendente). Igual que 'PackedBoard.largoEscalera'.
+     */
+    private int largoEscalera(int col) {
+        List<CartaInglesa> cartas = columnas.get(col).getCartas();
+        int h = cartas.size();
+        if (h == 0) return 0;
+        int largo = 1;
+        for (int k = h - 2; k >= 0; k--) {
+            if (!CardCode.puedeIrEnColumna(cartas.get(k + 1).getCodigo(), cartas.get(k).getCodigo())) break;
+            largo++;
+        }
+        return largo;
+    }
 
-                CartaInglesa cartaDeArriba = col.getUltimaCarta();
-                CartaInglesa cartaDeAbajo = col.getCartas().get(col.getCartas().size() - 2);
-                // Comprueba si 'cartaDeAbajo' tiene un movimiento que ayude
-                boolean movDesbloqueado = false;
+    /**
+     * La posicion para 'GeneradorJugadas': las cimas y las fundaciones salen de los
+     * indices que se mantienen en cada movimiento (ver 'verificarFinJuego').
+     */
+    private final class Posicion implements GeneradorJugadas.Tablero {
+        @Override
+        public int celda(int i) { return CardCode.de(celdasLibres.get(i)); }
 
-                // A Fundacion
-                for (FoundationDeck f : fundaciones) {
-                    if (f.puedeRecibir(cartaDeAbajo)) {
-                        movDesbloqueado = true;
-                        break;
-                    }
-                }
+        @Override
+        public int cima(int col) { return cimasColumnas[col]; }
 
-                // A Columna
-                if (!movDesbloqueado) {
-                    for (int j = 0; j < columnas.size(); j++) {
-                        if (i == j) continue;
-                        if (columnas.get(j).puedeRecibir(cartaDeAbajo)) {
-                            movDesbloqueado = true;
-                            break;
-                        }
-                    }
-                }
+        @Override
+        public int largoEscalera(int col) { return EightOffGame.this.largoEscalera(col); }
 
-                // Si mover la carta de arriba desbloquea algo, es una buena pista
-                if (movDesbloqueado) {
-                    return "Mueve el " + cartaDeArriba.getValor() + " de " + cartaDeArriba.getPalo() + " (Columna " + (i + 1) + ") a una celda libre (para desbloquear el " + cartaDeAbajo.getValor() + ").";
-                }
+        @Override
+        public int fundacionPara(int codigo) {
+            for (int f = 0; f < 4; f++) {
+                if ((buscadaPorFundacion[f] & (1L << codigo)) != 0) return f;
             }
+            return -1;
         }
-
-        return null; // No hay movimientos
     }
 
     /**
-     * Metodo ayudante de 'darPista'. Comprueba si una carta
-     * tiene algun destino legal.
+     * Metodo ayudante. Encuentra la columna donde la carta es la de arriba
+     * (la unica que se puede mover sola), usando el indice de ubicaciones.
+     * @return El indice de la columna o -1 si no esta arriba de ninguna.
      */
-    private boolean hayLugarPara(CartaInglesa carta) {
-        //  A fundacion
-        for (FoundationDeck f : fundaciones) {
-            if (f.puedeRecibir(carta)) return true;
-        }
-        //  A columna
-        for (TableauDeck t : columnas) {
-            if (t.puedeRecibir(carta)) return true;
-        }
-        //  A celda libre
-        for (CartaInglesa c : celdasLibres) {
-            if (c == null) return true; // Hay un slot vacio
-        }
-        return false;
+    private int buscarColumnaDe(CartaInglesa carta) {
+        if (carta == null) return -1;
+        int u = ubicaciones[carta.getCodigo()];
+        if (u == Ubicacion.NINGUNA || Ubicacion.tipo(u) != Jugada.COLUMNA) return -1;
+        int col = Ubicacion.indice(u);
+        if (Ubicacion.profundidad(u) != columnas.get(col).getCartas().size() - 1) return -1;
+        return col;
     }
 
     /**
-     * Metodo ayudante. Encuentra en que columna esta una carta.
-     * @return El TableauDeck o null si no esta en ninguna.
+     * Metodo ayudante. Encuentra en que celda libre esta una carta.
+     * @return El indice de la celda o -1 si no esta en ninguna.
      */
-    private TableauDeck buscarColumnaDe(CartaInglesa carta) {
-        for (TableauDeck t : columnas) {
-            if (t.contieneCarta(carta)) return t;
-        }
-        return null;
+    private int buscarCeldaDe(CartaInglesa carta) {
+        if (carta == null) return -1;
+        int u = ubicaciones[carta.getCodigo()];
+        if (u == Ubicacion.NINGUNA || Ubicacion.tipo(u) != Jugada.CELDA) return -1;
+        return Ubicacion.indice(u);
     }
 
     /**
-     * Revierte el ultimo movimiento guardado en la pila 'historial'.
+     * Devuelve la ubicacion empaquetada (ver 'Ubicacion') de una carta, o
+     * Ubicacion.NINGUNA si no esta en el tablero.
+     * @param codigo El codigo de la carta (ver 'CardCode').
+     */
+    public int getUbicacion(int codigo) { return ubicaciones[codigo]; }
+
+    /**
+     * Revierte el ultimo movimiento guardado en la pila 'historial'
+     * y lo pasa a la pila 'rehacer'. Las jugadas encadenadas (ver 'autoJugar')
+     * se deshacen junto con la anterior, como un solo paso.
      */
     public void deshacerMovimiento() {
-        if (historial.isEmpty()) return; // No hay nada que deshacer
-        Movimiento mov = historial.pop(); // Saca el ultimo movimiento
+        if (historial.estaVacio()) return; // No hay nada que deshacer
+        boolean lote = Jugada.esEncadenada(historial.ultima());
+        if (lote) avisarLote(true);
+        int jugada;
+        do {
+            jugada = historial.sacar(); // Saca el ultimo movimiento
 
-        List<CartaInglesa> pilaARegresar = new ArrayList<>();
+            // Mueve la(s) carta(s) del DESTINO de vuelta al ORIGEN
+            trasladar(Jugada.tipoDestino(jugada), Jugada.destino(jugada),
+                    Jugada.tipoOrigen(jugada), Jugada.origen(jugada), Jugada.numCartas(jugada));
+            rehacer.agregar(jugada);
+        } while (Jugada.esEncadenada(jugada) && !historial.estaVacio());
+        if (lote) avisarLote(false);
+    }
 
-        //  Quitar la(s) carta(s) del DESTINO
-        switch (mov.destino) {
-            case "celda" -> {
-                pilaARegresar.add(celdasLibres.get(mov.indiceDestino));
-                celdasLibres.set(mov.indiceDestino, null);
-            }
-            case "fundacion" -> {
-                pilaARegresar.add(fundaciones.get(mov.indiceDestino).eliminarUltimaCarta());
-            }
-            case "columna" -> {
-                TableauDeck destino = columnas.get(mov.indiceDestino);
-                // Quita 'numCartas' (usualmente 1, o mas si fue una pila)
-                for (int i = 0; i < mov.numCartas; i++) {
-                    pilaARegresar.add(0, destino.eliminarUltimaCarta()); // add(0,...) mantiene el orden
-                }
-            }
+    /**
+     * Vuelve a hacer el ultimo movimiento deshecho (con sus jugadas encadenadas).
+     * Cualquier movimiento nuevo vacia la pila 'rehacer'.
+     * @return true si habia algo que rehacer.
+     */
+    public boolean rehacerMovimiento() {
+        if (rehacer.estaVacio()) return false;
+        boolean lote = rehacer.tamano() > 1 && Jugada.esEncadenada(rehacer.get(rehacer.tamano() - 2));
+        if (lote) avisarLote(true);
+        do {
+            int jugada = rehacer.sacar();
+            trasladar(Jugada.tipoOrigen(jugada), Jugada.origen(jugada),
+                    Jugada.tipoDestino(jugada), Jugada.destino(jugada), Jugada.numCartas(jugada));
+            historial.agregar(jugada);
+        } while (!rehacer.estaVacio() && Jugada.esEncadenada(rehacer.ultima()));
+        if (lote) avisarLote(false);
+        return true;
+    }
+
+    /**
+     * Manda a las fundaciones, una tras otra, todas las cartas que se puedan
+     * (son jugadas seguras, ver 'PackedBoard.jugadaSegura'). Todo el lote cuenta
+     * como UN paso de Undo/Redo, y el observador lo recibe entre 'loteIniciado'
+     * y 'loteTerminado'.
+     * @param conLaAnterior true para que el lote se deshaga junto con la ultima
+     *                      jugada del historial (la que lo provoco).
+     * @return Cuantas cartas se movieron.
+     */
+    public int autoJugar(boolean conLaAnterior) {
+        int jugada = buscarJugadaSegura();
+        if (jugada == Jugada.NINGUNA) return 0;
+
+        avisarLote(true);
+        boolean encadenar = conLaAnterior && !historial.estaVacio();
+        int n = 0;
+        for (; jugada != Jugada.NINGUNA; jugada = buscarJugadaSegura(), n++) {
+            trasladar(Jugada.tipoOrigen(jugada), Jugada.origen(jugada), Jugada.FUNDACION, Jugada.destino(jugada), 1);
+            registrar(encadenar || n > 0 ? jugada | Jugada.ENCADENADA : jugada);
         }
+        avisarLote(false);
+        return n;
+    }
 
-        // PASO 2: Devolver la(s) carta(s) al ORIGEN
-        if (mov.origen != null) {
-            // El origen era una COLUMNA
-            for (CartaInglesa c : pilaARegresar) {
-                mov.origen.agregarCartaForzada(c);
-            }
-        } else if (mov.indiceOrigenCelda != -1) {
-            // El origen era una CELDA LIBRE
-            celdasLibres.set(mov.indiceOrigenCelda, pilaARegresar.get(0));
+    /**
+     * Busca una jugada a fundacion desde las celdas o las columnas, en el mismo
+     * orden que 'PackedBoard.jugadaSegura'.
+     * @return La jugada, o Jugada.NINGUNA si no hay.
+     */
+    private int buscarJugadaSegura() {
+        for (int i = 0; i < celdasLibres.size(); i++) {
+            int f = fundacionPara(celdasLibres.get(i));
+            if (f >= 0) return Jugada.crear(Jugada.CELDA, i, Jugada.FUNDACION, f, 1, celdasLibres.get(i).getCodigo());
+        }
+        for (int col = 0; col < columnas.size(); col++) {
+            CartaInglesa c = columnas.get(col).getUltimaCarta();
+            int f = fundacionPara(c);
+            if (f >= 0) return Jugada.crear(Jugada.COLUMNA, col, Jugada.FUNDACION, f, 1, c.getCodigo());
+        }
+        return Jugada.NINGUNA;
+    }
+
+    /** Primera fundacion que acepta la carta, o -1 (tambien si la carta es null). */
+    private int fundacionPara(CartaInglesa c) {
+        if (c == null) return -1;
+        for (int f = 0; f < fundaciones.size(); f++) {
+            if (fundaciones.get(f).puedeRecibir(c)) return f;
         }
+        return -1;
     }
 
+    public boolean puedeDeshacer() { return !historial.estaVacio(); }
+
+    public boolean puedeRehacer() { return !rehacer.estaVacio(); }
+
+    /**
+     * Devuelve las jugadas hechas desde el reparto (ver 'Jugada'),
+     * de la primera a la ultima. Es una copia.
+     */
+    public int[] getJugadasHechas() { return historial.aArreglo(); }
+
+    /** Cuantas jugadas hay en el historial, sin copiarlo. */
+    public int getNumJugadasHechas() { return historial.tamano(); }
+
+    /** La jugada 'i' del historial (0 = la primera), sin copiarlo. */
+    public int getJugadaHecha(int i) { return historial.get(i); }
+
+    /** Cuantas jugadas se pueden rehacer. */
+    public int getNumJugadasDeshechas() { return rehacer.tamano(); }
+
     /**
-     * Comprueba si el juego termino (victoria o bloqueo).
+     * La jugada 'i' de la pila de Redo: la ultima (i = getNumJugadasDeshechas() - 1)
+     * es la proxima que se rehace.
+     */
+    public int getJugadaDeshecha(int i) { return rehacer.get(i); }
+
+    /**
+     * Guarda una jugada nueva en el historial. Una jugada nueva invalida el Redo.
+     */
+    private void registrar(int jugada) {
+        historial.agregar(jugada);
+        rehacer.limpiar();
+    }
+
+    /**
+     * Comprueba si el juego termino (victoria o bloqueo), en O(1): usa los
+     * contadores y conjuntos de cartas que se actualizan en cada movimiento.
      * @return Un String con el mensaje de fin, o null si el juego sigue.
      */
     public String verificarFinJuego() {
         // 1. Comprobar Victoria (todas las fundaciones llenas)
-        boolean todasCompletas = fundaciones.stream().allMatch(FoundationDeck::estaCompleta);
-        if (todasCompletas) {
+        if (enFundaciones == CardCode.TOTAL) {
             juegoTerminado = true;
             return "Felicidades, ganaste!";
         }
 
-        // 2. Comprobar Bloqueo (revisando movimientos desde columnas)
-        for (TableauDeck col : columnas) {
-            CartaInglesa top = col.getUltimaCarta();
-            if (top != null && hayLugarPara(top)) {
-                return null; // Hay movimiento, el juego sigue
-            }
-        }
+        // 2. Comprobar Bloqueo: alguna carta de una celda o de arriba de una columna
+        //    tiene a donde ir (una celda vacia le sirve a cualquiera)
+        if (hayMovimientos()) return null; // Hay movimiento, el juego sigue
 
-        // 3. Comprobar Bloqueo (revisando movimientos desde celdas libres)
-        for (CartaInglesa c : celdasLibres) {
-            if (c != null && hayLugarPara(c)) {
-                return null; // Hay movimiento, el juego sigue
-            }
-        }
-
-        // 4. Si no hay victoria ni movimientos -> Bloqueo
+        // 3. Si no hay victoria ni movimientos -> Bloqueo
         juegoTerminado = true;
         return "No hay mas movimientos posibles. Fin del juego.";
     }
 
     /**
-     * Metodo ayudante. Cuenta cuantas celdas libres estan vacias.
+     * True si alguna carta de una celda o de arriba de una columna tiene
+     * un destino (fundacion, columna o celda vacia).
      */
-    private int getCeldasLibresVacias(){
-        int count = 0;
-        for (CartaInglesa c : celdasLibres) {
-            if (c == null) count++;
-        }
-        return count;
+    private boolean hayMovimientos() {
+        if (celdasVacias > 0) return movibles != 0;
+        long buscadas = buscadasPorColumnas | (columnasVacias > 0 ? REYES : 0)
+                | buscadaPorFundacion[0] | buscadaPorFundacion[1] | buscadaPorFundacion[2] | buscadaPorFundacion[3];
+        return (buscadas & movibles) != 0;
     }
 
+    /** Cartas que ya estan en las fundaciones (52 = victoria), en O(1). */
+    public int getCartasEnFundaciones() { return enFundaciones; }
+
     /**
      * Intenta mover una PILA de cartas (desde una columna) a otra columna.
+     * La pila tiene que ser las cartas de arriba de 'origen', en orden, y formar
+     * una escalera (mismo palo, descendente).
      * @return true si el movimiento fue exitoso.
      */
     public boolean moverPilaAColumna(List<CartaInglesa> pila, TableauDeck origen, int destIndex) {
@@ -426,62 +647,424 @@ public class EightOffGame {
         }
 
         int k = pila.size();
+        if (k > getCapacidadPilas()) return false; // No hay celdas vacias suficientes
+        int origenIndex = columnas.indexOf(origen);
+        if (origenIndex < 0) return false; // No es una columna de este juego
+
+        //  La pila tiene que ser la escalera de arriba del origen
+        if (k > largoEscalera(origenIndex)) return false; // No es una escalera
+        List<CartaInglesa> cartas = origen.getCartas();
+        for (int i = 0; i < k; i++) {
+            if (cartas.get(cartas.size() - k + i) != pila.get(i)) return false; // No son las de arriba
+        }
 
         //  Quitar 'k' cartas de la columna origen
         for (int i = 0; i < k; i++) {
-            origen.eliminarUltimaCarta();
+            quitarDeColumna(origenIndex);
         }
 
         //  Anadir la pila (carta por carta) al destino
         for (CartaInglesa c : pila) {
-            destino.agregarCartaForzada(c);
+            ponerEnColumna(destIndex, c);
         }
 
         //  Guardar UN movimiento en el historial (con 'k' numero de cartas)
-        historial.push(new Movimiento(cartaDeAbajoPila, origen, "columna", destIndex, k));
+        registrar(Jugada.crear(Jugada.COLUMNA, origenIndex, Jugada.COLUMNA, destIndex, k, cartaDeAbajoPila.getCodigo()));
 
         return true; // Movimiento exitoso
     }
 
     /**
-     * Objeto de datos que guarda toda la informacion de un solo movimiento
-     * para poder revertirlo (Undo).
+     * Ejecuta una jugada empaquetada (ver 'Jugada') usando los metodos mover*,
+     * asi queda en el historial igual que si la hiciera el jugador
+     * (conservando la marca ENCADENADA).
+     * La jugada puede venir de afuera (un archivo, un cliente): si no es legal
+     * en esta posicion devuelve false sin tocar nada.
+     * @return true si el movimiento fue exitoso.
+     */
+    public boolean aplicarJugada(int jugada) {
+        int origen = Jugada.origen(jugada);
+        int destino = Jugada.destino(jugada);
+        int num = Jugada.numCartas(jugada);
+        int tipoOrigen = Jugada.tipoOrigen(jugada);
+        int tipoDestino = Jugada.tipoDestino(jugada);
+
+        // Solo se mueven pilas de columna a columna; de la fundacion no sale nada
+        if (num == 0) return false;
+        if (tipoOrigen != Jugada.COLUMNA && tipoOrigen != Jugada.CELDA) return false;
+        if (tipoDestino != Jugada.COLUMNA && tipoDestino != Jugada.CELDA && tipoDestino != Jugada.FUNDACION) return false;
+        if (num > 1 && (tipoOrigen != Jugada.COLUMNA || tipoDestino != Jugada.COLUMNA)) return false;
+
+        // Busca la carta de abajo de lo que se mueve
+        CartaInglesa carta;
+        TableauDeck colOrigen = null;
+        if (tipoOrigen == Jugada.CELDA) {
+            carta = celdasLibres.get(origen);
+        } else {
+            colOrigen = columnas.get(origen);
+            List<CartaInglesa> cartas = colOrigen.getCartas();
+            if (cartas.size() < num) return false;
+            carta = cartas.get(cartas.size() - num);
+        }
+        // La carta tiene que ser la que dice la jugada (asi una jugada guardada
+        // no se aplica por error sobre otra posicion)
+        if (carta == null || carta.getCodigo() != Jugada.carta(jugada)) return false;
+
+        boolean hecho;
+        switch (tipoDestino) {
+            case Jugada.FUNDACION:
+                hecho = moverAFundacion(carta);
+                break;
+            case Jugada.CELDA:
+                hecho = moverACelda(carta, destino);
+                break;
+            default:
+                if (num == 1) {
+                    hecho = moverAColumna(carta, destino);
+                } else {
+                    List<CartaInglesa> cartas = colOrigen.getCartas();
+                    List<CartaInglesa> pila = new ArrayList<>(cartas.subList(cartas.size() - num, cartas.size()));
+                    hecho = moverPilaAColumna(pila, colOrigen, destino);
+                }
+                break;
+        }
+        // Una jugada encadenada (ej: de un archivo) sigue siendo parte del paso anterior
+        if (hecho && Jugada.esEncadenada(jugada) && historial.tamano() > 1) {
+            historial.agregar(historial.sacar() | Jugada.ENCADENADA);
+        }
+        return hecho;
+    }
+
+    // --- Cambios basicos del tablero ---
+    // Todos los movimientos (y el Undo) pasan por aqui, asi el hash y el
+    // indice de ubicaciones quedan al dia.
+
+    private void ponerEnColumna(int col, CartaInglesa c) {
+        TableauDeck t = columnas.get(col);
+        int prof = t.getCartas().size();
+        hash ^= ZobristHash.columna(col, prof, c.getCodigo());
+        ubicaciones[c.getCodigo()] = Ubicacion.crear(Jugada.COLUMNA, col, prof);
+        t.agregarCartaForzada(c);
+        cambiarCima(col, c.getCodigo());
+        avisar(c);
+    }
+
+    private CartaInglesa quitarDeColumna(int col) {
+        TableauDeck t = columnas.get(col);
+        CartaInglesa c = t.eliminarUltimaCarta();
+        if (c != null) {
+            hash ^= ZobristHash.columna(col, t.getCartas().size(), c.getCodigo());
+            ubicaciones[c.getCodigo()] = Ubicacion.NINGUNA;
+            cambiarCima(col, CardCode.de(t.getUltimaCarta()));
+        }
+        return c;
+    }
+
+    private void ponerEnCelda(int i, CartaInglesa c) {
+        hash ^= ZobristHash.celda(c.getCodigo());
+        celdasVacias--;
+        movibles |= 1L << c.getCodigo();
+        ubicaciones[c.getCodigo()] = Ubicacion.crear(Jugada.CELDA, i, 0);
+        celdasLibres.set(i, c);
+        avisar(c);
+    }
+
+    private CartaInglesa quitarDeCelda(int i) {
+        CartaInglesa c = celdasLibres.set(i, null);
+        if (c != null) {
+            hash ^= ZobristHash.celda(c.getCodigo());
+            celdasVacias++;
+            movibles &= ~(1L << c.getCodigo());
+            ubicaciones[c.getCodigo()] = Ubicacion.NINGUNA;
+        }
+        return c;
+    }
+
+    private void ponerEnFundacion(int i, CartaInglesa c) {
+        FoundationDeck f = fundaciones.get(i);
+        hash ^= ZobristHash.fundacion(c.getCodigo());
+        ubicaciones[c.getCodigo()] = Ubicacion.crear(Jugada.FUNDACION, i, f.getCartas().size());
+        f.agregarCarta(c);
+        enFundaciones++;
+        actualizarFundacion(i);
+        avisar(c);
+    }
+
+    private CartaInglesa quitarDeFundacion(int i) {
+        CartaInglesa c = fundaciones.get(i).eliminarUltimaCarta();
+        if (c != null) {
+            hash ^= ZobristHash.fundacion(c.getCodigo());
+            ubicaciones[c.getCodigo()] = Ubicacion.NINGUNA;
+            enFundaciones--;
+            actualizarFundacion(i);
+        }
+        return c;
+    }
+
+    /**
+     * Mueve 'num' cartas de una pila a otra sin revisar reglas, conservando su orden
+     * (lo usan el Undo y el Redo, que solo repiten jugadas que ya fueron legales).
+     */
+    private void trasladar(int tipoOrigen, int origen, int tipoDestino, int destino, int num) {
+        for (int k = 0; k < num; k++) enTransito[k] = quitarDe(tipoOrigen, origen);
+        for (int k = num - 1; k >= 0; k--) {
+            ponerEn(tipoDestino, destino, enTransito[k]);
+            enTransito[k] = null;
+        }
+    }
+
+    private CartaInglesa quitarDe(int tipo, int i) {
+        switch (tipo) {
+            case Jugada.CELDA: return quitarDeCelda(i);
+            case Jugada.FUNDACION: return quitarDeFundacion(i);
+            default: return quitarDeColumna(i);
+        }
+    }
+
+    private void ponerEn(int tipo, int i, CartaInglesa c) {
+        switch (tipo) {
+            case Jugada.CELDA: ponerEnCelda(i, c); break;
+            case Jugada.FUNDACION: ponerEnFundacion(i, c); break;
+            default: ponerEnColumna(i, c); break;
+        }
+    }
+
+    /**
+     * Cambia la carta de arriba de una columna en los conjuntos de 'hayMovimientos':
+     * la de arriba se puede mover, y la columna acepta la carta anterior de su palo.
+     */
+    private void cambiarCima(int col, int nueva) {
+        int vieja = cimasColumnas[col];
+        if (vieja == CardCode.VACIO) {
+            columnasVacias--;
+        } else {
+            movibles &= ~(1L << vieja);
+            if (!CardCode.esAs(vieja)) buscadasPorColumnas &= ~(1L << (vieja - 1));
+        }
+        if (nueva == CardCode.VACIO) {
+            columnasVacias++;
+        } else {
+            movibles |= 1L << nueva;
+            if (!CardCode.esAs(nueva)) buscadasPorColumnas |= 1L << (nueva - 1);
+        }
+        cimasColumnas[col] = nueva;
+    }
+
+    /** Recalcula la carta que acepta la fundacion 'i' (vacia: cualquier As). */
+    private void actualizarFundacion(int i) {
+        FoundationDeck f = fundaciones.get(i);
+        int altura = f.getCartas().size();
+        if (altura == 0) buscadaPorFundacion[i] = ASES;
+        else if (altura == 13) buscadaPorFundacion[i] = 0;
+        else buscadaPorFundacion[i] = 1L << (f.getPalo().ordinal() * 13 + altura);
+    }
+
+    /**
+     * Calcula desde cero los contadores y conjuntos de 'verificarFinJuego'.
+     */
+    private void recalcularFin() {
+        celdasVacias = 0;
+        movibles = 0;
+        for (CartaInglesa c : celdasLibres) {
+            if (c == null) celdasVacias++;
+            else movibles |= 1L << c.getCodigo();
+        }
+        columnasVacias = 0;
+        buscadasPorColumnas = 0;
+        for (int col = 0; col < 8; col++) {
+            cimasColumnas[col] = CardCode.VACIO;
+            columnasVacias++;
+            cambiarCima(col, CardCode.de(columnas.get(col).getUltimaCarta()));
+        }
+        enFundaciones = 0;
+        for (int i = 0; i < 4; i++) {
+            enFundaciones += fundaciones.get(i).getCartas().size();
+            actualizarFundacion(i);
+        }
+    }
+
+    /**
+     * Calcula desde cero el hash y el indice de ubicaciones
+     * (despues de repartir o de cargar una posicion).
+     */
+    private void recalcularIndices() {
+        hash = ZobristHash.calcular(this);
+        recalcularFin();
+        Arrays.fill(ubicaciones, Ubicacion.NINGUNA);
+        for (int i = 0; i < celdasLibres.size(); i++) {
+            CartaInglesa c = celdasLibres.get(i);
+            if (c != null) ubicaciones[c.getCodigo()] = Ubicacion.crear(Jugada.CELDA, i, 0);
+        }
+        for (int f = 0; f < fundaciones.size(); f++) {
+            List<CartaInglesa> cartas = fundaciones.get(f).getCartas();
+            for (int k = 0; k < cartas.size(); k++) {
+                ubicaciones[cartas.get(k).getCodigo()] = Ubicacion.crear(Jugada.FUNDACION, f, k);
+            }
+        }
+        for (int col = 0; col < columnas.size(); col++) {
+            List<CartaInglesa> cartas = columnas.get(col).getCartas();
+            for (int k = 0; k < cartas.size(); k++) {
+                ubicaciones[cartas.get(k).getCodigo()] = Ubicacion.crear(Jugada.COLUMNA, col, k);
+            }
+        }
+        if (observador != null) observador.tableroReiniciado();
+    }
+
+    /** Avisa al observador (si hay) que empieza o termina un lote de movimientos. */
+    private void avisarLote(boolean inicio) {
+        if (observador == null) return;
+        if (inicio) observador.loteIniciado();
+        else observador.loteTerminado();
+    }
+
+    /** Avisa al observador (si hay) la nueva ubicacion de una carta. */
+    private void avisar(CartaInglesa c) {
+        if (observador != null) observador.cartaMovida(c.getCodigo(), ubicaciones[c.getCodigo()]);
+    }
+
+    /**
+     * Registra quien recibe los avisos de cambio del tablero (o null para ninguno).
+     * Solo hay un observador; registrar otro reemplaza al anterior.
+     */
+    public void setObservador(ObservadorJuego observador) {
+        this.observador = observador;
+    }
+
+    /**
+     * Cambia cuantas cartas se pueden mover juntas (ver 'ModoPilas').
+     * Vale desde la siguiente jugada; no cambia el historial.
      */
-    private static class Movimiento {
-        CartaInglesa carta;        // La carta principal movida
-        TableauDeck origen;        // La columna origen (null si fue celda)
-        String destino;            // "celda", "fundacion" o "columna"
-        int indiceDestino;         // Indice del destino
-        int numCartas;             // 1 para movimientos normales, >1 para pilas
-        int indiceOrigenCelda;     // Indice de la celda origen (-1 si fue columna)
+    public void setModo(ModoPilas modo) {
+        this.modo = Objects.requireNonNull(modo);
+    }
+
+    public ModoPilas getModo() { return modo; }
+
+    /** Maximo de cartas que se pueden mover juntas ahora mismo, en O(1). */
+    public int getCapacidadPilas() { return modo.capacidad(celdasVacias); }
 
-        // Constructor para mover PILA (desde Columna)
-        Movimiento(CartaInglesa carta, TableauDeck origen, String destino, int indiceDestino, int numCartas) {
-            this(carta, origen, destino, indiceDestino, numCartas, -1);
+    /**
+     * Devuelve el hash de Zobrist de la posicion actual. Se mantiene en cada
+     * movimiento, en 'deshacerMovimiento' y en 'rehacerMovimiento', y coincide con 'PackedBoard.getHash()'.
+     */
+    public long getHash() { return hash; }
+
+    /**
+     * Toma una instantanea de la partida en O(1): no copia cartas, solo comparte
+     * los arreglos de las pilas y del historial (que se copian al escribir).
+     * La instantanea es inmutable y sirve para volver a esta posicion con 'restaurar'.
+     */
+    public Instantanea tomarInstantanea() {
+        Instantanea f = new Instantanea(this);
+        for (int i = 0; i < 8; i++) {
+            PilaCartas p = columnas.get(i).getPila();
+            f.alturas[i] = p.tamano();
+            f.columnas[i] = p.compartir();
+            f.celdas[i] = celdasLibres.get(i);
         }
+        for (int i = 0; i < 4; i++) {
+            FoundationDeck fd = fundaciones.get(i);
+            f.alturasFund[i] = fd.getPila().tamano();
+            f.fundaciones[i] = fd.getPila().compartir();
+            f.palos[i] = fd.getPalo();
+        }
+        f.tamanoHistorial = historial.tamano();
+        f.historial = historial.compartir();
+        f.hash = hash;
+        f.numeroPartida = numeroPartida;
+        f.terminado = juegoTerminado;
+        return f;
+    }
 
-        // Constructor para mover 1 CARTA (desde Columna)
-        Movimiento(CartaInglesa carta, TableauDeck origen, String destino, int indiceDestino) {
-            this(carta, origen, destino, indiceDestino, 1, -1);
+    /**
+     * Vuelve a la posicion (y al historial) de una instantanea de esta partida.
+     * Solo toca las pilas que cambiaron desde entonces; el Redo se vacia.
+     * @throws IllegalArgumentException Si la instantanea es de otro juego.
+     */
+    public void restaurar(Instantanea f) {
+        if (f.juego != this) throw new IllegalArgumentException("La instantanea es de otro juego");
+
+        // 1. Regresa las pilas que cambiaron
+        int cambiadas = 0; // Bits: 0-7 columnas, 8-15 celdas, 16-19 fundaciones
+        for (int i = 0; i < 8; i++) {
+            PilaCartas p = columnas.get(i).getPila();
+            if (!p.esIgualA(f.columnas[i], f.alturas[i])) {
+                p.restaurar(f.columnas[i], f.alturas[i]);
+                cambiadas |= 1 << i;
+            }
+            if (celdasLibres.get(i) != f.celdas[i]) {
+                celdasLibres.set(i, f.celdas[i]);
+                cambiadas |= 1 << (8 + i);
+            }
+        }
+        for (int i = 0; i < 4; i++) {
+            FoundationDeck fd = fundaciones.get(i);
+            if (!fd.getPila().esIgualA(f.fundaciones[i], f.alturasFund[i]) || fd.getPalo() != f.palos[i]) {
+                fd.getPila().restaurar(f.fundaciones[i], f.alturasFund[i]);
+                fd.setPalo(f.palos[i]);
+                cambiadas |= 1 << (16 + i);
+            }
         }
+        recalcularFin();
+        historial.restaurar(f.historial, f.tamanoHistorial);
+        rehacer.limpiar();
+        hash = f.hash;
+        numeroPartida = f.numeroPartida;
+        juegoTerminado = f.terminado;
 
-        // Constructor para mover 1 CARTA (desde Celda)
-        Movimiento(CartaInglesa carta, int indiceOrigenCelda, String destino, int indiceDestino) {
-            this(carta, null, destino, indiceDestino, 1, indiceOrigenCelda);
+        // 2. Reubica solo las cartas de esas pilas (toda carta que se movio esta en alguna)
+        for (int i = 0; i < 4; i++) {
+            if ((cambiadas & (1 << (16 + i))) == 0) continue;
+            PilaCartas p = fundaciones.get(i).getPila();
+            for (int k = 0; k < p.tamano(); k++) reubicar(p.get(k), Ubicacion.crear(Jugada.FUNDACION, i, k));
+        }
+        for (int i = 0; i < 8; i++) {
+            if ((cambiadas & (1 << (8 + i))) != 0 && f.celdas[i] != null) {
+                reubicar(f.celdas[i], Ubicacion.crear(Jugada.CELDA, i, 0));
+            }
+            if ((cambiadas & (1 << i)) == 0) continue;
+            PilaCartas p = columnas.get(i).getPila();
+            for (int k = 0; k < p.tamano(); k++) reubicar(p.get(k), Ubicacion.crear(Jugada.COLUMNA, i, k));
         }
+    }
+
+    private void reubicar(CartaInglesa c, int ubicacion) {
+        ubicaciones[c.getCodigo()] = ubicacion;
+        avisar(c);
+    }
+
+    /**
+     * Instantanea inmutable de una partida (ver 'tomarInstantanea').
+     * Comparte los arreglos internos con el juego, que nunca los vuelve a escribir.
+     */
+    public static final class Instantanea {
+        private final EightOffGame juego;
+        private final CartaInglesa[][] columnas = new CartaInglesa[8][];
+        private final int[] alturas = new int[8];
+        private final CartaInglesa[] celdas = new CartaInglesa[8];
+        private final CartaInglesa[][] fundaciones = new CartaInglesa[4][];
+        private final int[] alturasFund = new int[4];
+        private final Palo[] palos = new Palo[4];
+        private int[] historial;
+        private int tamanoHistorial;
+        private long hash;
+        private long numeroPartida;
+        private boolean terminado;
 
-        // Constructor "Maestro" que usan los otros
-        Movimiento(CartaInglesa carta, TableauDeck origen, String destino, int indiceDestino, int numCartas, int indiceOrigenCelda) {
-            this.carta = carta;
-            this.origen = origen;
-            this.destino = destino;
-            this.indiceDestino = indiceDestino;
-            this.numCartas = numCartas;
-            this.indiceOrigenCelda = indiceOrigenCelda;
+        private Instantanea(EightOffGame juego) {
+            this.juego = juego;
         }
+
+        /** Hash de Zobrist de la posicion guardada. */
+        public long getHash() { return hash; }
+
+        /** Cuantas jugadas se habian hecho al tomarla. */
+        public int getNumJugadas() { return tamanoHistorial; }
     }
 
-    public List<TableauDeck> getColumnas() { return columnas; }
-    public List<CartaInglesa> getCeldasLibres() { return celdasLibres; }
-    public List<FoundationDeck> getFundaciones() { return fundaciones; }
+    // Getters de solo lectura (los cambios pasan siempre por los metodos de movimiento)
+    public boolean isJuegoTerminado() { return juegoTerminado; }
+    public List<TableauDeck> getColumnas() { return vistaColumnas; }
+    public List<CartaInglesa> getCeldasLibres() { return vistaCeldas; }
+    public List<FoundationDeck> getFundaciones() { return vistaFundaciones; }
 }
\ No newline at end of file
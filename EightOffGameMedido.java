@@ -0,0 +1,142 @@
+package eightoff;
+
+import DeckOfCards.CartaInglesa;
+
+import java.util.List;
+
+/**
+ * EightOffGameMedido (Juego con metricas)
+ * Un 'EightOffGame' que cuenta sus movimientos y mide sus operaciones caras en
+ * una 'MetricasJuego'. Es una subclase: quien no quiere metricas usa
+ * 'EightOffGame' y no paga nada (ni siquiera una comprobacion por llamada).
+ *
+ * - Cada movimiento publico suma un contador (hecho o rechazado por tipo).
+ *   Las jugadas de 'aplicarJugada' pasan por los mismos metodos, asi que cuentan igual.
+ * - darPista, verificarFinJuego, deshacerMovimiento y moverPilaAColumna ademas miden
+ *   su tiempo, en 1 de cada 'MetricasJuego.getMuestreo()' llamadas.
+ * - Cada operacion tiene su propio contador de muestreo: con uno solo, dos operaciones
+ *   que se turnan (ej: darPista y verificarFinJuego) harian que solo una caiga en la
+ *   muestra. Como el juego es de un solo hilo, los contadores son int comunes.
+ * - 'setPausado' manda las mediciones a unas metricas de descarte (ej: mientras se
+ *   vuelve a jugar un historial), sin agregar una comprobacion a cada llamada.
+ */
+public class EightOffGameMedido extends EightOffGame {
+
+    // Metricas de descarte para cuando el juego esta en pausa
+    private static final MetricasJuego DESCARTE = new MetricasJuego();
+
+    private final MetricasJuego reales;
+    private MetricasJuego metricas; // 'reales' o DESCARTE
+    private final int mascara;
+    private final int[] llamadas = new int[4]; // Para el muestreo, por operacion (T_PISTA...)
+
+    /** Juego con un reparto al azar (ver 'EightOffGame()'). */
+    public EightOffGameMedido(MetricasJuego metricas) {
+        super();
+        this.reales = metricas;
+        this.metricas = metricas;
+        this.mascara = metricas.getMascaraMuestreo();
+    }
+
+    /** Juego con un reparto numerado. */
+    public EightOffGameMedido(MetricasJuego metricas, long numeroPartida) {
+        super(numeroPartida);
+        this.reales = metricas;
+        this.metricas = metricas;
+        this.mascara = metricas.getMascaraMuestreo();
+    }
+
+    public MetricasJuego getMetricas() { return reales; }
+
+    /**
+     * Con true, lo que haga el juego no cuenta en sus metricas hasta volver a false.
+     */
+    public void setPausado(boolean pausado) {
+        metricas = pausado ? DESCARTE : reales;
+    }
+
+    /** True si esta llamada a la operacion (T_PISTA...) se mide. */
+    private boolean medir(int operacion) {
+        return (++llamadas[operacion] & mascara) == 0;
+    }
+
+    @Override
+    public boolean moverAFundacion(CartaInglesa carta) {
+        boolean hecho = super.moverAFundacion(carta);
+        metricas.movimiento(MetricasJuego.A_FUNDACION, hecho);
+        return hecho;
+    }
+
+    @Override
+    public boolean moverACelda(CartaInglesa carta, int celdaIndex) {
+        boolean hecho = super.moverACelda(carta, celdaIndex);
+        metricas.movimiento(MetricasJuego.A_CELDA, hecho);
+        return hecho;
+    }
+
+    @Override
+    public boolean moverAColumna(CartaInglesa carta, int destIndex) {
+        boolean hecho = super.moverAColumna(carta, destIndex);
+        metricas.movimiento(MetricasJuego.A_COLUMNA, hecho);
+        return hecho;
+    }
+
+    @Override
+    public boolean moverPilaAColumna(List<CartaInglesa> pila, TableauDeck origen, int destIndex) {
+        if (!medir(MetricasJuego.T_PILA_A_COLUMNA)) {
+            boolean hecho = super.moverPilaAColumna(pila, origen, destIndex);
+            metricas.movimiento(MetricasJuego.PILA_A_COLUMNA, hecho);
+            return hecho;
+        }
+        long t0 = System.nanoTime();
+        boolean hecho = super.moverPilaAColumna(pila, origen, destIndex);
+        metricas.tiempo(MetricasJuego.T_PILA_A_COLUMNA, System.nanoTime() - t0);
+        metricas.movimiento(MetricasJuego.PILA_A_COLUMNA, hecho);
+        return hecho;
+    }
+
+    @Override
+    public String darPista() {
+        if (!medir(MetricasJuego.T_PISTA)) return super.darPista();
+        long t0 = System.nanoTime();
+        String pista = super.darPista();
+        metricas.tiempo(MetricasJuego.T_PISTA, System.nanoTime() - t0);
+        return pista;
+    }
+
+    @Override
+    public String verificarFinJuego() {
+        if (!medir(MetricasJuego.T_FIN_JUEGO)) return super.verificarFinJuego();
+        long t0 = System.nanoTime();
+        String fin = super.verificarFinJuego();
+        metricas.tiempo(MetricasJuego.T_FIN_JUEGO, System.nanoTime() - t0);
+        return fin;
+    }
+
+    @Override
+    public void deshacerMovimiento() {
+        if (!puedeDeshacer()) return;
+        metricas.deshecho();
+        if (!medir(MetricasJuego.T_DESHACER)) {
+            super.deshacerMovimiento();
+            return;
+        }
+        long t0 = System.nanoTime();
+        super.deshacerMovimiento();
+        metricas.tiempo(MetricasJuego.T_DESHACER, System.nanoTime() - t0);
+    }
+
+    @Override
+    public boolean rehacerMovimiento() {
+        boolean hecho = super.rehacerMovimiento();
+        if (hecho) metricas.rehecho();
+        return hecho;
+    }
+
+    @Override
+    public int autoJugar(boolean conLaAnterior) {
+        int n = super.autoJugar(conLaAnterior);
+        metricas.automaticas(n);
+        return n;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,309 @@
+package eightoff;
+
+import java.util.Arrays;
+
+/**
+ * EightOffSolver (Resolvedor)
+ * Busca una secuencia completa de jugadas que gane la partida a partir de
+ * una posicion, usando A* ponderado sobre 'PackedBoard'.
+ *
+ * - Los nodos se guardan serializados en un solo arreglo de bytes (sin un objeto por nodo).
+ * - La cola de prioridad es un heap de longs (f, nodo).
+ * - Las posiciones repetidas se detectan con el hash de Zobrist del tablero en una
+ *   'TranspositionTable' (las celdas cuentan como conjunto).
+ * - En Eight Off las fundaciones se construyen por palo, asi que mandar una carta
+ *   a la fundacion nunca estorba: despues de cada jugada se suben todas las que se
+ *   puedan dentro del mismo nodo ('PackedBoard.aplicarSeguras'), sin abrir nodos para ellas.
+ * - Si se llega al limite de nodos sin ganar, el resultado queda como 'agotado'.
+ *
+ * Una instancia reutiliza sus estructuras entre llamadas; no es segura entre hilos.
+ */
+public final class EightOffSolver {
+
+    // Limite de nodos por defecto (suficiente para la gran mayoria de los repartos).
+    public static final int LIMITE_NODOS_POR_DEFECTO = 200_000;
+
+    // Limite de nodos para pistas: encuentra casi todas las soluciones del limite por
+    // defecto y se rinde mucho antes en las posiciones sin solucion.
+    public static final int LIMITE_NODOS_PISTA = 20_000;
+
+    // Tamano maximo de la tabla de transposicion: 2^24 casillas (unos 200 MB).
+    private static final int MAX_LOG2_TABLA = 24;
+
+    // Peso de la heuristica en f = g + PESO * h (mayor = mas voraz, menos optimo).
+    private static final int PESO = 3;
+
+    private final int limiteNodos;
+
+    // Arena de nodos: estado serializado, padre, jugada que lo genero y costo g.
+    private byte[] arena = new byte[1 << 16];
+    private int arenaUsada;
+    private int[] offsets = new int[1024];
+    private int[] padres = new int[1024];
+    private int[] jugadas = new int[1024];
+    private int[] costos = new int[1024];
+    private int numNodos;
+
+    // Heap minimo de (f << 32 | desempate)
+    private long[] heap = new long[1024];
+    private int heapSize;
+
+    // Posiciones ya vistas y el menor costo con que se llego a cada una
+    private final TranspositionTable visitados;
+
+    private final PackedBoard actual = new PackedBoard();
+    private final int[] buffer = new int[Jugada.MAX_JUGADAS];
+    private final int[] cascada = new int[CardCode.TOTAL]; // Jugadas seguras tras cada jugada
+    private ModoPilas modo = ModoPilas.ESTRICTO;            // Regla de pilas de la busqueda actual
+
+    /**
+     * Constructor con el limite de nodos por defecto.
+     */
+    public EightOffSolver() {
+        this(LIMITE_NODOS_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor.
+     * @param limiteNodos Cuantos nodos puede generar la busqueda antes de rendirse (> 0).
+     */
+    public EightOffSolver(int limiteNodos) {
+        if (limiteNodos <= 0) throw new IllegalArgumentException("Limite de nodos invalido: " + limiteNodos);
+        this.limiteNodos = limiteNodos;
+        // Unas dos casillas por nodo permitido, hasta 2^MAX_LOG2_TABLA: con limites enormes
+        // la tabla no crece mas (se crea entera al construir) y reemplaza entradas
+        int log2Tamano = Math.max(16, 33 - Integer.numberOfLeadingZeros(limiteNodos));
+        this.visitados = new TranspositionTable(Math.min(log2Tamano, MAX_LOG2_TABLA));
+    }
+
+    /**
+     * Resuelve la posicion actual de un juego (no lo modifica), con su regla de pilas.
+     */
+    public Resultado resolver(EightOffGame juego) {
+        return resolver(PackedBoard.desde(juego), juego.getModo());
+    }
+
+    /**
+     * Busca una secuencia ganadora a partir de 'inicio' con ModoPilas.ESTRICTO.
+     */
+    public Resultado resolver(PackedBoard inicio) {
+        return resolver(inicio, ModoPilas.ESTRICTO);
+    }
+
+    /**
+     * Busca una secuencia ganadora a partir de 'inicio' (no lo modifica).
+     * @param modo Cuantas cartas se pueden mover juntas (ver 'ModoPilas').
+     * @return El resultado, con la lista de jugadas si se encontro solucion.
+     */
+    public Resultado resolver(PackedBoard inicio, ModoPilas modo) {
+        long t0 = System.nanoTime();
+        reiniciar();
+        this.modo = modo;
+
+        // La raiz ya empieza con sus jugadas seguras hechas
+        PackedBoard raiz = new PackedBoard(inicio);
+        int previas = raiz.aplicarSeguras(null, 0);
+        if (raiz.cartasEnFundaciones() == CardCode.TOTAL) {
+            return new Resultado(true, false, reconstruir(-1, Jugada.NINGUNA, inicio), 0, System.nanoTime() - t0);
+        }
+
+        visitados.agregarSiNueva(raiz.getHash(), previas);
+        agregarNodo(raiz, -1, Jugada.NINGUNA, previas);
+        push(prioridad(previas, heuristica(raiz), 0));
+
+        while (heapSize > 0) {
+            int nodo = (int) (Integer.MAX_VALUE - (pop() & 0xFFFF_FFFFL));
+            actual.cargarBytes(arena, offsets[nodo]);
+
+            int n = actual.generarJugadas(buffer, modo);
+            for (int i = 0; i < n; i++) {
+                int j = buffer[i];
+                if (esInutil(j)) continue;
+
+                actual.aplicar(j);
+                int m = actual.aplicarSeguras(cascada, 0);
+                if (actual.cartasEnFundaciones() == CardCode.TOTAL) {
+                    int[] camino = reconstruir(nodo, j, inicio);
+                    return new Resultado(true, false, camino, numNodos, System.nanoTime() - t0);
+                }
+                int g = costos[nodo] + 1 + m;
+                if (visitados.agregarSiNueva(actual.getHash(), g)) {
+                    int hijo = agregarNodo(actual, nodo, j, g);
+                    push(prioridad(g, heuristica(actual), hijo));
+                }
+                for (int k = m - 1; k >= 0; k--) actual.revertir(cascada[k]);
+                actual.revertir(j);
+
+                if (numNodos >= limiteNodos) {
+                    return new Resultado(false, true, null, numNodos, System.nanoTime() - t0);
+                }
+            }
+        }
+        // Se exploro todo el espacio alcanzable: no hay solucion
+        return new Resultado(false, false, null, numNodos, System.nanoTime() - t0);
+    }
+
+    /**
+     * Metodo ayudante para pistas: devuelve el texto de la primera jugada
+     * de una solucion desde 'tablero', o null si no se encontro ninguna.
+     * Para pistas conviene un resolvedor con LIMITE_NODOS_PISTA, reusado entre llamadas.
+     */
+    public String pista(PackedBoard tablero, ModoPilas modo) {
+        Resultado r = resolver(tablero, modo);
+        if (!r.isResuelto() || r.getJugadas().length == 0) return null;
+        return Jugada.texto(r.getJugadas()[0]);
+    }
+
+    // --- Heuristica y poda ---
+
+    /**
+     * Estimacion del costo restante: cartas fuera de las fundaciones, mas las
+     * cartas que tapan a otra menor de su mismo palo (tendran que moverse otra vez),
+     * mas las celdas ocupadas.
+     */
+    private int heuristica(PackedBoard b) {
+        int h = CardCode.TOTAL - b.cartasEnFundaciones();
+        for (int col = 0; col < PackedBoard.NUM_COLUMNAS; col++) {
+            int m0 = 14, m1 = 14, m2 = 14, m3 = 14; // Valor minimo visto por palo
+            for (int k = 0; k < b.altura(col); k++) {
+                int c = b.carta(col, k);
+                int v = CardCode.valor(c);
+                int min;
+                switch (CardCode.palo(c)) {
+                    case 0: min = m0; if (v < m0) m0 = v; break;
+                    case 1: min = m1; if (v < m1) m1 = v; break;
+                    case 2: min = m2; if (v < m2) m2 = v; break;
+                    default: min = m3; if (v < m3) m3 = v; break;
+                }
+                if (min < v) h++;
+            }
+        }
+        return h + PackedBoard.NUM_CELDAS - b.celdasVacias();
+    }
+
+    /**
+     * Jugadas que nunca ayudan: mover una columna completa a una columna vacia.
+     */
+    private boolean esInutil(int j) {
+        return Jugada.tipoOrigen(j) == Jugada.COLUMNA
+                && Jugada.tipoDestino(j) == Jugada.COLUMNA
+                && Jugada.numCartas(j) == actual.altura(Jugada.origen(j))
+                && actual.altura(Jugada.destino(j)) == 0;
+    }
+
+    // --- Arena de nodos ---
+
+    private void reiniciar() {
+        arenaUsada = 0;
+        numNodos = 0;
+        heapSize = 0;
+        visitados.limpiar();
+    }
+
+    private int agregarNodo(PackedBoard b, int padre, int jugada, int g) {
+        if (numNodos == offsets.length) {
+            int cap = numNodos * 2;
+            offsets = Arrays.copyOf(offsets, cap);
+            padres = Arrays.copyOf(padres, cap);
+            jugadas = Arrays.copyOf(jugadas, cap);
+            costos = Arrays.copyOf(costos, cap);
+        }
+        if (arenaUsada + PackedBoard.BYTES_MAXIMOS > arena.length) {
+            arena = Arrays.copyOf(arena, arena.length * 2);
+        }
+        int nodo = numNodos++;
+        offsets[nodo] = arenaUsada;
+        padres[nodo] = padre;
+        jugadas[nodo] = jugada;
+        costos[nodo] = g;
+        arenaUsada = b.escribirBytes(arena, arenaUsada);
+        return nodo;
+    }
+
+    /**
+     * Recorre los padres desde 'nodo' hasta la raiz y arma la lista de jugadas,
+     * repitiendo la partida desde 'inicio' para intercalar las jugadas seguras.
+     * @param nodo El ultimo nodo (-1 si la raiz ya gana sola).
+     * @param ultima La jugada que gano desde 'nodo'.
+     */
+    private int[] reconstruir(int nodo, int ultima, PackedBoard inicio) {
+        int profundidad = 0;
+        for (int p = nodo; p > 0; p = padres[p]) profundidad++;
+        int[] elegidas = new int[nodo < 0 ? 0 : profundidad + 1];
+        if (nodo >= 0) elegidas[profundidad] = ultima;
+        for (int i = profundidad - 1, p = nodo; i >= 0; i--, p = padres[p]) elegidas[i] = jugadas[p];
+
+        PackedBoard b = new PackedBoard(inicio);
+        int[] camino = new int[(nodo < 0 ? 0 : costos[nodo] + 1) + CardCode.TOTAL];
+        int n = b.aplicarSeguras(camino, 0);
+        for (int j : elegidas) {
+            b.aplicar(j);
+            camino[n++] = j;
+            n += b.aplicarSeguras(camino, n);
+        }
+        return Arrays.copyOf(camino, n);
+    }
+
+    // --- Heap minimo ---
+
+    /**
+     * Prioridad del nodo: f = g + PESO * h en los 32 bits altos; a igual f,
+     * gana el nodo mas nuevo (busqueda mas profunda primero).
+     */
+    private static long prioridad(int g, int h, int nodo) {
+        return ((long) (g + PESO * h) << 32) | (Integer.MAX_VALUE - nodo);
+    }
+
+    private void push(long v) {
+        if (heapSize == heap.length) heap = Arrays.copyOf(heap, heapSize * 2);
+        int i = heapSize++;
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (heap[p] <= v) break;
+            heap[i] = heap[p];
+            i = p;
+        }
+        heap[i] = v;
+    }
+
+    private long pop() {
+        long top = heap[0];
+        long v = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int h = 2 * i + 1;
+            if (h >= heapSize) break;
+            if (h + 1 < heapSize && heap[h + 1] < heap[h]) h++;
+            if (v <= heap[h]) break;
+            heap[i] = heap[h];
+            i = h;
+        }
+        heap[i] = v;
+        return top;
+    }
+
+    /**
+     * Resultado de una busqueda.
+     */
+    public static final class Resultado {
+        private final boolean resuelto;   // Se encontro una secuencia ganadora
+        private final boolean agotado;    // Se llego al limite de nodos
+        private final int[] jugadas;      // La secuencia (null si no hay)
+        private final int nodos;          // Nodos generados
+        private final long nanos;         // Tiempo de busqueda
+
+        Resultado(boolean resuelto, boolean agotado, int[] jugadas, int nodos, long nanos) {
+            this.resuelto = resuelto;
+            this.agotado = agotado;
+            this.jugadas = jugadas;
+            this.nodos = nodos;
+            this.nanos = nanos;
+        }
+
+        public boolean isResuelto() { return resuelto; }
+        public boolean isAgotado() { return agotado; }
+        public int[] getJugadas() { return jugadas; }
+        public int getNodos() { return nodos; }
+        public long getNanos() { return nanos; }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+package eightoff;
+
+/**
+ * Estrategia (Jugador automatico)
+ * Interfaz de un jugador que elige una jugada entre las legales. La usa
+ * 'Simulador' para jugar partidas sin interfaz grafica.
+ *
+ * Una instancia puede guardar estado de la partida en curso, asi que cada
+ * hilo debe tener la suya (ver las fabricas de 'Estrategias').
+ */
+public interface Estrategia {
+
+    /**
+     * Se llama al empezar cada partida, antes de la primera jugada.
+     */
+    default void nuevaPartida(EightOffGame juego) { }
+
+    /**
+     * Elige la siguiente jugada.
+     * @param juego La partida (no se debe modificar aqui).
+     * @param jugadas Las jugadas legales, en el orden de 'EightOffGame.generarJugadas'.
+     * @param n Cuantas jugadas legales hay (al menos 1).
+     * @return Una de las jugadas, o Jugada.NINGUNA para rendirse.
+     */
+    int elegir(EightOffGame juego, int[] jugadas, int n);
+
+    /** Nombre corto (para reportes). */
+    String getNombre();
+}
\ No newline at end of file
@@ -0,0 +1,185 @@
+package eightoff;
+
+import DeckOfCards.CartaInglesa;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Estrategias (Jugadores incluidos)
+ * Fabricas de las estrategias que vienen con el juego:
+ * - "aleatoria": cualquier jugada legal, al azar (reproducible por partida).
+ * - "codiciosa": la primera jugada en el orden de 'darPista'.
+ * - "resolvedor": sigue la solucion de 'EightOffSolver'.
+ */
+public final class Estrategias {
+
+    private Estrategias() { }
+
+    public static Estrategia aleatoria(long semilla) {
+        return new Aleatoria(semilla);
+    }
+
+    public static Estrategia codiciosa() {
+        return new Codiciosa();
+    }
+
+    public static Estrategia conResolvedor(int limiteNodos) {
+        return new ConResolvedor(limiteNodos);
+    }
+
+    /**
+     * Crea una estrategia por su nombre ("aleatoria", "codiciosa" o "resolvedor").
+     * @throws IllegalArgumentException Si el nombre no existe.
+     */
+    public static Estrategia porNombre(String nombre) {
+        switch (nombre) {
+            case "aleatoria": return aleatoria(1);
+            case "codiciosa": return codiciosa();
+            case "resolvedor": return conResolvedor(EightOffSolver.LIMITE_NODOS_POR_DEFECTO);
+            default: throw new IllegalArgumentException("Estrategia desconocida: " + nombre);
+        }
+    }
+
+    /**
+     * Elige al azar entre las jugadas legales. La semilla se mezcla con el numero
+     * de partida, asi cada partida se juega igual sin importar el hilo ni el orden.
+     */
+    private static final class Aleatoria implements Estrategia {
+        private final long semilla;
+        private SplittableRandom rnd;
+
+        Aleatoria(long semilla) {
+            this.semilla = semilla;
+            this.rnd = new SplittableRandom(semilla);
+        }
+
+        @Override
+        public void nuevaPartida(EightOffGame juego) {
+            rnd = new SplittableRandom(semilla * 0x9E37_79B9_7F4A_7C15L + juego.getNumeroPartida());
+        }
+
+        @Override
+        public int elegir(EightOffGame juego, int[] jugadas, int n) {
+            return jugadas[rnd.nextInt(n)];
+        }
+
+        @Override
+        public String getNombre() { return "aleatoria"; }
+    }
+
+    /**
+     * Juega como sugiere 'darPista': celda -> fundacion, columna -> fundacion,
+     * celda -> columna, columna -> columna y, por ultimo, columna -> celda solo si
+     * destapa una carta que tiene a donde ir. Si no hay nada de eso, se rinde.
+     *
+     * Para no dar vueltas en circulo cuenta las visitas a cada posicion (por su hash):
+     * la k-esima vez que pasa por una posicion elige la k-esima mejor jugada.
+     */
+    private static final class Codiciosa implements Estrategia {
+        private static final int PRIORIDADES = 5;
+
+        private final TranspositionTable visitas = new TranspositionTable(14);
+
+        @Override
+        public void nuevaPartida(EightOffGame juego) {
+            visitas.limpiar();
+        }
+
+        @Override
+        public int elegir(EightOffGame juego, int[] jugadas, int n) {
+            long hash = juego.getHash();
+            int vistas = visitas.buscar(hash);
+            if (vistas == TranspositionTable.NO_ENCONTRADO) vistas = 0;
+            visitas.guardar(hash, vistas + 1);
+
+            // Recorre las jugadas por prioridad (estable dentro de cada una)
+            int saltar = vistas;
+            for (int p = 0; p < PRIORIDADES; p++) {
+                for (int k = 0; k < n; k++) {
+                    if (prioridad(juego, jugadas[k]) != p) continue;
+                    if (saltar-- == 0) return jugadas[k];
+                }
+            }
+            return Jugada.NINGUNA;
+        }
+
+        /**
+         * Prioridad de una jugada segun el orden de 'darPista' (0 = mejor), o -1
+         * si 'darPista' nunca la sugeriria.
+         */
+        private static int prioridad(EightOffGame juego, int jugada) {
+            boolean desdeCelda = Jugada.tipoOrigen(jugada) == Jugada.CELDA;
+            switch (Jugada.tipoDestino(jugada)) {
+                case Jugada.FUNDACION: return desdeCelda ? 0 : 1;
+                case Jugada.COLUMNA: return desdeCelda ? 2 : 3;
+                default: return (!desdeCelda && destapaAlgo(juego, Jugada.origen(jugada))) ? 4 : -1;
+            }
+        }
+
+        /**
+         * True si la carta debajo de la de arriba de la columna tiene a donde ir
+         * (fundacion u otra columna), como revisa 'darPista'.
+         */
+        private static boolean destapaAlgo(EightOffGame juego, int col) {
+            List<TableauDeck> columnas = juego.getColumnas();
+            List<CartaInglesa> cartas = columnas.get(col).getCartas();
+            if (cartas.size() < 2) return false;
+            CartaInglesa abajo = cartas.get(cartas.size() - 2);
+            for (FoundationDeck f : juego.getFundaciones()) {
+                if (f.puedeRecibir(abajo)) return true;
+            }
+            for (int j = 0; j < columnas.size(); j++) {
+                if (j != col && columnas.get(j).puedeRecibir(abajo)) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public String getNombre() { return "codiciosa"; }
+    }
+
+    /**
+     * Sigue la solucion del resolvedor. Si la posicion ya no corresponde al plan
+     * (o no hay plan), vuelve a resolver desde la posicion actual; si no hay
+     * solucion, se rinde.
+     */
+    private static final class ConResolvedor implements Estrategia {
+        private final EightOffSolver solver;
+        private int[] plan;
+        private int paso;
+
+        ConResolvedor(int limiteNodos) {
+            solver = new EightOffSolver(limiteNodos);
+        }
+
+        @Override
+        public void nuevaPartida(EightOffGame juego) {
+            plan = null;
+        }
+
+        @Override
+        public int elegir(EightOffGame juego, int[] jugadas, int n) {
+            if (plan == null || paso >= plan.length || !contiene(jugadas, n, plan[paso])) {
+                EightOffSolver.Resultado r = solver.resolver(juego);
+                plan = r.isResuelto() ? r.getJugadas() : null;
+                paso = 0;
+                if (plan == null || plan.length == 0 || !contiene(jugadas, n, plan[0])) {
+                    plan = null;
+                    return Jugada.NINGUNA;
+                }
+            }
+            return plan[paso++];
+        }
+
+        private static boolean contiene(int[] jugadas, int n, int jugada) {
+            for (int k = 0; k < n; k++) {
+                if (jugadas[k] == jugada) return true;
+            }
+            return false;
+        }
+
+        @Override
+        public String getNombre() { return "resolvedor"; }
+    }
+}
\ No newline at end of file
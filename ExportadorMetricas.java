@@ -0,0 +1,88 @@
+package servidor;
+
+import com.sun.net.httpserver.HttpServer;
+import eightoff.MetricasJuego;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ExportadorMetricas (Metricas por HTTP para Prometheus)
+ * Sirve en GET /metrics, en localhost, las metricas del motor ('MetricasJuego')
+ * y el estado del servidor (sesiones, vivas, hibernadas, conexiones), en el
+ * formato de texto de Prometheus. Usa el servidor HTTP que trae el JDK.
+ *
+ * Leer las metricas suma las celdas de los LongAdder: es lo unico caro, y
+ * solo pasa cuando alguien pide /metrics.
+ */
+public final class ExportadorMetricas implements Closeable {
+
+    private static final String TIPO_CONTENIDO = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricasJuego metricas;
+    private final RegistroSesiones registro;
+    private final ServidorJuegos servidor;
+    private final HttpServer http;
+
+    /**
+     * Abre el endpoint.
+     * @param puerto El puerto (0 = uno libre, ver 'getPuerto').
+     * @param registro Registro cuyo estado se exporta (puede ser null).
+     * @param servidor Servidor cuyas conexiones se exportan (puede ser null).
+     */
+    public ExportadorMetricas(int puerto, MetricasJuego metricas, RegistroSesiones registro,
+                              ServidorJuegos servidor) throws IOException {
+        this.metricas = metricas;
+        this.registro = registro;
+        this.servidor = servidor;
+        http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto), 0);
+        http.createContext("/metrics", intercambio -> {
+            byte[] cuerpo = texto().getBytes(StandardCharsets.UTF_8);
+            intercambio.getResponseHeaders().set("Content-Type", TIPO_CONTENIDO);
+            intercambio.sendResponseHeaders(200, cuerpo.length);
+            try (OutputStream out = intercambio.getResponseBody()) {
+                out.write(cuerpo);
+            }
+        });
+        http.start();
+    }
+
+    public int getPuerto() { return http.getAddress().getPort(); }
+
+    /**
+     * Todas las metricas en formato de texto de Prometheus (lo que responde /metrics).
+     */
+    public String texto() {
+        StringBuilder sb = new StringBuilder(4096);
+        if (metricas != null) metricas.escribirPrometheus(sb);
+        if (registro != null) {
+            indicador(sb, "eightoff_sesiones", "Sesiones abiertas.", registro.getTamano());
+            indicador(sb, "eightoff_sesiones_vivas", "Sesiones con el juego armado.", registro.getVivas());
+            AlmacenSesiones almacen = registro.getAlmacen();
+            if (almacen != null) {
+                indicador(sb, "eightoff_sesiones_hibernadas", "Sesiones guardadas como bytes.", almacen.getRegistros());
+                indicador(sb, "eightoff_almacen_bytes_usados", "Bytes directos ocupados por sesiones hibernadas.", almacen.getBytesUsados());
+                indicador(sb, "eightoff_almacen_bytes_reservados", "Bytes directos reservados por el almacen.", almacen.getBytesReservados());
+            }
+        }
+        if (servidor != null) {
+            indicador(sb, "eightoff_conexiones", "Conexiones abiertas.", servidor.getConexiones());
+        }
+        return sb.toString();
+    }
+
+    private static void indicador(StringBuilder sb, String nombre, String ayuda, long valor) {
+        sb.append("# HELP ").append(nombre).append(' ').append(ayuda).append('\n');
+        sb.append("# TYPE ").append(nombre).append(" gauge\n");
+        sb.append(nombre).append(' ').append(valor).append('\n');
+    }
+
+    @Override
+    public void close() {
+        http.stop(0);
+    }
+}
\ No newline at end of file
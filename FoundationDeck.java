@@ -2,7 +2,6 @@ package eightoff;
 
 import DeckOfCards.CartaInglesa;
 import DeckOfCards.Palo;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -17,8 +16,8 @@ public class FoundationDeck {
     // Se determina cuando se anade el primer As.
     private Palo palo;
 
-    // Lista de cartas actualmente en esta fundacion.
-    private final List<CartaInglesa> cartas = new ArrayList<>();
+    // Cartas actualmente en esta fundacion (pila con copia al escribir).
+    private final PilaCartas cartas = new PilaCartas();
 
     /**
      * Constructor. Inicializa la fundacion.
@@ -30,12 +29,16 @@ public class FoundationDeck {
 
     // Getters basicos
     public Palo getPalo() { return palo; }
-    public List<CartaInglesa> getCartas() { return cartas; }
+    public List<CartaInglesa> getCartas() { return cartas.vista(); } // Vista de solo lectura
+
+    /** Pila interna y palo (para las instantaneas de 'EightOffGame'). */
+    PilaCartas getPila() { return cartas; }
+    void setPalo(Palo palo) { this.palo = palo; }
 
     /**
      * Comprueba si la fundacion esta llena (13 cartas, As a Rey).
      */
-    public boolean estaCompleta() { return cartas.size() == 13; }
+    public boolean estaCompleta() { return cartas.tamano() == 13; }
 
     /**
      * Define las reglas para aceptar una carta.
@@ -45,12 +48,12 @@ public class FoundationDeck {
     public boolean puedeRecibir(CartaInglesa c) {
         if (c == null) return false;
 
-        if (cartas.isEmpty()) {
+        if (cartas.tamano() == 0) {
             // Regla 1: Si esta vacia, solo acepta un As (valor 1).
             return c.getValor() == 1;
         } else {
             // Regla 2: Si tiene cartas, debe ser el mismo palo Y el valor siguiente.
-            CartaInglesa top = cartas.get(cartas.size() - 1); // La carta de arriba
+            CartaInglesa top = cartas.ultima(); // La carta de arriba
             // Ej: Si top es 7 de Picas, c debe ser 8 de Picas.
             return c.getPalo() == palo && c.getValor() == top.getValor() + 1;
         }
@@ -62,12 +65,12 @@ public class FoundationDeck {
         if (c == null) return;
 
         // Caso especial: La primera carta (un As) define el palo de la fundacion.
-        if (cartas.isEmpty() && c.getValor() == 1) {
+        if (cartas.tamano() == 0 && c.getValor() == 1) {
             palo = c.getPalo(); // Fija el palo (ej. PICAS)
-            cartas.add(c);
+            cartas.agregar(c);
         } else if (puedeRecibir(c)) {
             // Anade cartas subsecuentes (2, 3, 4...)
-            cartas.add(c);
+            cartas.agregar(c);
         }
     }
 
@@ -75,13 +78,13 @@ public class FoundationDeck {
      * Devuelve la carta de arriba sin quitarla (para dibujarla).
      */
     public CartaInglesa getUltimaCarta() {
-        return cartas.isEmpty() ? null : cartas.get(cartas.size() - 1);
+        return cartas.ultima();
     }
 
     /**
      * Quita y devuelve la carta de arriba (usado por 'Deshacer').
      */
     public CartaInglesa eliminarUltimaCarta() {
-        return cartas.isEmpty() ? null : cartas.remove(cartas.size() - 1);
+        return cartas.quitar();
     }
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package eightoff;
+
+/**
+ * GeneradorJugadas (Generador de movimientos)
+ * El generador de jugadas legales de 'EightOffGame' y de 'PackedBoard' (y por
+ * ellos de las pistas, el resolvedor, el simulador y el servidor). Lee la posicion
+ * por la interfaz 'Tablero', asi cada representacion solo contesta preguntas
+ * simples sobre sus pilas y las reglas viven en un solo lugar.
+ */
+final class GeneradorJugadas {
+
+    /**
+     * Lo que necesita el generador de una posicion.
+     */
+    interface Tablero {
+        /** Codigo de la carta de la celda 'i', o CardCode.VACIO. */
+        int celda(int i);
+
+        /** Codigo de la carta de arriba de la columna, o CardCode.VACIO. */
+        int cima(int col);
+
+        /** Cuantas cartas de arriba de la columna forman una escalera (0 si esta vacia). */
+        int largoEscalera(int col);
+
+        /** Primera fundacion que acepta la carta, o -1. */
+        int fundacionPara(int codigo);
+    }
+
+    private GeneradorJugadas() { }
+
+    /**
+     * Escribe TODAS las jugadas legales de la posicion en 'buffer', empaquetadas
+     * como int (ver 'Jugada'), sin crear objetos.
+     *
+     * Orden:
+     * 1. Celda -> fundacion y columna -> fundacion.
+     * 2. Columna -> columna, incluyendo pilas hasta 'maximo' cartas
+     *    (por columna origen y luego destino).
+     * 3. Celda -> columna.
+     * 4. Columna -> primera celda vacia (las demas celdas vacias son equivalentes).
+     * No incluye celda -> celda (no cambia nada del juego).
+     *
+     * @param maximo Cuantas cartas se pueden mover juntas (ver 'ModoPilas.capacidad').
+     * @param buffer Arreglo de al menos 'Jugada.MAX_JUGADAS' elementos.
+     * @return Cuantas jugadas se escribieron.
+     */
+    static int generar(Tablero t, int maximo, int[] buffer) {
+        int n = 0;
+
+        //  1. A fundacion (celdas primero, luego columnas)
+        for (int i = 0; i < 8; i++) {
+            int c = t.celda(i);
+            if (c == CardCode.VACIO) continue;
+            int f = t.fundacionPara(c);
+            if (f >= 0) buffer[n++] = Jugada.crear(Jugada.CELDA, i, Jugada.FUNDACION, f, 1, c);
+        }
+        for (int col = 0; col < 8; col++) {
+            int c = t.cima(col);
+            if (c == CardCode.VACIO) continue;
+            int f = t.fundacionPara(c);
+            if (f >= 0) buffer[n++] = Jugada.crear(Jugada.COLUMNA, col, Jugada.FUNDACION, f, 1, c);
+        }
+
+        //  2. Columna -> columna: la carta de arriba del destino dice cuantas
+        //     cartas de la escalera tienen que ir (ver 'CardCode.cartasHacia')
+        for (int col = 0; col < 8; col++) {
+            int cima = t.cima(col);
+            if (cima == CardCode.VACIO) continue;
+            int largo = Math.min(t.largoEscalera(col), maximo);
+            for (int dest = 0; dest < 8; dest++) {
+                if (dest == col) continue;
+                int k = CardCode.cartasHacia(cima, largo, t.cima(dest));
+                if (k > 0) buffer[n++] = Jugada.crear(Jugada.COLUMNA, col, Jugada.COLUMNA, dest, k, cima + k - 1);
+            }
+        }
+
+        //  3. Celda -> columna
+        int libre = -1;
+        for (int i = 0; i < 8; i++) {
+            int c = t.celda(i);
+            if (c == CardCode.VACIO) {
+                if (libre < 0) libre = i;
+                continue;
+            }
+            for (int dest = 0; dest < 8; dest++) {
+                if (CardCode.puedeIrEnColumna(c, t.cima(dest))) {
+                    buffer[n++] = Jugada.crear(Jugada.CELDA, i, Jugada.COLUMNA, dest, 1, c);
+                }
+            }
+        }
+
+        //  4. Columna -> primera celda vacia
+        if (libre >= 0) {
+            for (int col = 0; col < 8; col++) {
+                int c = t.cima(col);
+                if (c != CardCode.VACIO) buffer[n++] = Jugada.crear(Jugada.COLUMNA, col, Jugada.CELDA, libre, 1, c);
+            }
+        }
+        return n;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package eightoff;
+
+import java.util.Arrays;
+
+/**
+ * Historial (Pila de jugadas)
+ * Pila creciente de jugadas empaquetadas (ver 'Jugada'), guardadas en un int[].
+ * La usa 'EightOffGame' para el Undo y el Redo: apilar y desapilar no crean objetos,
+ * y una sesion de 10.000 jugadas ocupa unos 40 KB.
+ *
+ * Como 'PilaCartas', comparte su arreglo con las instantaneas del juego y solo
+ * lo copia si va a escribir en una posicion que alguna instantanea puede leer.
+ */
+public final class Historial {
+
+    // Capacidad inicial (una partida normal cabe sin crecer).
+    private static final int CAPACIDAD_INICIAL = 128;
+
+    private int[] jugadas = new int[CAPACIDAD_INICIAL];
+    private int tamano;
+    private int protegido; // Posiciones [0, protegido) compartidas con instantaneas
+
+    /**
+     * Agrega una jugada arriba de la pila (duplica el arreglo si esta lleno).
+     */
+    public void agregar(int jugada) {
+        if (tamano < protegido || tamano == jugadas.length) {
+            jugadas = Arrays.copyOf(jugadas, Math.max(jugadas.length, tamano * 2));
+            protegido = 0;
+        }
+        jugadas[tamano++] = jugada;
+    }
+
+    /**
+     * Saca la jugada de arriba.
+     * @return La jugada, o Jugada.NINGUNA si la pila esta vacia.
+     */
+    public int sacar() {
+        return tamano == 0 ? Jugada.NINGUNA : jugadas[--tamano];
+    }
+
+    /**
+     * Devuelve la jugada de arriba sin sacarla, o Jugada.NINGUNA si esta vacia.
+     */
+    public int ultima() {
+        return tamano == 0 ? Jugada.NINGUNA : jugadas[tamano - 1];
+    }
+
+    /** Devuelve la jugada numero 'i' (0 = la mas antigua). */
+    public int get(int i) {
+        if (i < 0 || i >= tamano) throw new IndexOutOfBoundsException(i);
+        return jugadas[i];
+    }
+
+    public int tamano() { return tamano; }
+
+    public boolean estaVacio() { return tamano == 0; }
+
+    /** Vacia la pila (conserva el arreglo). */
+    public void limpiar() { tamano = 0; }
+
+    /** Entrega el arreglo actual para una instantanea (ver 'PilaCartas.compartir'). */
+    int[] compartir() {
+        protegido = Math.max(protegido, tamano);
+        return jugadas;
+    }
+
+    /** Vuelve a un arreglo compartido (ver 'PilaCartas.restaurar'). */
+    void restaurar(int[] arreglo, int tam) {
+        jugadas = arreglo;
+        tamano = tam;
+        protegido = arreglo.length;
+    }
+
+    /** Copia de las jugadas, de la mas antigua a la mas reciente. */
+    public int[] aArreglo() {
+        return Arrays.copyOf(jugadas, tamano);
+    }
+}
\ No newline at end of file
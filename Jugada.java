@@ -0,0 +1,80 @@
+package eightoff;
+
+/**
+ * Jugada (Movimiento empaquetado)
+ * Clase utilitaria que codifica un movimiento completo en un solo int,
+ * para que busquedas y pistas no tengan que crear objetos por movimiento.
+ *
+ * Distribucion de bits:
+ * - 0..1   tipo de origen  (COLUMNA, CELDA, FUNDACION)
+ * - 2..4   indice de origen
+ * - 5..6   tipo de destino
+ * - 7..9   indice de destino
+ * - 10..14 numero de cartas (1 para cartas sueltas, mas para pilas)
+ * - 15..20 codigo de la carta de abajo de lo que se mueve ('CardCode')
+ * - 21     ENCADENADA: en el historial, se deshace junto con la jugada anterior
+ */
+public final class Jugada {
+
+    // Tipos de pila (origen o destino)
+    public static final int COLUMNA = 0;
+    public static final int CELDA = 1;
+    public static final int FUNDACION = 2;
+
+    // Cota superior de jugadas legales en una posicion (para dimensionar buffers).
+    public static final int MAX_JUGADAS = 256;
+
+    // Valor que representa "ninguna jugada".
+    public static final int NINGUNA = -1;
+
+    // Marca de una jugada que forma un solo paso de Undo con la anterior
+    // (ej: las que hace 'EightOffGame.autoJugar'). Los demas campos no cambian.
+    public static final int ENCADENADA = 1 << 21;
+
+    private Jugada() { }
+
+    /**
+     * Construye una jugada empaquetada.
+     * @param tipoOrigen COLUMNA, CELDA o FUNDACION.
+     * @param origen Indice de la pila origen.
+     * @param tipoDestino COLUMNA, CELDA o FUNDACION.
+     * @param destino Indice de la pila destino.
+     * @param numCartas Cuantas cartas se mueven (1..31).
+     * @param carta Codigo de la carta de abajo de lo que se mueve.
+     */
+    public static int crear(int tipoOrigen, int origen, int tipoDestino, int destino, int numCartas, int carta) {
+        return tipoOrigen
+                | origen << 2
+                | tipoDestino << 5
+                | destino << 7
+                | numCartas << 10
+                | carta << 15;
+    }
+
+    // --- Lectura de campos ---
+    public static int tipoOrigen(int jugada)  { return jugada & 0x3; }
+    public static int origen(int jugada)      { return (jugada >>> 2) & 0x7; }
+    public static int tipoDestino(int jugada) { return (jugada >>> 5) & 0x3; }
+    public static int destino(int jugada)     { return (jugada >>> 7) & 0x7; }
+    public static int numCartas(int jugada)   { return (jugada >>> 10) & 0x1F; }
+    public static int carta(int jugada)       { return (jugada >>> 15) & 0x3F; }
+    public static boolean esEncadenada(int jugada) { return (jugada & ENCADENADA) != 0; }
+
+    /**
+     * Describe la jugada con el mismo estilo de texto que 'darPista'.
+     */
+    public static String texto(int jugada) {
+        int n = numCartas(jugada);
+        String que = (n > 1)
+                ? "la pila (" + CardCode.valor(carta(jugada)) + "...)"
+                : "el " + CardCode.texto(carta(jugada));
+        String desde = (tipoOrigen(jugada) == CELDA) ? "(Celda)" : "(Columna " + (origen(jugada) + 1) + ")";
+        String hacia;
+        switch (tipoDestino(jugada)) {
+            case FUNDACION: hacia = "a la fundacion."; break;
+            case CELDA: hacia = "a una celda libre."; break;
+            default: hacia = "a la Columna " + (destino(jugada) + 1) + "."; break;
+        }
+        return "Mueve " + que + " " + desde + " " + hacia;
+    }
+}
\ No newline at end of file
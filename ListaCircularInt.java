@@ -0,0 +1,149 @@
+package DeckOfCards;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+import java.util.random.RandomGenerator;
+
+/**
+ * ListaCircularInt (Lista circular de enteros)
+ * La misma cola doble de 'ListaDobleCircular', pero con int en lugar de objetos,
+ * para guardar codigos de carta ('CartaInglesa.getCodigo') sin crear objetos.
+ * La usa 'Mazo'.
+ */
+public class ListaCircularInt {
+
+    // Capacidad inicial (un mazo completo cabe sin crecer).
+    private static final int CAPACIDAD_INICIAL = 52;
+
+    private int[] datos;  // Arreglo circular con los elementos
+    private int cabeza;   // Posicion del primer elemento
+    private int tamanio;  // Cuantos elementos hay
+
+    /**
+     * Constructor. Crea una lista vacia.
+     */
+    public ListaCircularInt() {
+        this(CAPACIDAD_INICIAL);
+    }
+
+    /**
+     * Constructor con capacidad inicial (crece sola si hace falta).
+     */
+    public ListaCircularInt(int capacidad) {
+        datos = new int[Math.max(1, capacidad)];
+    }
+
+    /**
+     * Constructor que usa el arreglo dado como contenido (no lo copia:
+     * la lista pasa a ser duena del arreglo).
+     */
+    public ListaCircularInt(int[] valores) {
+        datos = valores.length == 0 ? new int[1] : valores;
+        tamanio = valores.length;
+    }
+
+    public boolean estaVacia() {
+        return tamanio == 0;
+    }
+
+    /** Inserta un valor al final de la lista. */
+    public void insertar(int valor) {
+        if (tamanio == datos.length) crecer();
+        datos[posicion(tamanio)] = valor;
+        tamanio++;
+    }
+
+    /** Inserta un valor al principio de la lista (pasa a ser la cabeza). */
+    public void insertarInicio(int valor) {
+        if (tamanio == datos.length) crecer();
+        cabeza = (cabeza == 0) ? datos.length - 1 : cabeza - 1;
+        datos[cabeza] = valor;
+        tamanio++;
+    }
+
+    /**
+     * Elimina y devuelve el primer valor.
+     * @throws NoSuchElementException Si la lista esta vacia.
+     */
+    public int eliminarInicio() {
+        if (tamanio == 0) throw new NoSuchElementException();
+        int valor = datos[cabeza];
+        cabeza = posicion(1);
+        tamanio--;
+        return valor;
+    }
+
+    /**
+     * Elimina y devuelve el ultimo valor.
+     * @throws NoSuchElementException Si la lista esta vacia.
+     */
+    public int eliminarFinal() {
+        if (tamanio == 0) throw new NoSuchElementException();
+        tamanio--;
+        return datos[posicion(tamanio)];
+    }
+
+    /** Devuelve el valor 'i' (0 = la cabeza) sin sacarlo. */
+    public int get(int i) {
+        if (i < 0 || i >= tamanio) throw new IndexOutOfBoundsException(i);
+        return datos[posicion(i)];
+    }
+
+    /**
+     * Saca todos los valores, en orden, y los escribe en 'destino' desde 'desde'
+     * (a lo sumo dos copias de arreglo). Deja la lista vacia.
+     * @return Cuantos valores se escribieron.
+     */
+    public int vaciarEn(int[] destino, int desde) {
+        int n = tamanio;
+        int primera = Math.min(n, datos.length - cabeza); // Hasta el final del arreglo
+        System.arraycopy(datos, cabeza, destino, desde, primera);
+        System.arraycopy(datos, 0, destino, desde + primera, n - primera);
+        cabeza = 0;
+        tamanio = 0;
+        return n;
+    }
+
+    /** Aplica una funcion a cada valor, de la cabeza al final. */
+    public void recorrer(IntConsumer accion) {
+        for (int i = 0; i < tamanio; i++) accion.accept(datos[posicion(i)]);
+    }
+
+    /** Mezcla los valores (ver 'mezclar(RandomGenerator)'). */
+    public void mezclar() {
+        mezclar(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Mezcla los valores en su lugar (Fisher-Yates), en el mismo orden que
+     * 'ListaDobleCircular.mezclar' con el mismo generador.
+     */
+    public void mezclar(RandomGenerator rnd) {
+        for (int i = tamanio - 1; i > 0; i--) {
+            int a = posicion(i);
+            int b = posicion(rnd.nextInt(i + 1));
+            int t = datos[a];
+            datos[a] = datos[b];
+            datos[b] = t;
+        }
+    }
+
+    /** Numero de valores en la lista (guardado, O(1)). */
+    public int tamanio() {
+        return tamanio;
+    }
+
+    /** Posicion en el arreglo del valor 'i' (0 = la cabeza). */
+    private int posicion(int i) {
+        int p = cabeza + i;
+        return p >= datos.length ? p - datos.length : p;
+    }
+
+    /** Duplica el arreglo, dejando la cabeza en la posicion 0. */
+    private void crecer() {
+        int[] nuevo = new int[datos.length * 2];
+        for (int i = 0; i < tamanio; i++) nuevo[i] = datos[posicion(i)];
+        datos = nuevo;
+        cabeza = 0;
+    }
+}
\ No newline at end of file
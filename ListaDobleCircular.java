@@ -1,162 +1,202 @@
 package DeckOfCards;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
 
 /**
- * Implementacion de una Lista Doblemente Circular generica.
+ * Implementacion de una Lista Circular generica (cola doble).
  * Se usa para almacenar las cartas en el 'Mazo'.
+ *
+ * Los elementos viven en un arreglo circular: 'cabeza' es la posicion del
+ * primero y la lista da la vuelta al final del arreglo. Insertar y sacar por
+ * cualquiera de los dos extremos es O(1) y no crea objetos (salvo cuando el
+ * arreglo se llena y se duplica); el tamano se guarda, no se cuenta.
+ * Ver 'ListaCircularInt' para la version con int (codigos de carta).
+ *
  * @param <T> El tipo de dato a almacenar (en este caso, CartaInglesa).
  */
 public class ListaDobleCircular<T> implements Iterable<T>{
 
-    // 'cabeza' es el punto de entrada a la lista. Es el "primer" nodo.
-    private NodoDoble<T> cabeza;
+    // Capacidad inicial (un mazo completo cabe sin crecer).
+    private static final int CAPACIDAD_INICIAL = 52;
+
+    private Object[] datos; // Arreglo circular con los elementos
+    private int cabeza;     // Posicion del primer elemento
+    private int tamanio;    // Cuantos elementos hay
 
     /**
-     * Clase interna que representa un nodo (un eslabon) de la lista.
-     * Cada nodo almacena un dato y referencias a su nodo 'siguiente' y 'anterior'.
+     * Constructor. Crea una lista vacia.
      */
-    private static class NodoDoble<T> {
-        T dato; // El dato almacenado (la carta)
-        NodoDoble<T> siguiente; // Referencia al proximo nodo
-        NodoDoble<T> anterior; // Referencia al nodo previo
+    public ListaDobleCircular() {
+        this(CAPACIDAD_INICIAL);
+    }
 
-        NodoDoble(T dato) {
-            this.dato = dato;
-        }
+    /**
+     * Constructor con capacidad inicial (crece sola si hace falta).
+     */
+    public ListaDobleCircular(int capacidad) {
+        datos = new Object[Math.max(1, capacidad)];
     }
 
     /**
-     * Comprueba si la lista no tiene nodos.
-     * @return true si cabeza es null.
+     * Comprueba si la lista no tiene elementos.
+     * @return true si esta vacia.
      */
     public boolean estaVacia() {
-        return cabeza == null;
+        return tamanio == 0;
     }
 
     /**
      * Inserta un nuevo dato al final de la lista (justo antes de la cabeza).
-     * Mantiene la estructura circular.
      */
     public void insertar(T dato) {
-        NodoDoble<T> nuevo = new NodoDoble<>(dato);
-        if (cabeza == null) {
-            // Si es el primer nodo, se apunta a si mismo
-            cabeza = nuevo;
-            cabeza.siguiente = cabeza;
-            cabeza.anterior = cabeza;
-        } else {
-            //
-            // Si ya hay nodos, se inserta entre el ultimo y la cabeza
-            NodoDoble<T> ultimo = cabeza.anterior; // El ultimo es el anterior a la cabeza
-
-            ultimo.siguiente = nuevo; // El (ex)ultimo apunta al nuevo
-            nuevo.anterior = ultimo;    // El nuevo apunta al (ex)ultimo
-            nuevo.siguiente = cabeza;   // El nuevo apunta a la cabeza
-            cabeza.anterior = nuevo;    // La cabeza apunta al nuevo como su anterior
-        }
+        if (tamanio == datos.length) crecer();
+        datos[posicion(tamanio)] = dato;
+        tamanio++;
+    }
+
+    /**
+     * Inserta un nuevo dato al principio de la lista (pasa a ser la cabeza).
+     */
+    public void insertarInicio(T dato) {
+        if (tamanio == datos.length) crecer();
+        cabeza = (cabeza == 0) ? datos.length - 1 : cabeza - 1;
+        datos[cabeza] = dato;
+        tamanio++;
     }
 
     /**
      * Elimina y devuelve el primer elemento (la cabeza) de la lista.
      * Usado por Mazo.sacarCarta().
-     * @return El dato del nodo eliminado, o null si esta vacia.
+     * @return El dato eliminado, o null si esta vacia.
      */
     public T eliminarInicio() {
-        if (cabeza == null) return null; // No hay nada que eliminar
-
-        T valor = cabeza.dato; // Guarda el dato para devolverlo
+        if (tamanio == 0) return null; // No hay nada que eliminar
+        T valor = dato(cabeza);
+        datos[cabeza] = null; // No retiene el dato
+        cabeza = posicion(1);
+        tamanio--;
+        return valor;
+    }
 
-        if (cabeza.siguiente == cabeza) {
-            // Caso 1: Solo hay un nodo en la lista
-            cabeza = null;
-        } else {
-            //
-            // Caso 2: Hay multiples nodos
-            NodoDoble<T> ultimo = cabeza.anterior;
-            NodoDoble<T> nuevaCabeza = cabeza.siguiente;
+    /**
+     * Elimina y devuelve el ultimo elemento de la lista.
+     * @return El dato eliminado, o null si esta vacia.
+     */
+    public T eliminarFinal() {
+        if (tamanio == 0) return null;
+        int p = posicion(tamanio - 1);
+        T valor = dato(p);
+        datos[p] = null;
+        tamanio--;
+        return valor;
+    }
 
-            // Se saltan la cabeza original
-            ultimo.siguiente = nuevaCabeza;
-            nuevaCabeza.anterior = ultimo;
+    /**
+     * Devuelve el elemento 'i' (0 = la cabeza) sin sacarlo.
+     */
+    public T get(int i) {
+        if (i < 0 || i >= tamanio) throw new IndexOutOfBoundsException(i);
+        return dato(posicion(i));
+    }
 
-            cabeza = nuevaCabeza; // Se actualiza la referencia a la cabeza
+    /**
+     * Saca todos los elementos, en orden, y los escribe en 'destino'.
+     * Deja la lista vacia.
+     * @param destino Arreglo con lugar para 'tamanio()' elementos.
+     * @return Cuantos elementos se escribieron.
+     */
+    public int vaciarEn(T[] destino) {
+        int n = tamanio;
+        for (int i = 0; i < n; i++) {
+            int p = posicion(i);
+            destino[i] = dato(p);
+            datos[p] = null;
         }
-        return valor;
+        cabeza = 0;
+        tamanio = 0;
+        return n;
     }
 
     /**
      * Recorre la lista y aplica una funcion (Consumer) a cada elemento.
-     * Usado por 'mezclar' para copiar los elementos a una lista temporal.
      */
-    public void recorrer(java.util.function.Consumer<T> accion) {
-        if (cabeza == null) return;
-
-        NodoDoble<T> actual = cabeza;
-        do {
-            accion.accept(actual.dato); // Aplica la funcion
-            actual = actual.siguiente;
-        } while (actual != cabeza); // Se detiene cuando da la vuelta completa
+    public void recorrer(Consumer<T> accion) {
+        for (int i = 0; i < tamanio; i++) {
+            accion.accept(dato(posicion(i))); // Aplica la funcion
+        }
     }
 
     /**
      * Mezcla (baraja) los elementos de la lista.
      */
     public void mezclar() {
-        // 1. Copia todos los elementos a un ArrayList temporal.
-        java.util.List<T> listaTemporal = new java.util.ArrayList<>();
-        recorrer(listaTemporal::add); // '::add' es una referencia al metodo 'add' de la lista
-
-        // 2. Baraja el ArrayList usando el metodo eficiente de Java.
-        java.util.Collections.shuffle(listaTemporal);
+        mezclar(ThreadLocalRandom.current());
+    }
 
-        // 3. Vacia la lista circular y la vuelve a llenar con los elementos barajados.
-        cabeza = null;
-        for (T elemento : listaTemporal) {
-            insertar(elemento);
+    /**
+     * Mezcla (baraja) los elementos de la lista con un generador dado, en su
+     * lugar (Fisher-Yates). Con la misma semilla siempre se obtiene el mismo
+     * orden, el mismo que daba 'Collections.shuffle' con ese generador.
+     */
+    public void mezclar(RandomGenerator rnd) {
+        for (int i = tamanio - 1; i > 0; i--) {
+            int a = posicion(i);
+            int b = posicion(rnd.nextInt(i + 1));
+            Object t = datos[a];
+            datos[a] = datos[b];
+            datos[b] = t;
         }
     }
 
     /**
-     * Devuelve el numero de elementos en la lista.
-     * Lo hace contando (recorriendo) la lista.
+     * Devuelve el numero de elementos en la lista (guardado, O(1)).
      */
     public int tamanio() {
-        if (cabeza == null) return 0;
-        int count = 0;
-        NodoDoble<T> actual = cabeza;
-        do {
-            count++;
-            actual = actual.siguiente;
-        } while (actual != cabeza);
-        return count;
+        return tamanio;
     }
 
     /**
-     * Proporciona un Iterador estandar de Java.
+     * Proporciona un Iterador estandar de Java, de la cabeza al final.
      * Esto permite usar la lista en bucles 'for-each'.
      * (ej: for (CartaInglesa c : miListaCircular) { ... })
      */
     @Override
     public Iterator<T> iterator() {
         return new Iterator<>() {
-            NodoDoble<T> actual = cabeza;
-            boolean primerPaso = true; // Control para listas de un solo nodo
+            int i = 0; // Siguiente elemento (relativo a la cabeza)
 
             @Override
             public boolean hasNext() {
-                // Hay proximo si la lista no esta vacia Y (es la primera vez o aun no damos la vuelta)
-                return cabeza != null && (primerPaso || actual != cabeza);
+                return i < tamanio;
             }
 
             @Override
             public T next() {
-                if (cabeza == null) throw new NoSuchElementException();
-                T dato = actual.dato;
-                actual = actual.siguiente;
-                primerPaso = false;
-                return dato;
+                if (i >= tamanio) throw new NoSuchElementException();
+                return dato(posicion(i++));
             }
         };
     }
+
+    /** Posicion en el arreglo del elemento 'i' (0 = la cabeza). */
+    private int posicion(int i) {
+        int p = cabeza + i;
+        return p >= datos.length ? p - datos.length : p;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T dato(int p) {
+        return (T) datos[p];
+    }
+
+    /** Duplica el arreglo, dejando la cabeza en la posicion 0. */
+    private void crecer() {
+        Object[] nuevo = new Object[datos.length * 2];
+        for (int i = 0; i < tamanio; i++) nuevo[i] = datos[posicion(i)];
+        datos = nuevo;
+        cabeza = 0;
+    }
 }
\ No newline at end of file
@@ -6,6 +6,11 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 public class MainApp extends Application {
+    @Override
+    public void init() {
+        CardAssets.precargar(); // Arma el atlas de cartas en segundo plano mientras arranca la ventana
+    }
+
     @Override
     public void start(Stage stage) throws Exception {
         Scene scene = new Scene(FXMLLoader.load(getClass().getResource("/ui/board.fxml")));
@@ -1,17 +1,19 @@
 package DeckOfCards;
 
-import java.util.*;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Mazo (Baraja)
  * Esta clase representa la baraja estandar de 52 cartas.
- * Es responsable de crear las 52 cartas, barajarlas y repartirlas.
- * Utiliza la 'ListaDobleCircular'
+ * Es responsable de juntar las 52 cartas, barajarlas y repartirlas.
+ * Guarda los codigos de las cartas en una 'ListaCircularInt'; las cartas que
+ * salen son las compartidas de 'CartaInglesa.de', asi que no se crea ninguna.
  */
 public class Mazo {
 
-    // La estructura de datos personalizada que almacena las 52 cartas.
-    private ListaDobleCircular<CartaInglesa> cartas;
+    // La estructura de datos personalizada que almacena las 52 cartas (sus codigos).
+    private ListaCircularInt cartas;
 
     /**
      * Constructor.
@@ -19,16 +21,86 @@ public class Mazo {
      * (13 valores * 4 palos) y la baraja automaticamente.
      */
     public Mazo() {
-        cartas = new ListaDobleCircular<>();
+        llenar();
+        cartas.mezclar(); // Llama al metodo de barajar de la ListaCircularInt
+    }
+
+    /**
+     * Constructor con generador: la misma semilla da siempre el mismo orden.
+     * @param rnd El generador con que se baraja (ej: new Random(semilla)).
+     */
+    public Mazo(RandomGenerator rnd) {
+        llenar();
+        cartas.mezclar(rnd);
+    }
+
+    /**
+     * Constructor con numero de partida.
+     * El mismo numero siempre produce el mismo orden (ver 'barajarCodigos').
+     * @param numeroPartida El numero de partida (64 bits).
+     */
+    public Mazo(long numeroPartida) {
+        int[] codigos = new int[52];
+        barajarCodigos(numeroPartida, codigos);
+        cartas = new ListaCircularInt(codigos); // Usa el arreglo, no lo copia
+    }
 
-        // Bucle anidado para crear las 52 cartas
-        for (Palo p : Palo.values()) { // Itera sobre los 4 palos
-            for (int valor = 1; valor <= 13; valor++) { // Itera sobre los 13 valores
-                cartas.insertar(new CartaInglesa(valor, p)); // Crea y anade la carta
+    /**
+     * Camino rapido: escribe el orden del mazo de una partida como codigos de
+     * carta ('CartaInglesa.getCodigo()') sin crear cartas ni la lista.
+     * destino[0] es la primera carta que saldria con 'sacarCarta'.
+     *
+     * Los numeros 1..2^31-1 usan el generador clasico de FreeCell de Windows
+     * (un LCG), asi que la partida N reparte las cartas en el mismo orden que
+     * la partida N de FreeCell. Cualquier otro numero (0, negativos o mayores)
+     * usa un SplittableRandom con ese numero como semilla.
+     *
+     * @param numeroPartida El numero de partida.
+     * @param destino Arreglo de al menos 52 elementos.
+     */
+    public static void barajarCodigos(long numeroPartida, int[] destino) {
+        // Mazo inicial en el orden clasico: As de treboles, diamantes, corazones, picas, 2 de treboles...
+        for (int i = 0; i < 52; i++) {
+            destino[i] = (i % 4) * 13 + (i / 4);
+        }
+
+        if (numeroPartida >= 1 && numeroPartida <= Integer.MAX_VALUE) {
+            long semilla = numeroPartida;
+            for (int restantes = 52; restantes > 0; restantes--) {
+                semilla = (semilla * 214013 + 2531011) & 0x7FFF_FFFFL;
+                int r = (int) (semilla >>> 16) % restantes;
+                // Saca la carta 'r' y pone la ultima en su lugar
+                intercambiar(destino, r, restantes - 1);
+            }
+        } else {
+            SplittableRandom rnd = new SplittableRandom(numeroPartida);
+            for (int restantes = 52; restantes > 0; restantes--) {
+                intercambiar(destino, rnd.nextInt(restantes), restantes - 1);
             }
         }
 
-        cartas.mezclar(); // Llama al metodo de barajar de la ListaDobleCircular
+        // El algoritmo clasico reparte desde el final del arreglo
+        for (int i = 0, j = 51; i < j; i++, j--) {
+            intercambiar(destino, i, j);
+        }
+    }
+
+    private static void intercambiar(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    /**
+     * Llena la lista con las 52 cartas en orden.
+     */
+    private void llenar() {
+        cartas = new ListaCircularInt(52);
+
+        // Los codigos van por palo y, dentro del palo, por valor (As..Rey)
+        for (int codigo = 0; codigo < 52; codigo++) {
+            cartas.insertar(codigo);
+        }
     }
 
     /**
@@ -37,7 +109,17 @@ public class Mazo {
      * @return La carta sacada.
      */
     public CartaInglesa sacarCarta() {
-        return cartas.eliminarInicio();
+        return cartas.estaVacia() ? null : CartaInglesa.de(cartas.eliminarInicio());
+    }
+
+    /**
+     * Reparte de una vez todas las cartas que quedan, como codigos de carta,
+     * en el mismo orden en que saldrian con 'sacarCarta'. Deja el mazo vacio.
+     * @param destino Arreglo con lugar para 'getTamanio()' codigos.
+     * @return Cuantos codigos se escribieron.
+     */
+    public int sacarCodigos(int[] destino) {
+        return cartas.vaciarEn(destino, 0);
     }
 
     /**
@@ -57,9 +139,12 @@ public class Mazo {
     }
 
     /**
-     * Devuelve la referencia a la lista interna.
+     * Devuelve las cartas que quedan, en orden, en una lista nueva
+     * (cambiarla no cambia el mazo).
      */
     public ListaDobleCircular<CartaInglesa> getCartas() {
-        return cartas;
+        ListaDobleCircular<CartaInglesa> lista = new ListaDobleCircular<>(Math.max(1, cartas.tamanio()));
+        cartas.recorrer(codigo -> lista.insertar(CartaInglesa.de(codigo)));
+        return lista;
     }
 }
\ No newline at end of file
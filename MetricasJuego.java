@@ -0,0 +1,215 @@
+package eightoff;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * MetricasJuego (Contadores y tiempos del motor)
+ * Acumula lo que miden los 'EightOffGameMedido' que la comparten: movimientos
+ * intentados por tipo (hechos y rechazados), deshacer/rehacer, cartas automaticas
+ * y tiempos de las operaciones caras. Se puede compartir entre muchos juegos
+ * y muchos hilos.
+ *
+ * - Los contadores son LongAdder: cada hilo suma en su propia celda, sin
+ *   competir por una sola variable; leerlos (sumar las celdas) es lo caro.
+ * - Los tiempos van a histogramas con un cubo por potencia de 2 de nanosegundos.
+ *   Medir un tiempo cuesta dos 'System.nanoTime', asi que solo se mide una de cada
+ *   'getMuestreo()' llamadas (por juego); los contadores cuentan todas.
+ * - 'escribirPrometheus' vuelca todo en el formato de texto de Prometheus.
+ */
+public final class MetricasJuego {
+
+    // Tipos de movimiento (indices de los contadores)
+    public static final int A_FUNDACION = 0;
+    public static final int A_CELDA = 1;
+    public static final int A_COLUMNA = 2;
+    public static final int PILA_A_COLUMNA = 3;
+    private static final String[] NOMBRES_TIPO = {"fundacion", "celda", "columna", "pila"};
+
+    // Operaciones con tiempo medido (indices de los histogramas)
+    public static final int T_PISTA = 0;
+    public static final int T_FIN_JUEGO = 1;
+    public static final int T_DESHACER = 2;
+    public static final int T_PILA_A_COLUMNA = 3;
+    private static final String[] NOMBRES_TIEMPO = {"dar_pista", "verificar_fin_juego", "deshacer", "mover_pila_a_columna"};
+
+    // Se mide el tiempo de 1 de cada 64 llamadas por defecto.
+    public static final int MUESTREO_POR_DEFECTO = 64;
+
+    private final LongAdder[] hechos = nuevos(NOMBRES_TIPO.length);
+    private final LongAdder[] rechazados = nuevos(NOMBRES_TIPO.length);
+    private final LongAdder deshechos = new LongAdder();
+    private final LongAdder rehechos = new LongAdder();
+    private final LongAdder automaticas = new LongAdder();
+    private final Histograma[] tiempos = new Histograma[NOMBRES_TIEMPO.length];
+    private final int mascaraMuestreo;
+
+    public MetricasJuego() {
+        this(MUESTREO_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor.
+     * @param muestreo Se mide el tiempo de 1 de cada 'muestreo' llamadas
+     *                 (se redondea a potencia de 2; 1 = todas).
+     */
+    public MetricasJuego(int muestreo) {
+        mascaraMuestreo = Integer.highestOneBit(Math.max(1, muestreo)) - 1;
+        for (int i = 0; i < tiempos.length; i++) tiempos[i] = new Histograma();
+    }
+
+    private static LongAdder[] nuevos(int n) {
+        LongAdder[] a = new LongAdder[n];
+        for (int i = 0; i < n; i++) a[i] = new LongAdder();
+        return a;
+    }
+
+    public int getMuestreo() { return mascaraMuestreo + 1; }
+
+    /**
+     * Fabrica de juegos medidos con estas metricas: recibe el numero de partida
+     * (EightOffGame.SIN_NUMERO = al azar).
+     */
+    public LongFunction<EightOffGame> fabrica() {
+        return n -> n == EightOffGame.SIN_NUMERO ? new EightOffGameMedido(this) : new EightOffGameMedido(this, n);
+    }
+
+    /** Mascara para decidir si una llamada se mide ('(contador & mascara) == 0'). */
+    int getMascaraMuestreo() { return mascaraMuestreo; }
+
+    // --- Registro (lo llama 'EightOffGameMedido') ---
+
+    /** Registra un intento de movimiento del tipo dado (A_FUNDACION...). */
+    void movimiento(int tipo, boolean hecho) {
+        (hecho ? hechos : rechazados)[tipo].increment();
+    }
+
+    void deshecho() { deshechos.increment(); }
+
+    void rehecho() { rehechos.increment(); }
+
+    void automaticas(int n) {
+        if (n > 0) automaticas.add(n);
+    }
+
+    /** Registra el tiempo de una operacion (T_PISTA...). */
+    void tiempo(int operacion, long nanos) {
+        tiempos[operacion].registrar(nanos);
+    }
+
+    // --- Lectura ---
+
+    public long getHechos(int tipo) { return hechos[tipo].sum(); }
+
+    public long getRechazados(int tipo) { return rechazados[tipo].sum(); }
+
+    public long getIntentos(int tipo) { return getHechos(tipo) + getRechazados(tipo); }
+
+    public long getDeshechos() { return deshechos.sum(); }
+
+    public long getRehechos() { return rehechos.sum(); }
+
+    public long getAutomaticas() { return automaticas.sum(); }
+
+    public Histograma getTiempo(int operacion) { return tiempos[operacion]; }
+
+    /**
+     * Escribe todas las metricas en el formato de texto de Prometheus (version 0.0.4).
+     * Los nombres empiezan con 'eightoff_'; los tiempos van en segundos.
+     */
+    public void escribirPrometheus(StringBuilder sb) {
+        sb.append("# HELP eightoff_movimientos_total Movimientos intentados, por tipo y resultado.\n");
+        sb.append("# TYPE eightoff_movimientos_total counter\n");
+        for (int t = 0; t < NOMBRES_TIPO.length; t++) {
+            contador(sb, "eightoff_movimientos_total{tipo=\"" + NOMBRES_TIPO[t] + "\",resultado=\"hecho\"}", getHechos(t));
+            contador(sb, "eightoff_movimientos_total{tipo=\"" + NOMBRES_TIPO[t] + "\",resultado=\"rechazado\"}", getRechazados(t));
+        }
+        sb.append("# HELP eightoff_deshacer_total Pasos de Undo.\n# TYPE eightoff_deshacer_total counter\n");
+        contador(sb, "eightoff_deshacer_total", getDeshechos());
+        sb.append("# HELP eightoff_rehacer_total Pasos de Redo hechos.\n# TYPE eightoff_rehacer_total counter\n");
+        contador(sb, "eightoff_rehacer_total", getRehechos());
+        sb.append("# HELP eightoff_automaticas_total Cartas enviadas a las fundaciones por autoJugar.\n");
+        sb.append("# TYPE eightoff_automaticas_total counter\n");
+        contador(sb, "eightoff_automaticas_total", getAutomaticas());
+
+        for (int o = 0; o < NOMBRES_TIEMPO.length; o++) {
+            String nombre = "eightoff_" + NOMBRES_TIEMPO[o] + "_segundos";
+            sb.append("# HELP ").append(nombre).append(" Tiempo de ").append(NOMBRES_TIEMPO[o])
+                    .append(" (1 de cada ").append(getMuestreo()).append(" llamadas).\n");
+            sb.append("# TYPE ").append(nombre).append(" histogram\n");
+            tiempos[o].escribirPrometheus(sb, nombre);
+        }
+    }
+
+    private static void contador(StringBuilder sb, String nombre, long valor) {
+        sb.append(nombre).append(' ').append(valor).append('\n');
+    }
+
+    /**
+     * Histograma de tiempos en nanosegundos: el cubo 'k' cuenta los tiempos
+     * en [2^(k-1), 2^k) (el cubo 0, los tiempos de 0 ns). Registrar es un
+     * 'numberOfLeadingZeros' y dos sumas en LongAdder.
+     */
+    public static final class Histograma {
+        private static final int CUBOS = 41; // Hasta 2^40 ns (~18 minutos); lo demas va al ultimo
+
+        private final LongAdder[] cubos = nuevos(CUBOS);
+        private final LongAdder suma = new LongAdder();
+
+        void registrar(long nanos) {
+            int k = 64 - Long.numberOfLeadingZeros(Math.max(0, nanos));
+            cubos[Math.min(k, CUBOS - 1)].increment();
+            suma.add(nanos);
+        }
+
+        /** Cantidad de tiempos registrados. */
+        public long getCantidad() {
+            long n = 0;
+            for (LongAdder c : cubos) n += c.sum();
+            return n;
+        }
+
+        /** Suma de los tiempos registrados, en nanosegundos. */
+        public long getSumaNanos() { return suma.sum(); }
+
+        /**
+         * Cota superior del percentil 'p' (0..1), en nanosegundos
+         * (el limite del cubo donde cae; 0 si no hay datos).
+         */
+        public long percentil(double p) {
+            long[] c = new long[CUBOS];
+            long total = 0;
+            for (int k = 0; k < CUBOS; k++) total += (c[k] = cubos[k].sum());
+            long objetivo = (long) Math.ceil(p * total);
+            long acumulado = 0;
+            for (int k = 0; k < CUBOS; k++) {
+                acumulado += c[k];
+                if (acumulado >= objetivo && acumulado > 0) return k == 0 ? 0 : 1L << k;
+            }
+            return 0;
+        }
+
+        /**
+         * Escribe los cubos acumulados ('le' = limite superior en segundos),
+         * la suma y la cantidad. Los cubos vacios del final no se escriben.
+         */
+        void escribirPrometheus(StringBuilder sb, String nombre) {
+            long[] c = new long[CUBOS];
+            int ultimo = 0;
+            for (int k = 0; k < CUBOS; k++) {
+                c[k] = cubos[k].sum();
+                if (c[k] > 0) ultimo = k;
+            }
+            long acumulado = 0;
+            for (int k = 0; k <= ultimo && k < CUBOS - 1; k++) {
+                acumulado += c[k];
+                double limite = k == 0 ? 0 : (1L << k) * 1e-9;
+                sb.append(nombre).append("_bucket{le=\"").append(limite).append("\"} ").append(acumulado).append('\n');
+            }
+            for (int k = Math.min(ultimo + 1, CUBOS - 1); k < CUBOS; k++) acumulado += c[k];
+            sb.append(nombre).append("_bucket{le=\"+Inf\"} ").append(acumulado).append('\n');
+            sb.append(nombre).append("_sum ").append(getSumaNanos() * 1e-9).append('\n');
+            sb.append(nombre).append("_count ").append(acumulado).append('\n');
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package eightoff;
+
+/**
+ * ModoPilas (Regla para mover pilas)
+ * Cuantas cartas de una escalera (mismo palo, descendente) se pueden mover
+ * de una columna a otra en una sola jugada.
+ *
+ * - ESTRICTO: como si se movieran de una en una usando las celdas vacias,
+ *   asi que caben (celdas vacias + 1). En Eight Off una columna vacia solo
+ *   acepta Reyes, y en una escalera el unico Rey posible es la carta de abajo,
+ *   asi que las columnas vacias no sirven de apoyo y no suman.
+ * - RELAJADO: cualquier escalera completa (las reglas de la version anterior).
+ */
+public enum ModoPilas {
+    ESTRICTO,
+    RELAJADO;
+
+    /**
+     * Maximo de cartas que se pueden mover juntas, en O(1).
+     * @param celdasVacias Cuantas celdas libres estan vacias.
+     */
+    public int capacidad(int celdasVacias) {
+        return this == ESTRICTO ? celdasVacias + 1 : CardCode.TOTAL;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package eightoff;
+
+/**
+ * ObservadorJuego (Escucha de cambios del tablero)
+ * Interfaz que implementa quien quiera enterarse de cada cambio de 'EightOffGame'
+ * (por ejemplo la vista, para mover solo las cartas que cambiaron).
+ *
+ * Los avisos se dan en el mismo hilo que hizo el movimiento.
+ */
+public interface ObservadorJuego {
+
+    /**
+     * Una carta llego a una nueva ubicacion (movimiento, Undo o Redo).
+     * En una pila que se mueve, se avisa carta por carta, de abajo hacia arriba.
+     * @param codigo El codigo de la carta (ver 'CardCode').
+     * @param ubicacion Su nueva ubicacion empaquetada (ver 'Ubicacion').
+     */
+    void cartaMovida(int codigo, int ubicacion);
+
+    /**
+     * El tablero cambio por completo (nuevo reparto o posicion cargada):
+     * hay que volver a leer todas las ubicaciones.
+     */
+    void tableroReiniciado();
+
+    /**
+     * Empieza un lote de movimientos que forman un solo paso (ej: 'autoJugar',
+     * o el Undo de ese paso). Los 'cartaMovida' del lote llegan antes de 'loteTerminado',
+     * asi la vista puede acumularlos y dibujar una sola vez.
+     */
+    default void loteIniciado() { }
+
+    /** Termino el lote que empezo con 'loteIniciado'. */
+    default void loteTerminado() { }
+}
\ No newline at end of file
@@ -0,0 +1,561 @@
+package eightoff;
+
+import DeckOfCards.CartaInglesa;
+import DeckOfCards.Mazo;
+import DeckOfCards.Palo;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PackedBoard (Tablero Empaquetado)
+ * Representacion compacta y sin objetos de una posicion de Eight Off.
+ * Es paralela a 'EightOffGame' y se puede convertir en ambos sentidos sin perdida.
+ *
+ * Formato:
+ * - Cada carta es un codigo de 6 bits ('CardCode'), VACIO = 0x3F.
+ * - 'celdas': las 8 celdas libres, 6 bits cada una (48 bits en un long).
+ * - 'fundaciones': las 4 fundaciones, 6 bits cada una (4 bits de altura + 2 bits de palo).
+ * - 'columnas': un arreglo de bytes por columna (de abajo hacia arriba) y su altura.
+ *
+ * El historial (Undo) no forma parte de la posicion.
+ * Ademas mantiene su hash de Zobrist ('ZobristHash'), actualizado en cada cambio.
+ */
+public final class PackedBoard implements GeneradorJugadas.Tablero {
+
+    public static final int NUM_COLUMNAS = 8;
+    public static final int NUM_CELDAS = 8;
+    public static final int NUM_FUNDACIONES = 4;
+
+    // Capacidad inicial de cada columna (6 del reparto + 12 de una escalera completa).
+    private static final int CAPACIDAD_COLUMNA = 20;
+
+    // Mascara de 6 bits para extraer una carta o una fundacion.
+    private static final long MASCARA = 0x3FL;
+
+    // Todas las celdas vacias (8 veces VACIO).
+    private static final long CELDAS_VACIAS = 0xFFFF_FFFF_FFFFL;
+
+    private long celdas;                // 8 x 6 bits
+    private long fundaciones;           // 4 x (altura:4 | palo:2)
+    private final byte[][] columnas;    // Cartas de cada columna
+    private final int[] alturas;        // Numero de cartas de cada columna
+    private long hash;                  // Hash de Zobrist de la posicion
+
+    /**
+     * Constructor. Crea un tablero vacio: celdas vacias, columnas vacias y
+     * las 4 fundaciones vacias con los palos en el orden de 'Palo'.
+     */
+    public PackedBoard() {
+        columnas = new byte[NUM_COLUMNAS][CAPACIDAD_COLUMNA];
+        alturas = new int[NUM_COLUMNAS];
+        vaciar();
+    }
+
+    /**
+     * Constructor de copia.
+     */
+    public PackedBoard(PackedBoard otro) {
+        celdas = otro.celdas;
+        fundaciones = otro.fundaciones;
+        columnas = new byte[NUM_COLUMNAS][];
+        for (int i = 0; i < NUM_COLUMNAS; i++) {
+            columnas[i] = otro.columnas[i].clone();
+        }
+        alturas = otro.alturas.clone();
+        hash = otro.hash;
+    }
+
+    /**
+     * Crea el tablero inicial de una partida numerada, por el camino rapido
+     * (sin crear cartas ni el mazo). Es el mismo reparto que 'new EightOffGame(numero)'.
+     */
+    public static PackedBoard deReparto(long numeroPartida) {
+        PackedBoard b = new PackedBoard();
+        b.cargarReparto(numeroPartida, new int[CardCode.TOTAL]);
+        return b;
+    }
+
+    /**
+     * Reemplaza el contenido de este tablero con el reparto inicial de una partida.
+     * Reparte igual que 'EightOffGame': 6 rondas a las 8 columnas y 4 cartas a las celdas.
+     * @param buffer Arreglo de trabajo de 52 elementos (para no crear uno por partida).
+     */
+    public void cargarReparto(long numeroPartida, int[] buffer) {
+        Mazo.barajarCodigos(numeroPartida, buffer);
+        vaciar();
+        int k = 0;
+        for (int ronda = 0; ronda < 6; ronda++) {
+            for (int col = 0; col < NUM_COLUMNAS; col++) apilar(col, buffer[k++]);
+        }
+        for (int i = 0; i < 4; i++) setCelda(i, buffer[k++]);
+    }
+
+    /**
+     * Deja el tablero vacio, como recien creado.
+     */
+    public void vaciar() {
+        celdas = CELDAS_VACIAS;
+        fundaciones = 0;
+        for (int i = 0; i < NUM_FUNDACIONES; i++) {
+            fundaciones |= (long) (i << 4) << (i * 6);
+        }
+        Arrays.fill(alturas, 0);
+        hash = 0;
+    }
+
+    // --- Conversion con EightOffGame ---
+
+    /**
+     * Empaqueta la posicion actual de un juego.
+     * @param juego El juego (modelo de objetos).
+     * @return Un nuevo tablero empaquetado equivalente.
+     */
+    public static PackedBoard desde(EightOffGame juego) {
+        PackedBoard b = new PackedBoard();
+
+        List<CartaInglesa> celdasJuego = juego.getCeldasLibres();
+        for (int i = 0; i < NUM_CELDAS && i < celdasJuego.size(); i++) {
+            b.setCelda(i, CardCode.de(celdasJuego.get(i)));
+        }
+
+        List<FoundationDeck> fundacionesJuego = juego.getFundaciones();
+        for (int i = 0; i < NUM_FUNDACIONES; i++) {
+            FoundationDeck f = fundacionesJuego.get(i);
+            b.setFundacion(i, f.getPalo().ordinal(), f.getCartas().size());
+        }
+
+        List<TableauDeck> columnasJuego = juego.getColumnas();
+        for (int i = 0; i < NUM_COLUMNAS; i++) {
+            List<CartaInglesa> cartas = columnasJuego.get(i).getCartas();
+            for (int k = 0; k < cartas.size(); k++) {
+                b.apilar(i, cartas.get(k).getCodigo());
+            }
+        }
+        return b;
+    }
+
+    /**
+     * Crea un juego (modelo de objetos) con esta misma posicion.
+     * @return Un nuevo EightOffGame con historial vacio.
+     */
+    public EightOffGame aJuego() {
+        return new EightOffGame(this);
+    }
+
+    // --- Celdas libres ---
+
+    /** Devuelve el codigo de la carta en la celda 'i' (o VACIO). */
+    public int celda(int i) {
+        return (int) ((celdas >>> (i * 6)) & MASCARA);
+    }
+
+    /** Coloca un codigo (o VACIO) en la celda 'i', sin comprobar reglas. */
+    public void setCelda(int i, int codigo) {
+        int anterior = celda(i);
+        if (anterior != CardCode.VACIO) hash ^= ZobristHash.celda(anterior);
+        if (codigo != CardCode.VACIO) hash ^= ZobristHash.celda(codigo);
+        int shift = i * 6;
+        celdas = (celdas & ~(MASCARA << shift)) | ((long) codigo << shift);
+    }
+
+    /** Devuelve el long con las 8 celdas empaquetadas. */
+    public long getCeldas() { return celdas; }
+
+    /** Devuelve el indice de la primera celda vacia, o -1 si estan todas ocupadas. */
+    public int primeraCeldaVacia() {
+        for (int i = 0; i < NUM_CELDAS; i++) {
+            if (celda(i) == CardCode.VACIO) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Cuenta cuantas celdas estan vacias, en O(1): una celda vacia tiene sus
+     * 6 bits en 1 (VACIO), asi que se juntan con AND y se cuentan los bits.
+     */
+    public int celdasVacias() {
+        long c = celdas & (celdas >>> 1) & (celdas >>> 2) & (celdas >>> 3) & (celdas >>> 4) & (celdas >>> 5);
+        return Long.bitCount(c & 0x0410_4104_1041L);
+    }
+
+    // --- Fundaciones ---
+
+    /** Numero de cartas (0..13) en la fundacion 'i'. */
+    public int alturaFundacion(int i) {
+        return (int) ((fundaciones >>> (i * 6)) & 0xF);
+    }
+
+    /** Indice del palo (ordinal de 'Palo') de la fundacion 'i'. */
+    public int paloFundacion(int i) {
+        return (int) ((fundaciones >>> (i * 6 + 4)) & 0x3);
+    }
+
+    /** Devuelve el long con las 4 fundaciones empaquetadas. */
+    public long getFundaciones() { return fundaciones; }
+
+    /** Fija el palo y la altura de la fundacion 'i', sin comprobar reglas. */
+    public void setFundacion(int i, int palo, int altura) {
+        int base = paloFundacion(i) * 13;
+        for (int v = 0; v < alturaFundacion(i); v++) hash ^= ZobristHash.fundacion(base + v);
+        for (int v = 0; v < altura; v++) hash ^= ZobristHash.fundacion(palo * 13 + v);
+        escribirFundacion(i, palo, altura);
+    }
+
+    /** Escribe el palo y la altura de la fundacion 'i' sin tocar el hash. */
+    private void escribirFundacion(int i, int palo, int altura) {
+        int shift = i * 6;
+        fundaciones = (fundaciones & ~(MASCARA << shift)) | ((long) ((palo << 4) | altura) << shift);
+    }
+
+    /** Comprueba si la fundacion 'i' acepta la carta (misma regla que 'FoundationDeck'). */
+    public boolean puedeRecibirFundacion(int i, int codigo) {
+        return CardCode.puedeIrEnFundacion(codigo, paloFundacion(i), alturaFundacion(i));
+    }
+
+    /**
+     * Busca la primera fundacion que acepta la carta, en el mismo orden
+     * que 'EightOffGame.moverAFundacion'.
+     * @return El indice de la fundacion, o -1 si ninguna la acepta.
+     */
+    public int fundacionPara(int codigo) {
+        for (int i = 0; i < NUM_FUNDACIONES; i++) {
+            if (puedeRecibirFundacion(i, codigo)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Coloca la carta en la fundacion 'i' (el As fija el palo), sin comprobar reglas.
+     */
+    public void subirFundacion(int i, int codigo) {
+        escribirFundacion(i, CardCode.palo(codigo), alturaFundacion(i) + 1);
+        hash ^= ZobristHash.fundacion(codigo);
+    }
+
+    /**
+     * Quita la carta de arriba de la fundacion 'i'.
+     * @return El codigo quitado, o VACIO si estaba vacia.
+     */
+    public int bajarFundacion(int i) {
+        int altura = alturaFundacion(i);
+        if (altura == 0) return CardCode.VACIO;
+        int palo = paloFundacion(i);
+        escribirFundacion(i, palo, altura - 1);
+        int codigo = palo * 13 + altura - 1;
+        hash ^= ZobristHash.fundacion(codigo);
+        return codigo;
+    }
+
+    /**
+     * Busca una jugada segura a fundacion: primero las celdas y despues las columnas.
+     * En Eight Off las fundaciones y las columnas se arman por palo, asi que toda
+     * jugada legal a fundacion es segura: la unica carta que podria ponerse encima
+     * de la que sube (la anterior de su palo) ya esta en la fundacion.
+     * @return La jugada, o Jugada.NINGUNA si no hay.
+     */
+    public int jugadaSegura() {
+        for (int i = 0; i < NUM_CELDAS; i++) {
+            int c = celda(i);
+            if (c == CardCode.VACIO) continue;
+            int f = fundacionPara(c);
+            if (f >= 0) return Jugada.crear(Jugada.CELDA, i, Jugada.FUNDACION, f, 1, c);
+        }
+        for (int col = 0; col < NUM_COLUMNAS; col++) {
+            int c = cima(col);
+            if (c == CardCode.VACIO) continue;
+            int f = fundacionPara(c);
+            if (f >= 0) return Jugada.crear(Jugada.COLUMNA, col, Jugada.FUNDACION, f, 1, c);
+        }
+        return Jugada.NINGUNA;
+    }
+
+    /**
+     * Aplica jugadas seguras (ver 'jugadaSegura') hasta que no quede ninguna.
+     * Se deshacen con 'revertir', de la ultima a la primera.
+     * @param salida Donde anotar las jugadas (desde 'pos'), o null. Caben a lo sumo 52.
+     * @return Cuantas jugadas se aplicaron.
+     */
+    public int aplicarSeguras(int[] salida, int pos) {
+        int n = 0;
+        for (int j = jugadaSegura(); j != Jugada.NINGUNA; j = jugadaSegura()) {
+            aplicar(j);
+            if (salida != null) salida[pos + n] = j;
+            n++;
+        }
+        return n;
+    }
+
+    /** Cuenta las cartas que ya estan en las fundaciones (52 = victoria). */
+    public int cartasEnFundaciones() {
+        int total = 0;
+        for (int i = 0; i < NUM_FUNDACIONES; i++) total += alturaFundacion(i);
+        return total;
+    }
+
+    // --- Columnas ---
+
+    /** Numero de cartas en la columna 'col'. */
+    public int altura(int col) { return alturas[col]; }
+
+    /** Codigo de la carta en la posicion 'k' (0 = fondo) de la columna. */
+    public int carta(int col, int k) { return columnas[col][k]; }
+
+    /** Codigo de la carta de arriba de la columna, o VACIO. */
+    public int cima(int col) {
+        int h = alturas[col];
+        return h == 0 ? CardCode.VACIO : columnas[col][h - 1];
+    }
+
+    /** Comprueba si la columna acepta la carta (misma regla que 'TableauDeck'). */
+    public boolean puedeRecibirColumna(int col, int codigo) {
+        return CardCode.puedeIrEnColumna(codigo, cima(col));
+    }
+
+    /** Anade una carta arriba de la columna, sin comprobar reglas. */
+    public void apilar(int col, int codigo) {
+        byte[] cartas = columnas[col];
+        int h = alturas[col];
+        if (h == cartas.length) {
+            cartas = Arrays.copyOf(cartas, h * 2);
+            columnas[col] = cartas;
+        }
+        cartas[h] = (byte) codigo;
+        alturas[col] = h + 1;
+        hash ^= ZobristHash.columna(col, h, codigo);
+    }
+
+    /**
+     * Quita la carta de arriba de la columna.
+     * @return El codigo quitado, o VACIO si estaba vacia.
+     */
+    public int desapilar(int col) {
+        int h = alturas[col];
+        if (h == 0) return CardCode.VACIO;
+        alturas[col] = h - 1;
+        int codigo = columnas[col][h - 1];
+        hash ^= ZobristHash.columna(col, h - 1, codigo);
+        return codigo;
+    }
+
+    /**
+     * Calcula cuantas cartas de arriba de la columna forman una escalera
+     * valida (mismo palo, descendente). Es la misma deteccion de pila que
+     * usan 'darPista' y 'BoardController'.
+     */
+    public int largoEscalera(int col) {
+        int h = alturas[col];
+        if (h == 0) return 0;
+        byte[] cartas = columnas[col];
+        int largo = 1;
+        for (int k = h - 2; k >= 0; k--) {
+            if (CardCode.puedeIrEnColumna(cartas[k + 1], cartas[k])) largo++;
+            else break;
+        }
+        return largo;
+    }
+
+    /** Cuenta las columnas vacias. */
+    public int columnasVacias() {
+        int count = 0;
+        for (int i = 0; i < NUM_COLUMNAS; i++) {
+            if (alturas[i] == 0) count++;
+        }
+        return count;
+    }
+
+    // --- Jugadas ---
+
+    /**
+     * Escribe todas las jugadas legales de la posicion en 'buffer' (ver 'Jugada'),
+     * moviendo pilas segun ModoPilas.ESTRICTO.
+     */
+    public int generarJugadas(int[] buffer) {
+        return generarJugadas(buffer, ModoPilas.ESTRICTO);
+    }
+
+    /**
+     * Escribe todas las jugadas legales de la posicion en 'buffer' (ver 'Jugada'),
+     * en el orden de 'GeneradorJugadas' (el mismo que 'EightOffGame.generarJugadas').
+     * @param buffer Arreglo de al menos 'Jugada.MAX_JUGADAS' elementos.
+     * @param modo Cuantas cartas se pueden mover juntas (ver 'ModoPilas').
+     * @return Cuantas jugadas se escribieron.
+     */
+    public int generarJugadas(int[] buffer, ModoPilas modo) {
+        return GeneradorJugadas.generar(this, modo.capacidad(celdasVacias()), buffer);
+    }
+
+    /**
+     * Ejecuta una jugada (generada por 'generarJugadas'), sin comprobar reglas.
+     */
+    public void aplicar(int jugada) {
+        int num = Jugada.numCartas(jugada);
+        int origen = Jugada.origen(jugada);
+        int destino = Jugada.destino(jugada);
+
+        if (Jugada.tipoOrigen(jugada) == Jugada.COLUMNA && Jugada.tipoDestino(jugada) == Jugada.COLUMNA) {
+            moverEntreColumnas(origen, destino, num);
+            return;
+        }
+
+        int c = quitarDe(Jugada.tipoOrigen(jugada), origen);
+        ponerEn(Jugada.tipoDestino(jugada), destino, c);
+    }
+
+    /**
+     * Revierte una jugada aplicada con 'aplicar' (debe ser la ultima).
+     */
+    public void revertir(int jugada) {
+        int num = Jugada.numCartas(jugada);
+        int origen = Jugada.origen(jugada);
+        int destino = Jugada.destino(jugada);
+
+        if (Jugada.tipoOrigen(jugada) == Jugada.COLUMNA && Jugada.tipoDestino(jugada) == Jugada.COLUMNA) {
+            moverEntreColumnas(destino, origen, num);
+            return;
+        }
+
+        int c = quitarDe(Jugada.tipoDestino(jugada), destino);
+        ponerEn(Jugada.tipoOrigen(jugada), origen, c);
+    }
+
+    /**
+     * Mueve las 'num' cartas de arriba de una columna a otra, conservando el orden.
+     */
+    private void moverEntreColumnas(int origen, int destino, int num) {
+        int desde = alturas[origen] - num;
+        for (int k = 0; k < num; k++) {
+            int codigo = columnas[origen][desde + k];
+            hash ^= ZobristHash.columna(origen, desde + k, codigo);
+            apilar(destino, codigo);
+        }
+        alturas[origen] = desde;
+    }
+
+    /** Quita una carta de la pila indicada (columna, celda o fundacion). */
+    private int quitarDe(int tipo, int indice) {
+        switch (tipo) {
+            case Jugada.CELDA: {
+                int c = celda(indice);
+                setCelda(indice, CardCode.VACIO);
+                return c;
+            }
+            case Jugada.FUNDACION: return bajarFundacion(indice);
+            default: return desapilar(indice);
+        }
+    }
+
+    /** Pone una carta en la pila indicada (columna, celda o fundacion). */
+    private void ponerEn(int tipo, int indice, int codigo) {
+        switch (tipo) {
+            case Jugada.CELDA: setCelda(indice, codigo); break;
+            case Jugada.FUNDACION: subirFundacion(indice, codigo); break;
+            default: apilar(indice, codigo); break;
+        }
+    }
+
+    // --- Forma serializada ---
+
+    /** Longitud en bytes de la forma serializada ('aBytes'): 8 celdas + 4 fundaciones + 8 alturas + 52 cartas. */
+    public static final int BYTES_MAXIMOS = NUM_CELDAS + NUM_FUNDACIONES + NUM_COLUMNAS + CardCode.TOTAL;
+
+    /**
+     * Serializa la posicion en un arreglo de bytes compacto:
+     * 8 celdas, 4 fundaciones (palo:2 | altura:4) y cada columna como altura seguida de sus cartas.
+     */
+    public byte[] aBytes() {
+        int total = NUM_CELDAS + NUM_FUNDACIONES + NUM_COLUMNAS;
+        for (int i = 0; i < NUM_COLUMNAS; i++) total += alturas[i];
+        byte[] out = new byte[total];
+        escribirBytes(out, 0);
+        return out;
+    }
+
+    /**
+     * Escribe la forma serializada en 'out' a partir de 'pos'.
+     * @return La posicion siguiente al ultimo byte escrito.
+     */
+    public int escribirBytes(byte[] out, int pos) {
+        for (int i = 0; i < NUM_CELDAS; i++) out[pos++] = (byte) celda(i);
+        for (int i = 0; i < NUM_FUNDACIONES; i++) {
+            out[pos++] = (byte) ((paloFundacion(i) << 4) | alturaFundacion(i));
+        }
+        for (int i = 0; i < NUM_COLUMNAS; i++) {
+            out[pos++] = (byte) alturas[i];
+            System.arraycopy(columnas[i], 0, out, pos, alturas[i]);
+            pos += alturas[i];
+        }
+        return pos;
+    }
+
+    /**
+     * Carga en este tablero una posicion serializada con 'escribirBytes'.
+     * @return La posicion siguiente al ultimo byte leido.
+     */
+    public int cargarBytes(byte[] in, int pos) {
+        celdas = 0;
+        for (int i = 0; i < NUM_CELDAS; i++) celdas |= (long) (in[pos++] & 0x3F) << (i * 6);
+        fundaciones = 0;
+        for (int i = 0; i < NUM_FUNDACIONES; i++) fundaciones |= (long) (in[pos++] & 0x3F) << (i * 6);
+        for (int i = 0; i < NUM_COLUMNAS; i++) {
+            int h = in[pos++];
+            if (columnas[i].length < h) columnas[i] = new byte[Math.max(h, CAPACIDAD_COLUMNA)];
+            System.arraycopy(in, pos, columnas[i], 0, h);
+            alturas[i] = h;
+            pos += h;
+        }
+        hash = ZobristHash.calcular(this);
+        return pos;
+    }
+
+    // --- Object ---
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PackedBoard)) return false;
+        PackedBoard b = (PackedBoard) o;
+        if (celdas != b.celdas || fundacionesNormalizadas() != b.fundacionesNormalizadas()) return false;
+        for (int i = 0; i < NUM_COLUMNAS; i++) {
+            if (!Arrays.equals(columnas[i], 0, alturas[i], b.columnas[i], 0, b.alturas[i])) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Las fundaciones sin cartas recuerdan el palo de su ultimo As (igual que
+     * 'FoundationDeck' despues de un Undo); para comparar posiciones se ignora.
+     */
+    private long fundacionesNormalizadas() {
+        long f = fundaciones;
+        for (int i = 0; i < NUM_FUNDACIONES; i++) {
+            if (alturaFundacion(i) == 0) f &= ~(MASCARA << (i * 6));
+        }
+        return f;
+    }
+
+    /**
+     * Devuelve el hash de Zobrist de la posicion (las celdas cuentan como conjunto).
+     */
+    public long getHash() { return hash; }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Celdas:");
+        for (int i = 0; i < NUM_CELDAS; i++) sb.append(' ').append(CardCode.texto(celda(i)));
+        sb.append("\nFundaciones:");
+        for (int i = 0; i < NUM_FUNDACIONES; i++) {
+            sb.append(' ').append(Palo.values()[paloFundacion(i)]).append('=').append(alturaFundacion(i));
+        }
+        for (int i = 0; i < NUM_COLUMNAS; i++) {
+            sb.append("\nColumna ").append(i + 1).append(':');
+            for (int k = 0; k < alturas[i]; k++) sb.append(' ').append(CardCode.texto(columnas[i][k]));
+        }
+        return sb.toString();
+    }
+}
\ No newline at end of file
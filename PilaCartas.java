@@ -0,0 +1,86 @@
+package eightoff;
+
+import DeckOfCards.CartaInglesa;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PilaCartas (Pila con copia al escribir)
+ * Arreglo de cartas que usan por dentro 'TableauDeck' y 'FoundationDeck'.
+ *
+ * Una instantanea (ver 'EightOffGame.tomarInstantanea') no copia la pila: se queda
+ * con el mismo arreglo y su tamano. Las posiciones que alguna instantanea puede
+ * leer quedan protegidas, y la pila copia el arreglo solo si va a escribir en una
+ * de ellas. Agregar arriba de lo protegido o quitar cartas nunca copia.
+ */
+final class PilaCartas {
+
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    private CartaInglesa[] cartas = new CartaInglesa[CAPACIDAD_INICIAL];
+    private int tamano;
+    private int protegido; // Posiciones [0, protegido) compartidas con instantaneas
+
+    // Vista de solo lectura (la misma siempre, no se crea en cada llamada)
+    private final List<CartaInglesa> vista = new AbstractList<>() {
+        @Override
+        public CartaInglesa get(int i) {
+            if (i < 0 || i >= tamano) throw new IndexOutOfBoundsException(i);
+            return cartas[i];
+        }
+
+        @Override
+        public int size() { return tamano; }
+    };
+
+    /** Agrega una carta arriba (copia el arreglo si esa posicion esta protegida o no cabe). */
+    void agregar(CartaInglesa c) {
+        if (tamano < protegido || tamano == cartas.length) {
+            cartas = Arrays.copyOf(cartas, Math.max(cartas.length, tamano * 2));
+            protegido = 0;
+        }
+        cartas[tamano++] = c;
+    }
+
+    /** Quita y devuelve la carta de arriba, o null si esta vacia. */
+    CartaInglesa quitar() {
+        if (tamano == 0) return null;
+        CartaInglesa c = cartas[--tamano];
+        if (tamano >= protegido) cartas[tamano] = null; // Solo se limpia lo que es propio
+        return c;
+    }
+
+    CartaInglesa get(int i) { return vista.get(i); }
+
+    CartaInglesa ultima() { return tamano == 0 ? null : cartas[tamano - 1]; }
+
+    int tamano() { return tamano; }
+
+    List<CartaInglesa> vista() { return vista; }
+
+    /**
+     * Entrega el arreglo actual para una instantanea: lo que hay hasta 'tamano'
+     * ya no se vuelve a escribir en este arreglo.
+     */
+    CartaInglesa[] compartir() {
+        protegido = Math.max(protegido, tamano);
+        return cartas;
+    }
+
+    /** True si la pila sigue con el mismo arreglo y tamano que se compartieron. */
+    boolean esIgualA(CartaInglesa[] arreglo, int tam) {
+        return cartas == arreglo && tamano == tam;
+    }
+
+    /**
+     * Vuelve a un arreglo compartido. Otras instantaneas pueden leer mas alla de
+     * 'tam', asi que todo el arreglo queda protegido.
+     */
+    void restaurar(CartaInglesa[] arreglo, int tam) {
+        cartas = arreglo;
+        tamano = tam;
+        protegido = arreglo.length;
+    }
+}
\ No newline at end of file
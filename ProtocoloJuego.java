@@ -0,0 +1,193 @@
+package servidor;
+
+import DeckOfCards.CartaInglesa;
+import eightoff.EightOffGame;
+import eightoff.FoundationDeck;
+import eightoff.ModoPilas;
+import eightoff.TableauDeck;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+/**
+ * ProtocoloJuego (Ordenes de texto del servidor)
+ * Interpreta una linea de texto, la ejecuta sobre la sesion que corresponda y
+ * devuelve UNA linea de respuesta. No guarda estado propio (todo esta en el
+ * registro), asi que la pueden usar varios hilos a la vez.
+ *
+ * Ordenes (las palabras pueden ir en mayusculas o minusculas):
+ * - NUEVA [numero|-] [ESTRICTO|RELAJADO]  -> OK id numero
+ * - MOVER id jugada [AUTO]                -> OK enFundaciones automaticas
+ * - DESHACER id / REHACER id              -> OK enFundaciones
+ * - AUTO id                               -> OK automaticas
+ * - JUGADAS id                            -> OK n jugada1 jugada2 ...
+ * - PISTA id                              -> OK texto
+ * - ESTADO id                             -> OK numero enFundaciones SIGUE|GANADA|BLOQUEADA hash
+ * - TABLERO id                            -> OK 8 celdas, 4 fundaciones (su cima) y 8 columnas
+ * - CERRAR id                             -> OK
+ * Las jugadas son los int de 'Jugada' en decimal; las cartas, codigos de 'CardCode'
+ * ('-' = vacio; las columnas van de abajo hacia arriba, separadas por comas).
+ * Cualquier error responde "ERROR motivo" y la conexion sigue.
+ */
+public final class ProtocoloJuego {
+
+    // Crea juegos sin metricas (EightOffGame.SIN_NUMERO = reparto al azar).
+    public static final LongFunction<EightOffGame> JUEGO_SIMPLE =
+            n -> n == EightOffGame.SIN_NUMERO ? new EightOffGame() : new EightOffGame(n);
+
+    private final RegistroSesiones registro;
+    private final LongFunction<EightOffGame> fabrica;
+
+    public ProtocoloJuego() {
+        this(new RegistroSesiones());
+    }
+
+    public ProtocoloJuego(RegistroSesiones registro) {
+        this(registro, JUEGO_SIMPLE);
+    }
+
+    /**
+     * Constructor.
+     * @param fabrica Crea el juego de cada sesion nueva a partir del numero de
+     *                partida (ej: 'MetricasJuego.fabrica()' para juegos medidos). Con
+     *                SIN_NUMERO puede usar una fuente de repartos, ej:
+     *                'new EightOffGame(base.fuente(min, max))'.
+     */
+    public ProtocoloJuego(RegistroSesiones registro, LongFunction<EightOffGame> fabrica) {
+        this.registro = registro;
+        this.fabrica = fabrica;
+    }
+
+    public RegistroSesiones getRegistro() { return registro; }
+
+    /**
+     * Ejecuta una orden.
+     * @param linea La orden, sin el fin de linea.
+     * @return La respuesta, sin el fin de linea.
+     */
+    public String atender(String linea) {
+        String[] p = linea.trim().split("\\s+");
+        try {
+            switch (p[0].toUpperCase(Locale.ROOT)) {
+                case "NUEVA":    return nueva(p);
+                case "MOVER":    return mover(p);
+                case "DESHACER": return enSesion(p[1], ProtocoloJuego::deshacer);
+                case "REHACER":  return enSesion(p[1], ProtocoloJuego::rehacer);
+                case "AUTO":     return enSesion(p[1], s -> "OK " + s.getJuego().autoJugar(true));
+                case "JUGADAS":  return enSesion(p[1], ProtocoloJuego::jugadas);
+                case "PISTA":    return enSesion(p[1], ProtocoloJuego::pista);
+                case "ESTADO":   return enSesion(p[1], ProtocoloJuego::estado);
+                case "TABLERO":  return enSesion(p[1], ProtocoloJuego::tablero);
+                case "CERRAR":   return registro.quitar(Long.parseLong(p[1])) != null ? "OK" : "ERROR sesion desconocida";
+                default:         return "ERROR orden desconocida: " + p[0];
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            return "ERROR formato: " + linea.trim();
+        } catch (IllegalStateException e) {
+            return "ERROR " + e.getMessage(); // Ej: la sesion se cerro mientras tanto
+        } catch (RuntimeException e) {
+            return "ERROR interno: " + e; // La sesion sigue usable para las demas ordenes
+        }
+    }
+
+    private String nueva(String[] p) {
+        EightOffGame juego = fabrica.apply((p.length > 1 && !p[1].equals("-"))
+                ? Long.parseLong(p[1])
+                : EightOffGame.SIN_NUMERO); // Al azar (o lo que reparta la fabrica)
+        if (p.length > 2) {
+            try {
+                juego.setModo(ModoPilas.valueOf(p[2].toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                return "ERROR modo desconocido: " + p[2];
+            }
+        }
+        Sesion s = registro.crear(juego);
+        return "OK " + s.getId() + " " + juego.getNumeroPartida();
+    }
+
+    private String mover(String[] p) {
+        int jugada = Integer.parseInt(p[2]);
+        boolean auto = p.length > 3 && p[3].equalsIgnoreCase("AUTO");
+        return enSesion(p[1], s -> {
+            EightOffGame juego = s.getJuego();
+            if (!juego.aplicarJugada(jugada)) return "ERROR jugada ilegal";
+            int automaticas = auto ? juego.autoJugar(true) : 0;
+            return "OK " + juego.getCartasEnFundaciones() + " " + automaticas;
+        });
+    }
+
+    /**
+     * Busca la sesion y ejecuta la orden con acceso exclusivo a su juego.
+     */
+    private String enSesion(String id, Function<Sesion, String> orden) {
+        Sesion s = registro.buscar(Long.parseLong(id));
+        if (s == null) return "ERROR sesion desconocida";
+        return s.ejecutar(orden);
+    }
+
+    // --- Ordenes sobre una sesion (corren con el turno de la sesion) ---
+
+    private static String deshacer(Sesion s) {
+        EightOffGame juego = s.getJuego();
+        if (!juego.puedeDeshacer()) return "ERROR nada que deshacer";
+        juego.deshacerMovimiento();
+        return "OK " + juego.getCartasEnFundaciones();
+    }
+
+    private static String rehacer(Sesion s) {
+        EightOffGame juego = s.getJuego();
+        if (!juego.rehacerMovimiento()) return "ERROR nada que rehacer";
+        return "OK " + juego.getCartasEnFundaciones();
+    }
+
+    private static String jugadas(Sesion s) {
+        int[] buffer = s.getBufferJugadas();
+        int n = s.getJuego().generarJugadas(buffer);
+        StringBuilder sb = new StringBuilder(8 + n * 8).append("OK ").append(n);
+        for (int i = 0; i < n; i++) sb.append(' ').append(buffer[i]);
+        return sb.toString();
+    }
+
+    private static String pista(Sesion s) {
+        String pista = s.getJuego().darPista();
+        return "OK " + (pista != null ? pista : "No hay movimientos.");
+    }
+
+    private static String estado(Sesion s) {
+        EightOffGame juego = s.getJuego();
+        String fin = juego.verificarFinJuego();
+        String estado = fin == null ? "SIGUE" : juego.getCartasEnFundaciones() == 52 ? "GANADA" : "BLOQUEADA";
+        return "OK " + juego.getNumeroPartida() + " " + juego.getCartasEnFundaciones()
+                + " " + estado + " " + Long.toHexString(juego.getHash());
+    }
+
+    private static String tablero(Sesion s) {
+        EightOffGame juego = s.getJuego();
+        StringBuilder sb = new StringBuilder(256).append("OK");
+        for (CartaInglesa c : juego.getCeldasLibres()) {
+            sb.append(' ');
+            agregarCarta(sb, c);
+        }
+        for (FoundationDeck f : juego.getFundaciones()) {
+            sb.append(' ');
+            agregarCarta(sb, f.getUltimaCarta());
+        }
+        for (TableauDeck col : juego.getColumnas()) {
+            List<CartaInglesa> cartas = col.getCartas();
+            sb.append(' ');
+            if (cartas.isEmpty()) sb.append('-');
+            for (int k = 0; k < cartas.size(); k++) {
+                if (k > 0) sb.append(',');
+                sb.append(cartas.get(k).getCodigo());
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void agregarCarta(StringBuilder sb, CartaInglesa c) {
+        if (c == null) sb.append('-');
+        else sb.append(c.getCodigo());
+    }
+}
\ No newline at end of file
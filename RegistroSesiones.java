@@ -0,0 +1,167 @@
+package servidor;
+
+import eightoff.EightOffGame;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RegistroSesiones (Sesiones abiertas del servidor)
+ * Mapa de identificador a 'Sesion', partido en 'FRAGMENTOS' mapas con su
+ * propio candado, para que miles de conexiones no compitan por uno solo.
+ *
+ * - Los bits bajos del identificador dicen el fragmento, asi que buscar
+ *   una sesion solo bloquea su fragmento (y por muy poco tiempo).
+ * - Las sesiones nuevas van a un fragmento al azar, con un contador por
+ *   fragmento: crear tampoco pasa por un punto comun.
+ * - El candado solo protege el mapa; el juego lo protege la propia 'Sesion'.
+ *
+ * Con un 'AlmacenSesiones', cada fragmento ademas lleva sus sesiones vivas (con
+ * el juego armado) en orden de uso (LRU). Si pasan de su cupo, la usada hace mas
+ * tiempo se hiberna; se despierta sola con su siguiente orden. Como cada
+ * fragmento tiene su propio LRU, el orden es aproximado entre fragmentos, pero
+ * actualizarlo no agrega candados: usa el mismo de la busqueda.
+ */
+public final class RegistroSesiones {
+
+    // Cantidad de fragmentos (potencia de 2; bastante mas que nucleos).
+    private static final int BITS_FRAGMENTO = 6;
+    private static final int FRAGMENTOS = 1 << BITS_FRAGMENTO;
+
+    private final Fragmento[] fragmentos = new Fragmento[FRAGMENTOS];
+    private final LongAdder tamano = new LongAdder();
+    private final AlmacenSesiones almacen;
+    private final int vivasPorFragmento;
+
+    /**
+     * Constructor de un registro que nunca hiberna sesiones.
+     */
+    public RegistroSesiones() {
+        this(null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructor.
+     * @param almacen Donde se hibernan las sesiones que sobran (null = nunca se hibernan).
+     * @param maxVivas Cuantas sesiones pueden tener el juego armado a la vez
+     *                 (aproximado: el cupo se reparte entre los fragmentos).
+     */
+    public RegistroSesiones(AlmacenSesiones almacen, int maxVivas) {
+        this.almacen = almacen;
+        this.vivasPorFragmento = Math.max(1, maxVivas / FRAGMENTOS);
+        for (int i = 0; i < FRAGMENTOS; i++) fragmentos[i] = new Fragmento();
+    }
+
+    /**
+     * Registra una sesion nueva para el juego y le asigna identificador.
+     */
+    public Sesion crear(EightOffGame juego) {
+        int f = ThreadLocalRandom.current().nextInt(FRAGMENTOS);
+        Fragmento fragmento = fragmentos[f];
+        Sesion s, victima;
+        synchronized (fragmento) {
+            long id = (++fragmento.contador << BITS_FRAGMENTO) | f;
+            s = new Sesion(id, juego, almacen);
+            fragmento.sesiones.put(id, s);
+            victima = usar(fragmento, s);
+        }
+        tamano.increment();
+        if (victima != null) hibernar(fragmento, victima);
+        return s;
+    }
+
+    /**
+     * Devuelve la sesion con ese identificador, o null si no existe.
+     */
+    public Sesion buscar(long id) {
+        Fragmento fragmento = fragmentoDe(id);
+        Sesion s, victima = null;
+        synchronized (fragmento) {
+            s = fragmento.sesiones.get(id);
+            if (s != null) victima = usar(fragmento, s);
+        }
+        if (victima != null) hibernar(fragmento, victima);
+        return s;
+    }
+
+    /**
+     * Quita la sesion del registro.
+     * @return La sesion quitada, o null si no existia.
+     */
+    public Sesion quitar(long id) {
+        Fragmento fragmento = fragmentoDe(id);
+        Sesion s;
+        synchronized (fragmento) {
+            s = fragmento.sesiones.remove(id);
+            fragmento.vivas.remove(id);
+        }
+        if (s != null) {
+            tamano.decrement();
+            s.cerrar();
+        }
+        return s;
+    }
+
+    /**
+     * Con el candado del fragmento: marca la sesion como la ultima usada (el
+     * juego se va a usar, asi que cuenta como viva) y, si el fragmento paso
+     * su cupo, saca del LRU la usada hace mas tiempo.
+     * @return La sesion a hibernar, o null.
+     */
+    private Sesion usar(Fragmento fragmento, Sesion s) {
+        if (almacen == null) return null;
+        if (fragmento.vivas.get(s.getId()) != null) return null; // 'get' la pasa al final
+        fragmento.vivas.put(s.getId(), s);
+        if (fragmento.vivas.size() <= vivasPorFragmento) return null;
+        Iterator<Sesion> it = fragmento.vivas.values().iterator();
+        Sesion victima = it.next();
+        it.remove();
+        return victima;
+    }
+
+    /**
+     * Hiberna la sesion (fuera del candado: guardar copia bytes). Si estaba en
+     * uso (no estaba inactiva) o su juego no se puede guardar, vuelve al LRU
+     * como la ultima usada.
+     */
+    private void hibernar(Fragmento fragmento, Sesion victima) {
+        if (victima.hibernar()) return;
+        synchronized (fragmento) {
+            if (fragmento.sesiones.containsKey(victima.getId())) fragmento.vivas.put(victima.getId(), victima);
+        }
+    }
+
+    /** El almacen de sesiones hibernadas, o null. */
+    public AlmacenSesiones getAlmacen() { return almacen; }
+
+    /** Cantidad de sesiones con el juego armado (segun los LRU; todas si no se hiberna). */
+    public long getVivas() {
+        if (almacen == null) return getTamano();
+        long n = 0;
+        for (Fragmento f : fragmentos) {
+            synchronized (f) {
+                n += f.vivas.size();
+            }
+        }
+        return n;
+    }
+
+    /** Cantidad de sesiones registradas (aproximada si se esta creando o quitando). */
+    public long getTamano() { return tamano.sum(); }
+
+    private Fragmento fragmentoDe(long id) {
+        return fragmentos[(int) id & (FRAGMENTOS - 1)];
+    }
+
+    /**
+     * Un fragmento del registro. Se sincroniza sobre el propio objeto.
+     */
+    private static final class Fragmento {
+        final HashMap<Long, Sesion> sesiones = new HashMap<>();
+        final LinkedHashMap<Long, Sesion> vivas = new LinkedHashMap<>(16, 0.75f, true); // En orden de uso
+        long contador;
+    }
+}
\ No newline at end of file
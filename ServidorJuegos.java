@@ -0,0 +1,197 @@
+package servidor;
+
+import eightoff.EightOffGame;
+import eightoff.MetricasJuego;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+/**
+ * ServidorJuegos (Servidor de partidas sin interfaz)
+ * Atiende las ordenes de 'ProtocoloJuego' por TCP: una orden por linea y una
+ * linea de respuesta por orden. Cada conexion tiene su propio hilo, que lee,
+ * ejecuta la orden sobre la sesion y responde.
+ *
+ * - Si la JVM tiene hilos virtuales (Java 21+), hay uno por conexion; si no,
+ *   hilos de plataforma con pila chica, uno por conexion.
+ * - Las respuestas se envian cuando el cliente no tiene mas ordenes en camino,
+ *   asi un cliente puede mandar varias ordenes seguidas sin esperar cada respuesta.
+ * - Las sesiones no son de la conexion: sobreviven a un corte y se pueden seguir
+ *   usando desde otra conexion con su id, hasta que alguien las cierra (CERRAR).
+ * - SALIR termina la conexion; 'close' corta todas las conexiones abiertas.
+ */
+public final class ServidorJuegos implements Closeable {
+
+    // Puerto por defecto.
+    public static final int PUERTO_POR_DEFECTO = 8808;
+
+    // Pila de cada hilo de conexion cuando no hay hilos virtuales (las ordenes son cortas).
+    private static final long PILA_HILO = 256 * 1024;
+
+    // Pausa despues de un error de 'accept' (ej: sin descriptores libres): empieza
+    // en PAUSA_MIN_MS y se duplica con cada error seguido, hasta PAUSA_MAX_MS.
+    private static final long PAUSA_MIN_MS = 10;
+    private static final long PAUSA_MAX_MS = 1000;
+
+    private final ProtocoloJuego protocolo;
+    private final ServerSocket servidor;
+    private final ExecutorService conexiones = crearEjecutor();
+    private final Set<Socket> abiertas = ConcurrentHashMap.newKeySet(); // Para cortarlas en 'close'
+    private volatile boolean cerrado;
+
+    /**
+     * Abre el servidor en localhost y empieza a aceptar conexiones.
+     * @param puerto El puerto (0 = uno libre, ver 'getPuerto').
+     */
+    public ServidorJuegos(int puerto, ProtocoloJuego protocolo) throws IOException {
+        this.protocolo = protocolo;
+        servidor = new ServerSocket();
+        servidor.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto), 1024);
+        Thread aceptador = new Thread(this::aceptar, "servidor-aceptador");
+        aceptador.setDaemon(true);
+        aceptador.start();
+    }
+
+    public int getPuerto() { return servidor.getLocalPort(); }
+
+    public ProtocoloJuego getProtocolo() { return protocolo; }
+
+    /** Conexiones abiertas en este momento. */
+    public int getConexiones() { return abiertas.size(); }
+
+    /**
+     * Acepta conexiones hasta el cierre. Si 'accept' falla, espera antes de
+     * reintentar (cada vez mas, ver PAUSA_MIN_MS), asi un error que se repite
+     * no deja al aceptador girando en vacio.
+     */
+    private void aceptar() {
+        long pausa = PAUSA_MIN_MS;
+        while (!cerrado) {
+            try {
+                Socket s = servidor.accept();
+                pausa = PAUSA_MIN_MS;
+                abiertas.add(s);
+                if (cerrado) { // 'close' ya recorrio las abiertas: esta no la vio
+                    cerrar(s);
+                    break;
+                }
+                s.setTcpNoDelay(true); // Respuestas cortas: no esperar a juntar bytes
+                conexiones.execute(() -> atender(s));
+            } catch (IOException e) {
+                if (cerrado) break;
+                System.err.println("Error aceptando conexion: " + e.getMessage());
+                try {
+                    Thread.sleep(pausa);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                pausa = Math.min(pausa * 2, PAUSA_MAX_MS);
+            }
+        }
+    }
+
+    /**
+     * Lee ordenes de la conexion hasta que se cierre o llegue SALIR.
+     */
+    private void atender(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            String linea;
+            while ((linea = in.readLine()) != null) {
+                if (linea.trim().equalsIgnoreCase("SALIR")) break;
+                out.write(protocolo.atender(linea));
+                out.write('\n');
+                if (!in.ready()) out.flush(); // No quedan ordenes en camino: responder ya
+            }
+        } catch (IOException e) {
+            // El cliente corto la conexion (o 'close'): sus sesiones quedan en el registro
+        } finally {
+            abiertas.remove(socket);
+        }
+    }
+
+    /**
+     * Deja de aceptar conexiones y corta las abiertas. Las sesiones quedan en el registro.
+     * Las conexiones se cortan cerrando su socket: un hilo bloqueado leyendo no
+     * responde a 'shutdownNow' (la interrupcion no corta una lectura de socket).
+     */
+    @Override
+    public void close() throws IOException {
+        cerrado = true;
+        servidor.close();
+        for (Socket s : abiertas) cerrar(s);
+        conexiones.shutdownNow();
+        try {
+            conexiones.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void cerrar(Socket s) {
+        try {
+            s.close();
+        } catch (IOException e) {
+            // Ya estaba cortada
+        }
+    }
+
+    /**
+     * Un hilo virtual por tarea si la JVM los tiene (se busca por reflexion para
+     * compilar con Java 17); si no, un hilo de plataforma (daemon) por tarea.
+     */
+    private static ExecutorService crearEjecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger numero = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(null, r, "servidor-conexion-" + numero.incrementAndGet(), PILA_HILO);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Uso: ServidorJuegos [puerto] [maxVivas] [puertoMetricas]
+     * Con maxVivas (> 0), las sesiones que sobran se hibernan (ver 'AlmacenSesiones').
+     * Con puertoMetricas, los juegos se miden ('EightOffGameMedido') y las metricas
+     * se sirven en http://localhost:puertoMetricas/metrics.
+     * Atiende hasta que se corta el proceso.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int puerto = args.length > 0 ? Integer.parseInt(args[0]) : PUERTO_POR_DEFECTO;
+        int maxVivas = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        MetricasJuego metricas = args.length > 2 ? new MetricasJuego() : null;
+        LongFunction<EightOffGame> fabrica = metricas != null ? metricas.fabrica() : ProtocoloJuego.JUEGO_SIMPLE;
+
+        RegistroSesiones registro = maxVivas > 0
+                ? new RegistroSesiones(new AlmacenSesiones(fabrica), maxVivas)
+                : new RegistroSesiones();
+        ServidorJuegos s = new ServidorJuegos(puerto, new ProtocoloJuego(registro, fabrica));
+        System.err.println("Servidor EightOff en el puerto " + s.getPuerto());
+        if (metricas != null) {
+            ExportadorMetricas e = new ExportadorMetricas(Integer.parseInt(args[2]), metricas, registro, s);
+            System.err.println("Metricas en http://localhost:" + e.getPuerto() + "/metrics");
+        }
+        Thread.currentThread().join(); // El aceptador es daemon: el hilo principal mantiene vivo el proceso
+    }
+}
\ No newline at end of file
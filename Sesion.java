@@ -0,0 +1,193 @@
+package servidor;
+
+import eightoff.EightOffGame;
+import eightoff.Jugada;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Sesion (Partida de un jugador en el servidor)
+ * Un 'EightOffGame' con su identificador. El juego no es seguro entre hilos,
+ * asi que la sesion lo confina a un solo escritor a la vez, sin candados:
+ *
+ * - Cada orden entra en una cola; el hilo que consigue el turno ('ocupada')
+ *   ejecuta la suya y las que encuentre en la cola, en orden de llegada.
+ * - Si la sesion esta libre y la cola vacia (el caso normal: un jugador, una
+ *   conexion), la orden corre directo en el hilo que la pide, sin cola ni espera.
+ * - Los demas hilos esperan su resultado. El turno pasa por un AtomicBoolean,
+ *   que da la visibilidad del estado del juego entre un escritor y el siguiente.
+ *
+ * Una sesion inactiva se puede hibernar: su juego pasa a bytes en un
+ * 'AlmacenSesiones' y el objeto se suelta. La siguiente orden lo vuelve a
+ * armar antes de correr, asi que para las ordenes nunca esta hibernada.
+ */
+public final class Sesion {
+
+    private final long id;
+    private final AlmacenSesiones almacen; // null = no se hiberna
+
+    // Solo los toca quien tiene el turno
+    private EightOffGame juego;                     // null mientras esta hibernada
+    private int registro = AlmacenSesiones.NINGUNO; // Donde esta guardada mientras esta hibernada
+    private int[] jugadas;                          // Buffer de jugadas (se crea al usarlo)
+    private boolean cerrada;
+    private volatile boolean hibernada;
+
+    private final ConcurrentLinkedQueue<Pedido<?>> pendientes = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean ocupada = new AtomicBoolean();
+    private volatile long ultimoUso = System.nanoTime();
+
+    Sesion(long id, EightOffGame juego, AlmacenSesiones almacen) {
+        this.id = id;
+        this.juego = juego;
+        this.almacen = almacen;
+    }
+
+    public long getId() { return id; }
+
+    /** Momento ('System.nanoTime') de la ultima orden ejecutada. */
+    public long getUltimoUso() { return ultimoUso; }
+
+    /**
+     * Ejecuta una orden sobre el juego, con acceso exclusivo, y devuelve su resultado.
+     * Las ordenes de una misma sesion se ejecutan de a una, en orden de llegada.
+     * Una excepcion de la orden se relanza en el hilo que la pidio.
+     * @throws IllegalStateException Si la sesion ya se cerro.
+     */
+    public <R> R ejecutar(Function<Sesion, R> orden) {
+        return ejecutar(orden, true);
+    }
+
+    private <R> R ejecutar(Function<Sesion, R> orden, boolean despertar) {
+        // Camino rapido: nadie mas esta usando la sesion
+        if (pendientes.isEmpty() && ocupada.compareAndSet(false, true)) {
+            try {
+                if (despertar) despertar();
+                return orden.apply(this);
+            } finally {
+                ultimoUso = System.nanoTime();
+                ocupada.set(false);
+                drenar(); // Pudo llegar otra orden mientras tanto
+            }
+        }
+        Pedido<R> pedido = new Pedido<>(orden, despertar);
+        pendientes.add(pedido);
+        drenar();
+        try {
+            return pedido.resultado.join();
+        } catch (CompletionException e) {
+            // Relanza la excepcion original de la orden
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Toma el turno (si esta libre) y ejecuta las ordenes de la cola.
+     * Vuelve a mirar la cola despues de soltar el turno: una orden que llego
+     * justo entonces la ejecuta este hilo o el que la encolo.
+     */
+    private void drenar() {
+        while (!pendientes.isEmpty() && ocupada.compareAndSet(false, true)) {
+            try {
+                Pedido<?> p;
+                while ((p = pendientes.poll()) != null) p.correr(this);
+            } finally {
+                ultimoUso = System.nanoTime();
+                ocupada.set(false);
+            }
+        }
+    }
+
+    /**
+     * Con el turno: si la sesion esta hibernada, vuelve a armar su juego.
+     */
+    private void despertar() {
+        if (juego != null) return;
+        if (cerrada) throw new IllegalStateException("sesion cerrada");
+        juego = almacen.cargar(registro);
+        registro = AlmacenSesiones.NINGUNO;
+        hibernada = false;
+    }
+
+    /**
+     * Pasa el juego al almacen y lo suelta, si la sesion esta libre
+     * (no espera: una sesion en uso no esta inactiva) y el almacen lo puede
+     * guardar (ver 'AlmacenSesiones.puedeGuardar'); si no, la sesion sigue viva.
+     * @return true si la sesion quedo hibernada.
+     */
+    boolean hibernar() {
+        if (almacen == null || !ocupada.compareAndSet(false, true)) return false;
+        try {
+            if (juego != null && pendientes.isEmpty() && almacen.puedeGuardar(juego)) {
+                registro = almacen.guardar(juego);
+                almacen.reciclar(juego);
+                juego = null;
+                jugadas = null;
+                hibernada = true;
+            }
+            return juego == null;
+        } finally {
+            ocupada.set(false);
+            drenar();
+        }
+    }
+
+    /**
+     * Cierra la sesion: libera su registro (sin despertarla) o recicla su juego.
+     * Las ordenes que lleguen despues fallan.
+     */
+    void cerrar() {
+        ejecutar(s -> {
+            if (registro != AlmacenSesiones.NINGUNO) almacen.liberar(registro);
+            else if (almacen != null && juego != null) almacen.reciclar(juego);
+            registro = AlmacenSesiones.NINGUNO;
+            juego = null;
+            jugadas = null;
+            cerrada = true;
+            return null;
+        }, false);
+    }
+
+    /** True si el juego esta guardado como bytes (dato aproximado, para estadisticas). */
+    public boolean isHibernada() { return hibernada; }
+
+    // --- Solo para las ordenes (corren con el turno) ---
+
+    /** El juego de la sesion. Usarlo solo dentro de una orden de 'ejecutar'. */
+    public EightOffGame getJuego() { return juego; }
+
+    /** Buffer para 'generarJugadas'. Usarlo solo dentro de una orden de 'ejecutar'. */
+    public int[] getBufferJugadas() {
+        if (jugadas == null) jugadas = new int[Jugada.MAX_JUGADAS];
+        return jugadas;
+    }
+
+    /**
+     * Una orden encolada con el futuro de su resultado.
+     */
+    private static final class Pedido<R> {
+        final Function<Sesion, R> orden;
+        final boolean despertar;
+        final CompletableFuture<R> resultado = new CompletableFuture<>();
+
+        Pedido(Function<Sesion, R> orden, boolean despertar) {
+            this.orden = orden;
+            this.despertar = despertar;
+        }
+
+        void correr(Sesion s) {
+            try {
+                if (despertar) s.despertar();
+                resultado.complete(orden.apply(s));
+            } catch (RuntimeException | Error e) {
+                resultado.completeExceptionally(e);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+package eightoff;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+/**
+ * Simulador (Partidas sin interfaz)
+ * Juega partidas numeradas con una 'Estrategia', sin JavaFX, a la velocidad
+ * de la maquina, y reporta el porcentaje de victorias y las jugadas por segundo.
+ *
+ * - Cada hilo tiene su propio juego, su estrategia y su buffer de jugadas.
+ * - Una partida termina al ganar, cuando no hay jugadas legales, cuando la
+ *   estrategia se rinde o al llegar al limite de jugadas.
+ */
+public final class Simulador {
+
+    // Jugadas maximas por partida (corta las partidas que dan vueltas).
+    public static final int LIMITE_JUGADAS_POR_DEFECTO = 1000;
+
+    private final Supplier<Estrategia> fabrica;
+    private final int hilos;
+    private final int limiteJugadas;
+
+    /**
+     * Constructor.
+     * @param fabrica Crea una estrategia por hilo.
+     * @param hilos Cuantos hilos usar.
+     * @param limiteJugadas Jugadas maximas por partida.
+     */
+    public Simulador(Supplier<Estrategia> fabrica, int hilos, int limiteJugadas) {
+        this.fabrica = fabrica;
+        this.hilos = hilos;
+        this.limiteJugadas = limiteJugadas;
+    }
+
+    /**
+     * Juega las partidas con numero en [desde, hasta) y espera a que terminen.
+     */
+    public Resumen simular(long desde, long hasta) {
+        LongAdder ganadas = new LongAdder();
+        LongAdder jugadas = new LongAdder();
+        ThreadLocal<Trabajador> trabajadores = ThreadLocal.withInitial(() -> new Trabajador(fabrica.get()));
+
+        long t0 = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(hilos);
+        try {
+            pool.submit(() -> LongStream.range(desde, hasta).parallel().forEach(numero -> {
+                Trabajador t = trabajadores.get();
+                t.juego.iniciarJuego(numero);
+                int hechas = jugar(t.juego, t.estrategia, t.buffer, limiteJugadas);
+                jugadas.add(hechas >= 0 ? hechas : -hechas - 1);
+                if (hechas >= 0) ganadas.increment();
+            })).join();
+        } finally {
+            pool.shutdown();
+        }
+        return new Resumen(hasta - desde, ganadas.sum(), jugadas.sum(), System.nanoTime() - t0);
+    }
+
+    /**
+     * Juega una partida desde su posicion actual hasta que termine.
+     * @param buffer Arreglo de al menos 'Jugada.MAX_JUGADAS' elementos.
+     * @return Las jugadas hechas si se gano, o (-jugadas hechas - 1) si no.
+     */
+    public static int jugar(EightOffGame juego, Estrategia estrategia, int[] buffer, int limiteJugadas) {
+        estrategia.nuevaPartida(juego);
+        int hechas = 0;
+        while (hechas < limiteJugadas) {
+            int n = juego.generarJugadas(buffer);
+            if (n == 0) break;
+            int jugada = estrategia.elegir(juego, buffer, n);
+            if (jugada == Jugada.NINGUNA || !juego.aplicarJugada(jugada)) break;
+            hechas++;
+        }
+        return ganada(juego) ? hechas : -hechas - 1;
+    }
+
+    /** True si las 52 cartas estan en las fundaciones. */
+    private static boolean ganada(EightOffGame juego) {
+        int total = 0;
+        for (FoundationDeck f : juego.getFundaciones()) total += f.getCartas().size();
+        return total == CardCode.TOTAL;
+    }
+
+    /**
+     * Estructuras de un hilo (nunca se comparten).
+     */
+    private static final class Trabajador {
+        private final EightOffGame juego = new EightOffGame(1);
+        private final int[] buffer = new int[Jugada.MAX_JUGADAS];
+        private final Estrategia estrategia;
+
+        Trabajador(Estrategia estrategia) {
+            this.estrategia = estrategia;
+        }
+    }
+
+    /**
+     * Totales de una simulacion.
+     */
+    public static final class Resumen {
+        private final long partidas;
+        private final long ganadas;
+        private final long jugadas;
+        private final long nanos;
+
+        Resumen(long partidas, long ganadas, long jugadas, long nanos) {
+            this.partidas = partidas;
+            this.ganadas = ganadas;
+            this.jugadas = jugadas;
+            this.nanos = nanos;
+        }
+
+        public long getPartidas() { return partidas; }
+        public long getGanadas() { return ganadas; }
+        public long getJugadas() { return jugadas; }
+        public long getNanos() { return nanos; }
+
+        /** Fraccion de partidas ganadas (0..1). */
+        public double getTasaVictorias() {
+            return partidas == 0 ? 0 : (double) ganadas / partidas;
+        }
+
+        public double getJugadasPorSegundo() {
+            return nanos == 0 ? 0 : jugadas * 1e9 / nanos;
+        }
+
+        public double getPartidasPorSegundo() {
+            return nanos == 0 ? 0 : partidas * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d partidas, %d ganadas (%.2f%%), %d jugadas, %.2f s, %.0f jugadas/s, %.0f partidas/s",
+                    partidas, ganadas, 100 * getTasaVictorias(), jugadas, nanos / 1e9,
+                    getJugadasPorSegundo(), getPartidasPorSegundo());
+        }
+    }
+
+    /**
+     * Uso: Simulador estrategia partidas [desde] [hilos] [limiteJugadas]
+     * La estrategia es "aleatoria", "codiciosa" o "resolvedor".
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Uso: Simulador aleatoria|codiciosa|resolvedor partidas [desde] [hilos] [limiteJugadas]");
+            return;
+        }
+        String nombre = args[0];
+        long partidas = Long.parseLong(args[1]);
+        long desde = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        int hilos = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int limite = args.length > 4 ? Integer.parseInt(args[4]) : LIMITE_JUGADAS_POR_DEFECTO;
+
+        Estrategias.porNombre(nombre); // Falla aqui si el nombre no existe
+        Resumen r = new Simulador(() -> Estrategias.porNombre(nombre), hilos, limite).simular(desde, desde + partidas);
+        System.out.println(nombre + ": " + r);
+    }
+}
\ No newline at end of file
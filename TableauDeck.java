@@ -8,42 +8,53 @@ import DeckOfCards.CartaInglesa;
  */
 public class TableauDeck {
 
-    // Lista interna que almacena las cartas de esta columna.
-    private final java.util.List<CartaInglesa> cartas = new java.util.ArrayList<>();
+    // Pila interna que almacena las cartas de esta columna (con copia al escribir).
+    private final PilaCartas cartas = new PilaCartas();
 
     /**
      * Devuelve la lista completa de cartas (usado por la UI para dibujar).
+     * Es una vista de solo lectura.
      */
-    public java.util.List<CartaInglesa> getCartas() { return cartas; }
+    public java.util.List<CartaInglesa> getCartas() { return cartas.vista(); }
+
+    /** Pila interna (para las instantaneas de 'EightOffGame'). */
+    PilaCartas getPila() { return cartas; }
 
     /**
      * Añade una carta al final, sin comprobar reglas.
      * Usado para el reparto inicial y para 'Deshacer'.
      */
-    public void agregarCartaForzada(CartaInglesa c) { if (c != null) cartas.add(c); }
+    public void agregarCartaForzada(CartaInglesa c) { if (c != null) cartas.agregar(c); }
 
     /**
      * Devuelve la carta de arriba (la ultima) sin quitarla.
      * Usado para dibujar y para comprobar reglas de movimiento.
      */
     public CartaInglesa getUltimaCarta() {
-        if (cartas.isEmpty()) return null;
-        return cartas.get(cartas.size() - 1);
+        return cartas.ultima();
     }
 
     /**
      * Quita y devuelve la carta de arriba (usado al mover cartas).
      */
     public CartaInglesa eliminarUltimaCarta() {
-        if (cartas.isEmpty()) return null;
-        return cartas.remove(cartas.size() - 1);
+        return cartas.quitar();
+    }
+
+    /**
+     * Comprueba si la carta en la posicion 'k' (0 = fondo) esta boca arriba.
+     * Lo decide la columna, no la carta (las cartas son compartidas); en
+     * Eight Off se reparte todo boca arriba, asi que es cualquier posicion valida.
+     */
+    public boolean estaBocaArriba(int k) {
+        return k >= 0 && k < cartas.tamano();
     }
 
     /**
      * Comprueba si una carta esta en esta columna (para buscar origen).
      */
     public boolean contieneCarta(CartaInglesa c) {
-        return cartas.contains(c);
+        return cartas.vista().contains(c);
     }
 
     /**
@@ -0,0 +1,144 @@
+package eightoff;
+
+import java.util.Arrays;
+
+/**
+ * TranspositionTable (Tabla de Transposicion)
+ * Tabla hash de tamano fijo, con direccionamiento abierto, que recuerda las
+ * posiciones ya visitadas (por su hash de Zobrist) y el mejor costo con que se llego.
+ *
+ * - Las claves y valores viven en arreglos primitivos: buscar y guardar no crean objetos.
+ * - Cada clave se busca en una ventana de 'SONDEO' casillas consecutivas.
+ * - Si la ventana esta llena, se reemplaza la entrada de una busqueda anterior
+ *   o, si todas son actuales, la de mayor costo (la menos util para podar).
+ * - 'limpiar()' es O(1): solo cambia de generacion; las entradas viejas cuentan como vacias.
+ */
+public final class TranspositionTable {
+
+    // Valor devuelto por 'buscar' cuando la clave no esta.
+    public static final int NO_ENCONTRADO = -1;
+
+    // Tamano maximo: 2^30 casillas (los arreglos de Java no pasan de 2^31).
+    public static final int MAX_LOG2_TAMANO = 30;
+
+    // Casillas revisadas por clave (4 longs = media linea de cache).
+    private static final int SONDEO = 4;
+
+    private final long[] claves;
+    private final int[] valores;
+    private final byte[] generaciones;
+    private final int mascara;
+    private byte generacion = 1;
+    private int ocupadas;
+
+    /**
+     * Constructor.
+     * @param log2Tamano La tabla tendra 2^log2Tamano casillas (0..MAX_LOG2_TAMANO).
+     */
+    public TranspositionTable(int log2Tamano) {
+        if (log2Tamano < 0 || log2Tamano > MAX_LOG2_TAMANO) {
+            throw new IllegalArgumentException("Tamano de tabla invalido: 2^" + log2Tamano);
+        }
+        int tamano = 1 << log2Tamano;
+        claves = new long[tamano + SONDEO];
+        valores = new int[tamano + SONDEO];
+        generaciones = new byte[tamano + SONDEO];
+        mascara = tamano - 1;
+    }
+
+    /**
+     * Devuelve el valor guardado para la clave, o NO_ENCONTRADO.
+     */
+    public int buscar(long clave) {
+        int i = indice(clave);
+        for (int s = 0; s < SONDEO; s++, i++) {
+            if (generaciones[i] == generacion && claves[i] == clave) return valores[i];
+        }
+        return NO_ENCONTRADO;
+    }
+
+    /**
+     * Registra una visita con costo 'valor'. Es la operacion tipica de la busqueda:
+     * @return true si la posicion es nueva o se llego con menor costo que antes
+     *         (hay que explorarla); false si ya se vio con igual o menor costo.
+     */
+    public boolean visitar(long clave, int valor) {
+        return registrar(clave, valor, true);
+    }
+
+    /**
+     * Igual que 'visitar', pero una posicion ya vista nunca se vuelve a abrir
+     * aunque ahora el costo sea menor (lo que conviene en A* ponderado).
+     * @return true solo si la posicion es nueva.
+     */
+    public boolean agregarSiNueva(long clave, int valor) {
+        return registrar(clave, valor, false);
+    }
+
+    /**
+     * Guarda el valor de la clave aunque ya estuviera (con cualquier valor).
+     * Sirve para usar la tabla como contador por posicion.
+     */
+    public void guardar(long clave, int valor) {
+        int i = indice(clave);
+        for (int s = 0; s < SONDEO; s++, i++) {
+            if (generaciones[i] == generacion && claves[i] == clave) {
+                valores[i] = valor;
+                return;
+            }
+        }
+        registrar(clave, valor, false);
+    }
+
+    private boolean registrar(long clave, int valor, boolean reabrir) {
+        int i = indice(clave);
+        int victima = -1;
+        for (int s = 0; s < SONDEO; s++, i++) {
+            if (generaciones[i] != generacion) {
+                // Casilla libre (o de una busqueda anterior)
+                if (victima < 0 || generaciones[victima] == generacion) victima = i;
+                continue;
+            }
+            if (claves[i] == clave) {
+                if (!reabrir || valores[i] <= valor) return false;
+                valores[i] = valor;
+                return true;
+            }
+            if (victima < 0 || (generaciones[victima] == generacion && valores[i] > valores[victima])) {
+                victima = i;
+            }
+        }
+        if (generaciones[victima] != generacion) ocupadas++;
+        claves[victima] = clave;
+        valores[victima] = valor;
+        generaciones[victima] = generacion;
+        return true;
+    }
+
+    /**
+     * Vacia la tabla en O(1) pasando a la siguiente generacion.
+     */
+    public void limpiar() {
+        generacion++;
+        if (generacion == 0) {
+            // Se dio la vuelta al contador: ahora si hay que borrar las marcas viejas
+            Arrays.fill(generaciones, (byte) 0);
+            generacion = 1;
+        }
+        ocupadas = 0;
+    }
+
+    /** Numero de casillas ocupadas en la generacion actual. */
+    public int getOcupadas() { return ocupadas; }
+
+    /** Numero total de casillas. */
+    public int getCapacidad() { return mascara + 1; }
+
+    /**
+     * Convierte la clave en la primera casilla de su ventana
+     * (mezcla la mitad alta y la baja de la clave).
+     */
+    private int indice(long clave) {
+        return (int) (clave ^ (clave >>> 32)) & mascara;
+    }
+}
\ No newline at end of file
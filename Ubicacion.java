@@ -0,0 +1,28 @@
+package eightoff;
+
+/**
+ * Ubicacion (Donde esta una carta)
+ * Clase utilitaria que empaqueta en un int la ubicacion de una carta:
+ * tipo de pila (los mismos tipos de 'Jugada'), indice de la pila y profundidad.
+ *
+ * Distribucion de bits:
+ * - 0..1  tipo de pila (COLUMNA, CELDA, FUNDACION)
+ * - 2..4  indice de la pila
+ * - 5..   profundidad (0 = fondo de la columna o de la fundacion; 0 en celdas)
+ */
+public final class Ubicacion {
+
+    // Valor para una carta que no esta en el tablero.
+    public static final int NINGUNA = -1;
+
+    private Ubicacion() { }
+
+    /** Construye una ubicacion empaquetada. */
+    public static int crear(int tipo, int indice, int profundidad) {
+        return tipo | indice << 2 | profundidad << 5;
+    }
+
+    public static int tipo(int ubicacion)        { return ubicacion & 0x3; }
+    public static int indice(int ubicacion)      { return (ubicacion >>> 2) & 0x7; }
+    public static int profundidad(int ubicacion) { return ubicacion >>> 5; }
+}
\ No newline at end of file
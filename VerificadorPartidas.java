@@ -0,0 +1,244 @@
+package eightoff;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * VerificadorPartidas (Auditoria de archivos de partidas)
+ * Vuelve a jugar cada partida de un archivo (ver 'ArchivoPartidas') con los
+ * metodos de movimiento de 'EightOffGame' y revisa que todas las jugadas sean
+ * legales y que el resultado guardado coincida con el de 'verificarFinJuego'.
+ *
+ * - Un hilo recorre solo las cabeceras y corta el archivo en lotes de 'LOTE' partidas
+ *   (rangos de bytes); cada lote lo verifica un trabajador con su propio lector mapeado.
+ * - La cola de lotes es acotada (si se llena, el hilo que corta verifica un lote el mismo),
+ *   asi la memoria no depende del tamano del archivo.
+ * - Las divergencias se entregan al receptor en cuanto aparecen (desde varios hilos).
+ */
+public final class VerificadorPartidas {
+
+    // Partidas por lote.
+    private static final int LOTE = 4096;
+
+    // Tipos de divergencia
+    public static final int JUGADA_ILEGAL = 1;     // La jugada no se pudo aplicar
+    public static final int RESULTADO_DISTINTO = 2; // Se aplicaron todas, pero el resultado no coincide
+
+    private final int hilos;
+
+    public VerificadorPartidas() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public VerificadorPartidas(int hilos) {
+        this.hilos = hilos;
+    }
+
+    /**
+     * Verifica todo el archivo y espera a que termine.
+     * @param receptor Recibe cada divergencia (se llama desde varios hilos).
+     */
+    public Resumen verificar(Path archivo, Consumer<Divergencia> receptor) throws IOException {
+        long t0 = System.nanoTime();
+        LongAdder partidas = new LongAdder();
+        LongAdder jugadas = new LongAdder();
+        LongAdder divergencias = new LongAdder();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        ThreadLocal<EightOffGame> juegos = ThreadLocal.withInitial(() -> new EightOffGame(1));
+
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(hilos, hilos, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(hilos * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+        try (ArchivoPartidas.Lector cabeceras = new ArchivoPartidas.Lector(archivo)) {
+            long desde = cabeceras.getPosicion();
+            long primera = 0;
+            int enLote = 0;
+            while (error.get() == null && cabeceras.siguiente()) {
+                if (++enLote < LOTE) continue;
+                pool.execute(new Lote(archivo, desde, cabeceras.getPosicion(), primera, juegos,
+                        partidas, jugadas, divergencias, receptor, error));
+                desde = cabeceras.getPosicion();
+                primera += enLote;
+                enLote = 0;
+            }
+            if (enLote > 0) {
+                pool.execute(new Lote(archivo, desde, cabeceras.getPosicion(), primera, juegos,
+                        partidas, jugadas, divergencias, receptor, error));
+            }
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        Throwable e = error.get();
+        if (e instanceof UncheckedIOException) throw ((UncheckedIOException) e).getCause();
+        if (e instanceof RuntimeException) throw (RuntimeException) e;
+        if (e instanceof Error) throw (Error) e;
+        return new Resumen(partidas.sum(), jugadas.sum(), divergencias.sum(), System.nanoTime() - t0);
+    }
+
+    /**
+     * Verifica las partidas de un rango de bytes del archivo.
+     */
+    private static final class Lote implements Runnable {
+        private final Path archivo;
+        private final long desde, hasta;
+        private final long primera; // Indice de la primera partida del lote
+        private final ThreadLocal<EightOffGame> juegos;
+        private final LongAdder partidas, jugadas, divergencias;
+        private final Consumer<Divergencia> receptor;
+        private final AtomicReference<Throwable> error;
+
+        Lote(Path archivo, long desde, long hasta, long primera, ThreadLocal<EightOffGame> juegos,
+             LongAdder partidas, LongAdder jugadas, LongAdder divergencias,
+             Consumer<Divergencia> receptor, AtomicReference<Throwable> error) {
+            this.archivo = archivo;
+            this.desde = desde;
+            this.hasta = hasta;
+            this.primera = primera;
+            this.juegos = juegos;
+            this.partidas = partidas;
+            this.jugadas = jugadas;
+            this.divergencias = divergencias;
+            this.receptor = receptor;
+            this.error = error;
+        }
+
+        @Override
+        public void run() {
+            if (error.get() != null) return; // Ya fallo otro lote
+            EightOffGame juego = juegos.get();
+            long n = 0, movs = 0;
+            try (ArchivoPartidas.Lector l = new ArchivoPartidas.Lector(archivo, desde, hasta)) {
+                while (l.siguiente()) {
+                    n++;
+                    int aplicadas = l.reproducir(juego);
+                    movs += aplicadas;
+                    long indice = primera + l.getIndice();
+                    if (aplicadas < l.getNumJugadas()) {
+                        divergencias.increment();
+                        receptor.accept(new Divergencia(indice, l.getNumeroPartida(), JUGADA_ILEGAL,
+                                aplicadas, l.getJugada(aplicadas), l.getResultado(), -1));
+                        continue;
+                    }
+                    int obtenido = ArchivoPartidas.resultadoDe(juego);
+                    if (obtenido != l.getResultado()) {
+                        divergencias.increment();
+                        receptor.accept(new Divergencia(indice, l.getNumeroPartida(), RESULTADO_DISTINTO,
+                                aplicadas, Jugada.NINGUNA, l.getResultado(), obtenido));
+                    }
+                }
+            } catch (IOException e) {
+                error.compareAndSet(null, new UncheckedIOException(e));
+            } catch (RuntimeException | Error e) {
+                error.compareAndSet(null, e);
+            } finally {
+                partidas.add(n);
+                jugadas.add(movs);
+            }
+        }
+    }
+
+    /**
+     * Una partida cuya reproduccion no coincide con lo guardado.
+     */
+    public static final class Divergencia {
+        private final long indice;          // Posicion de la partida en el archivo (0 = la primera)
+        private final long numeroPartida;
+        private final int tipo;             // JUGADA_ILEGAL o RESULTADO_DISTINTO
+        private final int numJugada;        // Jugada que fallo, o cuantas se aplicaron
+        private final int jugada;           // La jugada ilegal (o Jugada.NINGUNA)
+        private final int resultadoGuardado;
+        private final int resultadoObtenido; // -1 si no se llego al final
+
+        Divergencia(long indice, long numeroPartida, int tipo, int numJugada, int jugada,
+                    int resultadoGuardado, int resultadoObtenido) {
+            this.indice = indice;
+            this.numeroPartida = numeroPartida;
+            this.tipo = tipo;
+            this.numJugada = numJugada;
+            this.jugada = jugada;
+            this.resultadoGuardado = resultadoGuardado;
+            this.resultadoObtenido = resultadoObtenido;
+        }
+
+        public long getIndice() { return indice; }
+        public long getNumeroPartida() { return numeroPartida; }
+        public int getTipo() { return tipo; }
+        public int getNumJugada() { return numJugada; }
+        public int getJugada() { return jugada; }
+        public int getResultadoGuardado() { return resultadoGuardado; }
+        public int getResultadoObtenido() { return resultadoObtenido; }
+
+        @Override
+        public String toString() {
+            if (tipo == JUGADA_ILEGAL) {
+                return "partida #" + indice + " (reparto " + numeroPartida + "): jugada " + numJugada
+                        + " ilegal: " + Jugada.texto(jugada);
+            }
+            return "partida #" + indice + " (reparto " + numeroPartida + "): resultado guardado "
+                    + resultadoGuardado + ", obtenido " + resultadoObtenido;
+        }
+    }
+
+    /**
+     * Totales de una verificacion.
+     */
+    public static final class Resumen {
+        private final long partidas;
+        private final long jugadas;
+        private final long divergencias;
+        private final long nanos;
+
+        Resumen(long partidas, long jugadas, long divergencias, long nanos) {
+            this.partidas = partidas;
+            this.jugadas = jugadas;
+            this.divergencias = divergencias;
+            this.nanos = nanos;
+        }
+
+        public long getPartidas() { return partidas; }
+        public long getJugadas() { return jugadas; }
+        public long getDivergencias() { return divergencias; }
+        public long getNanos() { return nanos; }
+
+        @Override
+        public String toString() {
+            double s = nanos / 1e9;
+            return String.format("%d partidas, %d jugadas, %d divergencias, %.2f s, %.0f partidas/s",
+                    partidas, jugadas, divergencias, s, s == 0 ? 0 : partidas / s);
+        }
+    }
+
+    /**
+     * Uso: VerificadorPartidas archivo [hilos]
+     * Imprime cada divergencia en la salida estandar y el resumen en la de error.
+     * Termina con codigo 1 si hubo divergencias.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Uso: VerificadorPartidas archivo [hilos]");
+            return;
+        }
+        int hilos = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Resumen r = new VerificadorPartidas(hilos).verificar(Paths.get(args[0]), d -> {
+            String linea = d.toString();
+            synchronized (System.out) {
+                System.out.println(linea);
+            }
+        });
+        System.err.println(r);
+        if (r.getDivergencias() > 0) System.exit(1);
+    }
+}
\ No newline at end of file
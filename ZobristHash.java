@@ -0,0 +1,89 @@
+package eightoff;
+
+import DeckOfCards.CartaInglesa;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * ZobristHash (Hash de Zobrist)
+ * Tablas de numeros aleatorios fijos para calcular un hash de 64 bits de una
+ * posicion, que se puede actualizar con un XOR por cada carta que se mueve.
+ *
+ * - Columnas: una clave por (columna, profundidad, carta).
+ * - Celdas libres: una clave por carta, sin importar en que celda esta
+ *   (las celdas cuentan como un conjunto, asi que permutarlas no cambia el hash).
+ * - Fundaciones: una clave por carta que ya esta en alguna fundacion.
+ */
+public final class ZobristHash {
+
+    // Profundidades distintas por columna (las columnas reales nunca pasan de 19).
+    private static final int PROFUNDIDADES = 32;
+
+    private static final long[] COLUMNA = new long[PackedBoard.NUM_COLUMNAS * PROFUNDIDADES * CardCode.TOTAL];
+    private static final long[] CELDA = new long[CardCode.TOTAL];
+    private static final long[] FUNDACION = new long[CardCode.TOTAL];
+
+    static {
+        // Semilla fija: el mismo tablero tiene el mismo hash en todas las ejecuciones
+        SplittableRandom rnd = new SplittableRandom(0x8_0FF_5EEDL);
+        for (int i = 0; i < COLUMNA.length; i++) COLUMNA[i] = rnd.nextLong();
+        for (int i = 0; i < CardCode.TOTAL; i++) CELDA[i] = rnd.nextLong();
+        for (int i = 0; i < CardCode.TOTAL; i++) FUNDACION[i] = rnd.nextLong();
+    }
+
+    private ZobristHash() { }
+
+    /** Clave de una carta en la posicion 'profundidad' (0 = fondo) de una columna. */
+    public static long columna(int col, int profundidad, int codigo) {
+        return COLUMNA[((col * PROFUNDIDADES) + (profundidad & (PROFUNDIDADES - 1))) * CardCode.TOTAL + codigo];
+    }
+
+    /** Clave de una carta que esta en alguna celda libre. */
+    public static long celda(int codigo) {
+        return CELDA[codigo];
+    }
+
+    /** Clave de una carta que esta en alguna fundacion. */
+    public static long fundacion(int codigo) {
+        return FUNDACION[codigo];
+    }
+
+    /**
+     * Calcula desde cero el hash de un tablero empaquetado.
+     */
+    public static long calcular(PackedBoard b) {
+        long h = 0;
+        for (int i = 0; i < PackedBoard.NUM_CELDAS; i++) {
+            int c = b.celda(i);
+            if (c != CardCode.VACIO) h ^= celda(c);
+        }
+        for (int i = 0; i < PackedBoard.NUM_FUNDACIONES; i++) {
+            int base = b.paloFundacion(i) * 13;
+            for (int v = 0; v < b.alturaFundacion(i); v++) h ^= fundacion(base + v);
+        }
+        for (int col = 0; col < PackedBoard.NUM_COLUMNAS; col++) {
+            for (int k = 0; k < b.altura(col); k++) h ^= columna(col, k, b.carta(col, k));
+        }
+        return h;
+    }
+
+    /**
+     * Calcula desde cero el hash de un juego (debe coincidir con el de su 'PackedBoard').
+     */
+    public static long calcular(EightOffGame juego) {
+        long h = 0;
+        for (CartaInglesa c : juego.getCeldasLibres()) {
+            if (c != null) h ^= celda(c.getCodigo());
+        }
+        for (FoundationDeck f : juego.getFundaciones()) {
+            for (CartaInglesa c : f.getCartas()) h ^= fundacion(c.getCodigo());
+        }
+        List<TableauDeck> columnas = juego.getColumnas();
+        for (int col = 0; col < columnas.size(); col++) {
+            List<CartaInglesa> cartas = columnas.get(col).getCartas();
+            for (int k = 0; k < cartas.size(); k++) h ^= columna(col, k, cartas.get(k).getCodigo());
+        }
+        return h;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package benchmark;
+
+import eightoff.EightOffGame;
+import eightoff.Jugada;
+import eightoff.MetricasJuego;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConsultaBenchmark (Consultas sobre posiciones a media partida)
+ * darPista, generarJugadas, verificarFinJuego, deshacer/rehacer e instantaneas
+ * sobre posiciones fijas (ver 'Posiciones.aMediaPartida').
+ *
+ * Con el parametro 'juego' = medido, las mismas operaciones sobre
+ * 'EightOffGameMedido', para ver cuanto cuestan las metricas.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsultaBenchmark {
+
+    @Param({"simple", "medido"})
+    public String juego;
+
+    private final int[] jugadas = new int[Jugada.MAX_JUGADAS];
+    private EightOffGame[] juegos;
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        juegos = Posiciones.aMediaPartida(juego.equals("medido") ? new MetricasJuego() : null);
+    }
+
+    private EightOffGame siguiente() {
+        return juegos[siguiente++ & (Posiciones.CANTIDAD - 1)];
+    }
+
+    @Benchmark
+    public String darPista() {
+        return siguiente().darPista();
+    }
+
+    @Benchmark
+    public int generarJugadas() {
+        return siguiente().generarJugadas(jugadas);
+    }
+
+    @Benchmark
+    public String verificarFinJuego() {
+        return siguiente().verificarFinJuego();
+    }
+
+    /** deshacerMovimiento y rehacerMovimiento (el tablero queda igual). */
+    @Benchmark
+    public boolean deshacerYRehacer() {
+        EightOffGame j = siguiente();
+        j.deshacerMovimiento();
+        return j.rehacerMovimiento();
+    }
+
+    /** Tomar una instantanea, jugar y volver a ella. */
+    @Benchmark
+    public int instantaneaYRestaurar() {
+        EightOffGame j = siguiente();
+        EightOffGame.Instantanea foto = j.tomarInstantanea();
+        int n = j.generarJugadas(jugadas);
+        if (n > 0) j.aplicarJugada(jugadas[0]);
+        j.restaurar(foto);
+        return n;
+    }
+}
\ No newline at end of file
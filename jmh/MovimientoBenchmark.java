@@ -0,0 +1,64 @@
+package benchmark;
+
+import eightoff.Jugada;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MovimientoBenchmark (Cada mover* con su deshacer)
+ * Cada operacion hace una jugada legal de un tipo (por 'aplicarJugada', que llama
+ * al mover* que corresponde) y la deshace, para que el tablero vuelva al mismo
+ * estado. Las posiciones son fijas (ver 'Posiciones.conJugada').
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MovimientoBenchmark {
+
+    private Posiciones.ConJugada aFundacion;
+    private Posiciones.ConJugada aCelda;
+    private Posiciones.ConJugada aColumna;
+    private Posiciones.ConJugada pilaAColumna;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        aFundacion = Posiciones.conJugada(Jugada.FUNDACION, 1);
+        aCelda = Posiciones.conJugada(Jugada.CELDA, 1);
+        aColumna = Posiciones.conJugada(Jugada.COLUMNA, 1);
+        pilaAColumna = Posiciones.conJugada(Jugada.COLUMNA, 2);
+    }
+
+    @Benchmark
+    public boolean moverAFundacion() {
+        return aFundacion.moverYDeshacer();
+    }
+
+    @Benchmark
+    public boolean moverACelda() {
+        return aCelda.moverYDeshacer();
+    }
+
+    @Benchmark
+    public boolean moverAColumna() {
+        return aColumna.moverYDeshacer();
+    }
+
+    @Benchmark
+    public boolean moverPilaAColumna() {
+        return pilaAColumna.moverYDeshacer();
+    }
+}
\ No newline at end of file
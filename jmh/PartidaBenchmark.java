@@ -0,0 +1,56 @@
+package benchmark;
+
+import eightoff.EightOffGame;
+import eightoff.EightOffSolver;
+import eightoff.Jugada;
+import eightoff.PackedBoard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PartidaBenchmark (Partidas completas)
+ * Una partida al azar de principio a fin y el resolvedor sobre un reparto.
+ * Los repartos y la semilla vuelven al principio en cada iteracion.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartidaBenchmark {
+
+    private final int[] buffer = new int[Jugada.MAX_JUGADAS];
+    private final EightOffSolver solver = new EightOffSolver();
+    private long numero;
+    private Random rnd;
+
+    @Setup(Level.Iteration)
+    public void preparar() {
+        numero = Posiciones.PARTIDA_BASE;
+        rnd = new Random(7);
+    }
+
+    /** Juega al azar hasta ganar, bloquearse o llegar a 500 jugadas. */
+    @Benchmark
+    public int partidaAleatoria() {
+        return Posiciones.jugarAlAzar(new EightOffGame(numero++), rnd, buffer);
+    }
+
+    @Benchmark
+    public int resolver() {
+        return solver.resolver(PackedBoard.deReparto(numero++)).getNodos();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,130 @@
+package benchmark;
+
+import eightoff.EightOffGame;
+import eightoff.EightOffGameMedido;
+import eightoff.Jugada;
+import eightoff.MetricasJuego;
+
+import java.util.Random;
+
+/**
+ * Posiciones (Tableros fijos para los benchmarks)
+ * Arma las posiciones que recorren los benchmarks, siempre las mismas: salen de
+ * repartos numerados desde 'PARTIDA_BASE' y de jugadas al azar con semillas fijas.
+ * Cada benchmark recorre 'CANTIDAD' posiciones distintas, para no medir siempre
+ * el mismo tablero.
+ */
+final class Posiciones {
+
+    // Numero de partida base: todos los benchmarks usan los mismos repartos.
+    static final long PARTIDA_BASE = 1;
+
+    // Cuantas posiciones distintas recorre cada benchmark (potencia de 2).
+    static final int CANTIDAD = 64;
+
+    private Posiciones() {
+    }
+
+    /**
+     * Posiciones a media partida (20 jugadas al azar desde repartos fijos).
+     * @param metricas Si no es null, los juegos son 'EightOffGameMedido' con estas metricas.
+     */
+    static EightOffGame[] aMediaPartida(MetricasJuego metricas) {
+        EightOffGame[] juegos = new EightOffGame[CANTIDAD];
+        Random rnd = new Random(3);
+        int[] buffer = new int[Jugada.MAX_JUGADAS];
+        for (int k = 0; k < CANTIDAD; k++) {
+            juegos[k] = metricas == null
+                    ? new EightOffGame(PARTIDA_BASE + k)
+                    : new EightOffGameMedido(metricas, PARTIDA_BASE + k);
+            for (int paso = 0; paso < 20; paso++) {
+                int n = juegos[k].generarJugadas(buffer);
+                if (n == 0) break;
+                juegos[k].aplicarJugada(buffer[rnd.nextInt(n)]);
+            }
+        }
+        return juegos;
+    }
+
+    /**
+     * Posiciones donde una jugada de cierto tipo es legal, con esa jugada.
+     * @param tipoDestino FUNDACION, CELDA o COLUMNA.
+     * @param minCartas Minimo de cartas de la jugada (2 para mover pilas; con 1,
+     *                  solo jugadas de una carta).
+     */
+    static ConJugada conJugada(int tipoDestino, int minCartas) {
+        EightOffGame[] juegos = new EightOffGame[CANTIDAD];
+        int[] jugadas = new int[CANTIDAD];
+        int[] buffer = new int[Jugada.MAX_JUGADAS];
+        Random rnd = new Random(11);
+        long numero = PARTIDA_BASE;
+        int encontrados = 0;
+
+        // Recorre partidas al azar (siempre las mismas) hasta juntar las posiciones
+        while (encontrados < CANTIDAD) {
+            EightOffGame juego = new EightOffGame(numero++);
+            for (int paso = 0; paso < 200; paso++) {
+                int n = juego.generarJugadas(buffer);
+                if (n == 0) break;
+                int elegida = Jugada.NINGUNA;
+                for (int k = 0; k < n; k++) {
+                    int j = buffer[k];
+                    if (Jugada.tipoDestino(j) == tipoDestino && Jugada.numCartas(j) >= minCartas
+                            && (minCartas > 1 || Jugada.numCartas(j) == 1)) {
+                        elegida = j;
+                        break;
+                    }
+                }
+                if (elegida != Jugada.NINGUNA) {
+                    juegos[encontrados] = juego;
+                    jugadas[encontrados] = elegida;
+                    encontrados++;
+                    break; // Una posicion por partida
+                }
+                juego.aplicarJugada(buffer[rnd.nextInt(n)]);
+            }
+        }
+        return new ConJugada(juegos, jugadas);
+    }
+
+    /**
+     * Juega al azar hasta ganar, bloquearse o llegar a 500 jugadas.
+     * @return Cuantas jugadas se hicieron.
+     */
+    static int jugarAlAzar(EightOffGame juego, Random rnd, int[] buffer) {
+        int jugadas = 0;
+        while (jugadas < 500 && juego.verificarFinJuego() == null) {
+            int n = juego.generarJugadas(buffer);
+            if (n == 0) break;
+            juego.aplicarJugada(buffer[rnd.nextInt(n)]);
+            jugadas++;
+        }
+        return jugadas;
+    }
+
+    /**
+     * Posiciones con una jugada legal en cada una.
+     */
+    static final class ConJugada {
+        private final EightOffGame[] juegos;
+        private final int[] jugadas;
+        private int siguiente;
+
+        ConJugada(EightOffGame[] juegos, int[] jugadas) {
+            this.juegos = juegos;
+            this.jugadas = jugadas;
+        }
+
+        /**
+         * Hace la jugada de la siguiente posicion y la deshace (el tablero
+         * queda igual que antes).
+         */
+        boolean moverYDeshacer() {
+            int k = siguiente++ & (CANTIDAD - 1);
+            EightOffGame juego = juegos[k];
+            boolean hecho = juego.aplicarJugada(jugadas[k]);
+            juego.deshacerMovimiento();
+            return hecho;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package benchmark;
+
+import DeckOfCards.Mazo;
+import eightoff.EightOffGame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RepartoBenchmark (Generacion de repartos)
+ * Crear y barajar mazos y repartir juegos. Cada operacion usa el siguiente numero
+ * de partida; la cuenta vuelve a 'PARTIDA_BASE' en cada iteracion, asi todas las
+ * corridas miden los mismos repartos.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepartoBenchmark {
+
+    private final int[] codigos = new int[52];
+    private long numero;
+    private SplittableRandom barajador;
+    private EightOffGame reusado;
+
+    @Setup(Level.Iteration)
+    public void preparar() {
+        numero = Posiciones.PARTIDA_BASE;
+        barajador = new SplittableRandom(Posiciones.PARTIDA_BASE);
+        reusado = new EightOffGame(Posiciones.PARTIDA_BASE);
+    }
+
+    /** new Mazo(numero): mazo barajado con su reparto. */
+    @Benchmark
+    public int mazoNuevo() {
+        return new Mazo(numero++).getTamanio();
+    }
+
+    /** Solo el orden de las cartas, sin crear el mazo. */
+    @Benchmark
+    public int barajarCodigos() {
+        Mazo.barajarCodigos(numero++, codigos);
+        return codigos[0];
+    }
+
+    /** Mazo mezclado con un generador y repartido como codigos. */
+    @Benchmark
+    public int mezclarYRepartir() {
+        return new Mazo(barajador).sacarCodigos(codigos);
+    }
+
+    @Benchmark
+    public long juegoNuevo() {
+        return new EightOffGame(numero++).getHash();
+    }
+
+    /** Repartir de nuevo sobre un juego existente (reusa sus estructuras). */
+    @Benchmark
+    public long iniciarJuego() {
+        reusado.iniciarJuego(numero++);
+        return reusado.getHash();
+    }
+}
\ No newline at end of file
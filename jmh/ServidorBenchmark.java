@@ -0,0 +1,48 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import servidor.ClienteLocal;
+import servidor.ProtocoloJuego;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ServidorBenchmark (Ordenes del servidor sin la red)
+ * Una jugada y su deshacer como ordenes de texto, por el mismo camino que una
+ * conexion ('ProtocoloJuego' y la sesion), sin el socket.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServidorBenchmark {
+
+    private ClienteLocal cliente;
+    private String mover;
+    private String deshacer;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        cliente = new ClienteLocal(new ProtocoloJuego());
+        long sesion = cliente.nueva(Posiciones.PARTIDA_BASE);
+        mover = "MOVER " + sesion + " " + cliente.jugadas(sesion)[0];
+        deshacer = "DESHACER " + sesion;
+    }
+
+    @Benchmark
+    public int moverYDeshacer() {
+        return cliente.enviar(mover).length() + cliente.enviar(deshacer).length();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import servidor.ClienteLocal;
+import servidor.ProtocoloJuego;
+import servidor.ServidorJuegos;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ServidorRedBenchmark (Ordenes del servidor por TCP)
+ * La latencia de una orden por loopback: se manda y se espera la respuesta.
+ * Las ordenes alternan entre una jugada y su deshacer (cada muestra es una ida
+ * y vuelta). Mide en modo SampleTime, asi JMH reporta los percentiles (p0.99).
+ * Con '-t N' hay N conexiones, cada una con su sesion.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServidorRedBenchmark {
+
+    /**
+     * El servidor (uno para todas las conexiones).
+     */
+    @State(Scope.Benchmark)
+    public static class Servidor {
+        ProtocoloJuego protocolo;
+        ServidorJuegos servidor;
+
+        @Setup(Level.Trial)
+        public void abrir() throws IOException {
+            protocolo = new ProtocoloJuego();
+            servidor = new ServidorJuegos(0, protocolo);
+        }
+
+        @TearDown(Level.Trial)
+        public void cerrar() throws IOException {
+            servidor.close();
+        }
+    }
+
+    /**
+     * Una conexion y su sesion.
+     */
+    @State(Scope.Thread)
+    public static class Conexion {
+        private Socket socket;
+        private BufferedReader in;
+        private OutputStream out;
+        private byte[] mover;
+        private byte[] deshacer;
+        private boolean movida;
+
+        @Setup(Level.Trial)
+        public void conectar(Servidor s) throws IOException {
+            ClienteLocal cliente = new ClienteLocal(s.protocolo);
+            long sesion = cliente.nueva(Posiciones.PARTIDA_BASE);
+            mover = ("MOVER " + sesion + " " + cliente.jugadas(sesion)[0] + "\n").getBytes(StandardCharsets.UTF_8);
+            deshacer = ("DESHACER " + sesion + "\n").getBytes(StandardCharsets.UTF_8);
+
+            socket = new Socket(InetAddress.getLoopbackAddress(), s.servidor.getPuerto());
+            socket.setTcpNoDelay(true);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = socket.getOutputStream();
+        }
+
+        @TearDown(Level.Trial)
+        public void cortar() throws IOException {
+            socket.close();
+        }
+    }
+
+    @Benchmark
+    public String orden(Conexion c) throws IOException {
+        c.out.write(c.movida ? c.deshacer : c.mover);
+        c.movida = !c.movida;
+        return c.in.readLine();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+package benchmark;
+
+import DeckOfCards.CartaInglesa;
+import eightoff.EightOffGame;
+import eightoff.FoundationDeck;
+import eightoff.TableauDeck;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TableroBenchmark (Preparacion del tablero para dibujar)
+ * Lo que el tablero lee del modelo para dibujar una posicion entera: la carta de
+ * arriba de cada fundacion, las celdas, las cartas de cada columna y la pila que
+ * se puede arrastrar desde cada una (ver 'BoardController.refrescarTablero').
+ *
+ * Crear y ubicar los nodos de JavaFX queda afuera: este modulo no usa la interfaz
+ * y no tiene un toolkit donde correrlos.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableroBenchmark {
+
+    private EightOffGame[] juegos;
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        juegos = Posiciones.aMediaPartida(null);
+    }
+
+    /**
+     * Recorre la posicion entera y copia las pilas arrastrables, como al redibujar.
+     * @return Cuantas cartas se leyeron.
+     */
+    @Benchmark
+    public int prepararTablero(Blackhole bh) {
+        EightOffGame juego = juegos[siguiente++ & (Posiciones.CANTIDAD - 1)];
+        int leidas = 0;
+
+        // Fundaciones: solo se dibuja la de arriba
+        for (FoundationDeck f : juego.getFundaciones()) {
+            List<CartaInglesa> cartas = f.getCartas();
+            if (!cartas.isEmpty()) {
+                bh.consume(cartas.get(cartas.size() - 1));
+                leidas++;
+            }
+        }
+
+        // Celdas
+        for (CartaInglesa c : juego.getCeldasLibres()) {
+            if (c != null) {
+                bh.consume(c);
+                leidas++;
+            }
+        }
+
+        // Columnas: cada carta, y desde donde empieza la pila valida (mismo palo, descendente)
+        for (TableauDeck col : juego.getColumnas()) {
+            List<CartaInglesa> cartas = col.getCartas();
+            int inicioPila = cartas.size() - 1;
+            while (inicioPila > 0 && sigueLaPila(cartas.get(inicioPila - 1), cartas.get(inicioPila))) inicioPila--;
+            for (int i = 0; i < cartas.size(); i++) {
+                bh.consume(cartas.get(i));
+                if (i >= inicioPila) bh.consume(new ArrayList<>(cartas.subList(i, cartas.size())));
+                leidas++;
+            }
+        }
+        return leidas;
+    }
+
+    private static boolean sigueLaPila(CartaInglesa abajo, CartaInglesa arriba) {
+        return abajo.getPalo() == arriba.getPalo() && abajo.getValor() == arriba.getValor() + 1;
+    }
+}
\ No newline at end of file